@@ -0,0 +1,122 @@
+package com.example.benchmark;
+
+import com.example.model.Auteur;
+import com.example.model.Categorie;
+import com.example.model.Livre;
+import com.example.reference.CategorieRegistry;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Outils communs aux benchmarks : création d'une EntityManagerFactory isolée
+ * (base H2 dédiée, sans show_sql) et génération d'un jeu de données paramétré.
+ */
+public final class BenchmarkSupport {
+
+    public static final String PERSISTENCE_UNIT = "hibernate-performance";
+
+    private BenchmarkSupport() {
+    }
+
+    // Propriétés de base : une base en mémoire propre à chaque trial, aucune sortie SQL
+    // ni instrumentation (statistiques, chronométrage JDBC) sauf si un benchmark la demande
+    public static Map<String, Object> defaultProperties() {
+        Map<String, Object> props = new HashMap<>();
+        props.put("javax.persistence.jdbc.url",
+                "jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        props.put("hibernate.show_sql", "false");
+        props.put("hibernate.format_sql", "false");
+        props.put("hibernate.generate_statistics", "false");
+        props.put("hibernate.connection.provider_class",
+                "org.hibernate.engine.jdbc.connections.internal.DriverManagerConnectionProviderImpl");
+        props.put("com.example.sqlbudget.mode", "off");
+        props.put("com.example.trace.enabled", "false");
+        return props;
+    }
+
+    public static EntityManagerFactory createEntityManagerFactory() {
+        return createEntityManagerFactory(new HashMap<>());
+    }
+
+    public static EntityManagerFactory createEntityManagerFactory(Map<String, Object> overrides) {
+        Map<String, Object> props = defaultProperties();
+        props.putAll(overrides);
+        return Persistence.createEntityManagerFactory(PERSISTENCE_UNIT, props);
+    }
+
+    // Jeu de données : nbAuteurs auteurs, livresParAuteur livres chacun, 1 à 2 catégories par livre
+    public static void populate(EntityManagerFactory emf, int nbAuteurs, int livresParAuteur, int nbCategories) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+
+            List<Categorie> categories = new ArrayList<>();
+            for (int c = 0; c < nbCategories; c++) {
+                Categorie categorie = new Categorie("Categorie " + c, "Description " + c);
+                em.persist(categorie);
+                categories.add(categorie);
+            }
+
+            int isbn = 0;
+            for (int a = 0; a < nbAuteurs; a++) {
+                Auteur auteur = new Auteur("Nom" + a, "Prenom" + a, "auteur" + a + "@example.com");
+                for (int l = 0; l < livresParAuteur; l++) {
+                    Livre livre = new Livre("Livre " + a + "-" + l, 1900 + (isbn % 120), "isbn-" + isbn);
+                    livre.setResume("Résumé du livre " + a + "-" + l);
+                    livre.addCategorie(categories.get(isbn % nbCategories));
+                    if (isbn % 3 == 0) {
+                        livre.addCategorie(categories.get((isbn + 1) % nbCategories));
+                    }
+                    auteur.addLivre(livre);
+                    isbn++;
+                }
+                em.persist(auteur);
+            }
+
+            em.getTransaction().commit();
+            CategorieRegistry.categoriesChanged(emf);
+        } catch (RuntimeException e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+    private static long heapBaseline;
+
+    // Mesure du pic de heap : GC, mémorisation de l'occupation de base puis remise à zéro des pics
+    public static void resetHeapPeak() {
+        System.gc();
+        heapBaseline = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    // Somme des pics des pools de heap depuis le dernier resetHeapPeak(), moins l'occupation de base
+    // (données H2 en mémoire comprises) : majorant de ce que l'opération a ajouté
+    public static long heapPeakBytes() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return Math.max(0, peak - heapBaseline);
+    }
+}
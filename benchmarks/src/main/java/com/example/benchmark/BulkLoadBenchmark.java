@@ -0,0 +1,54 @@
+package com.example.benchmark;
+
+import com.example.service.BulkLoadReport;
+import com.example.service.DataInitService;
+import org.openjdk.jmh.annotations.*;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chargement massif via DataInitService.initBulkData, avec et sans batch JDBC.
+ * Une base vierge par itération ; le débit en lignes/s est rows / temps mesuré.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BulkLoadBenchmark {
+
+    @Param({"1", "50"})
+    int batchSize;
+
+    @Param({"100"})
+    int auteurs;
+
+    @Param({"10000"})
+    int livres;
+
+    @Param({"50"})
+    int categories;
+
+    private EntityManagerFactory emf;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        Map<String, Object> props = new HashMap<>();
+        props.put("hibernate.jdbc.batch_size", String.valueOf(batchSize));
+        emf = BenchmarkSupport.createEntityManagerFactory(props);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public BulkLoadReport chargerCatalogue() {
+        return new DataInitService(emf).initBulkData(auteurs, livres, categories);
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.benchmark;
+
+import com.example.model.Auteur;
+import com.example.model.Categorie;
+import com.example.model.Livre;
+import com.example.reference.CategorieRegistry;
+import com.example.service.BulkCatalogService;
+import org.hibernate.query.NativeQuery;
+import org.openjdk.jmh.annotations.*;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Déplacement de tous les livres d'un auteur et remplacement d'une catégorie,
+ * alternativement dans un sens puis dans l'autre pour garder le même volume à chaque appel.
+ * ENTITE : chargement puis addLivre/removeLivre ou addCategorie/removeCategorie, flush en batch ;
+ * HIBERNATE : UPDATE JPQL ou SQL natif synchronisé, Hibernate vide les régions concernées ;
+ * ENSEMBLISTE : BulkCatalogService, invalidation limitée aux lignes touchées.
+ * Chaque itération affiche le débit en lignes/s et la part des livres témoins (autres auteurs)
+ * encore présents dans le cache de second niveau.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkUpdateBenchmark {
+
+    public enum Chemin {
+        ENTITE, HIBERNATE, ENSEMBLISTE
+    }
+
+    @Param({"ENTITE", "HIBERNATE", "ENSEMBLISTE"})
+    Chemin chemin;
+
+    @Param({"1000"})
+    int livresParAuteur;
+
+    private static final int AUTEURS = 20;
+    private static final int CATEGORIES = 10;
+
+    private EntityManagerFactory emf;
+    private BulkCatalogService bulk;
+    private long auteurSource;
+    private long auteurVide;
+    private long categorieSource;
+    private long categorieVide;
+    private boolean aller = true;
+    private List<Long> temoins;
+    private long lignes;
+    private long nanos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        emf = BenchmarkSupport.createEntityManagerFactory();
+        BenchmarkSupport.populate(emf, AUTEURS, livresParAuteur, CATEGORIES);
+        bulk = new BulkCatalogService(emf);
+        EntityManager em = emf.createEntityManager();
+        try {
+            auteurSource = em.createQuery("SELECT MIN(a.id) FROM Auteur a", Long.class).getSingleResult();
+            categorieSource = em.createQuery("SELECT MIN(c.id) FROM Categorie c", Long.class).getSingleResult();
+            em.getTransaction().begin();
+            Auteur vide = new Auteur("Vide", "Auteur", "vide@example.com");
+            Categorie categorie = new Categorie("Vide", "Catégorie vide");
+            em.persist(vide);
+            em.persist(categorie);
+            em.getTransaction().commit();
+            auteurVide = vide.getId();
+            categorieVide = categorie.getId();
+            // Témoins : livres des auteurs qui ne sont jamais touchés, dans la limite de la région Livre
+            temoins = em.createQuery("SELECT l.id FROM Livre l WHERE l.auteur.id <> :a ORDER BY l.id", Long.class)
+                    .setParameter("a", auteurSource)
+                    .setMaxResults(2000)
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+        CategorieRegistry.categoriesChanged(emf);
+    }
+
+    @Setup(Level.Iteration)
+    public void chargerTemoins() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            for (Long id : temoins) {
+                em.find(Livre.class, id);
+            }
+        } finally {
+            em.close();
+        }
+        lignes = 0;
+        nanos = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void bilan() {
+        int enCache = 0;
+        for (Long id : temoins) {
+            if (emf.getCache().contains(Livre.class, id)) {
+                enCache++;
+            }
+        }
+        System.out.printf("%n    %.0f lignes/s, témoins en cache : %d/%d%n",
+                nanos > 0 ? lignes * 1e9 / nanos : 0.0, enCache, temoins.size());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public long deplacerLivres() {
+        long source = aller ? auteurSource : auteurVide;
+        long cible = aller ? auteurVide : auteurSource;
+        aller = !aller;
+        long debut = System.nanoTime();
+        long n;
+        if (chemin == Chemin.ENSEMBLISTE) {
+            n = bulk.deplacerLivres(source, cible).getRows();
+        } else {
+            n = inTransaction(em -> {
+                if (chemin == Chemin.HIBERNATE) {
+                    return em.createQuery("UPDATE Livre l SET l.auteur.id = :cible WHERE l.auteur.id = :source")
+                            .setParameter("source", source)
+                            .setParameter("cible", cible)
+                            .executeUpdate();
+                }
+                Auteur de = em.find(Auteur.class, source);
+                Auteur vers = em.find(Auteur.class, cible);
+                List<Livre> livres = new ArrayList<>(de.getLivres());
+                for (Livre livre : livres) {
+                    de.removeLivre(livre);
+                    vers.addLivre(livre);
+                }
+                return livres.size();
+            });
+        }
+        mesurer(n, debut);
+        return n;
+    }
+
+    @Benchmark
+    public long remplacerCategorie() {
+        long source = aller ? categorieSource : categorieVide;
+        long cible = aller ? categorieVide : categorieSource;
+        aller = !aller;
+        long debut = System.nanoTime();
+        long n;
+        if (chemin == Chemin.ENSEMBLISTE) {
+            n = bulk.remplacerCategorie(source, cible).getRows();
+        } else {
+            n = inTransaction(em -> {
+                if (chemin == Chemin.HIBERNATE) {
+                    long rows = sql(em, "UPDATE livre_categorie SET categorie_id = ?2 WHERE categorie_id = ?1 "
+                            + "AND livre_id NOT IN (SELECT livre_id FROM livre_categorie WHERE categorie_id = ?2)",
+                            source, cible);
+                    return rows + sql(em, "DELETE FROM livre_categorie WHERE categorie_id = ?1", source);
+                }
+                Categorie de = em.find(Categorie.class, source);
+                Categorie vers = em.find(Categorie.class, cible);
+                List<Livre> livres = em.createQuery("SELECT DISTINCT l FROM Livre l JOIN l.categories c "
+                        + "LEFT JOIN FETCH l.categories WHERE c.id = :source", Livre.class)
+                        .setParameter("source", source)
+                        .getResultList();
+                for (Livre livre : livres) {
+                    livre.removeCategorie(de);
+                    livre.addCategorie(vers);
+                }
+                return livres.size();
+            });
+        }
+        mesurer(n, debut);
+        return n;
+    }
+
+    private void mesurer(long n, long debut) {
+        nanos += System.nanoTime() - debut;
+        lignes += n;
+    }
+
+    // SQL natif synchronisé sur la table de jointure : Hibernate vide la région Livre.categories entière
+    private static long sql(EntityManager em, String sql, Object... params) {
+        NativeQuery<?> query = em.createNativeQuery(sql).unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("livre_categorie");
+        for (int i = 0; i < params.length; i++) {
+            query.setParameter(i + 1, params[i]);
+        }
+        return query.executeUpdate();
+    }
+
+    private long inTransaction(ToLongFunction<EntityManager> work) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            long n = work.applyAsLong(em);
+            em.getTransaction().commit();
+            return n;
+        } catch (RuntimeException e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.benchmark;
+
+import com.example.pool.PooledConnectionProvider;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import javax.persistence.EntityManagerFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * PooledConnectionProvider qui compte le volume lu dans les ResultSet, faute de réseau
+ * à observer avec H2 en mémoire : longueur des chaînes (texte ASCII : un octet par
+ * caractère), taille des tableaux d'octets, 8 octets pour toute autre colonne.
+ */
+public class ByteCountingConnectionProvider extends PooledConnectionProvider {
+
+    private final LongAdder bytesRead = new LongAdder();
+
+    public static ByteCountingConnectionProvider of(EntityManagerFactory emf) {
+        return emf.unwrap(SessionFactoryImplementor.class).getServiceRegistry()
+                .getService(ConnectionProvider.class).unwrap(ByteCountingConnectionProvider.class);
+    }
+
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    public void reset() {
+        bytesRead.reset();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return (Connection) proxy(super.getConnection(), Connection.class);
+    }
+
+    private Object proxy(Object target, Class<?> type) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, method, args) -> {
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (type == ResultSet.class && method.getName().startsWith("get") && args != null && args.length == 1) {
+                count(result);
+            }
+            // Statements créés par la connexion et ResultSet qu'ils renvoient
+            Class<?> returned = method.getReturnType();
+            if (result != null && (Statement.class.isAssignableFrom(returned) || returned == ResultSet.class)) {
+                return proxy(result, returned);
+            }
+            return result;
+        });
+    }
+
+    private void count(Object value) {
+        if (value instanceof String) {
+            bytesRead.add(((String) value).length());
+        } else if (value instanceof byte[]) {
+            bytesRead.add(((byte[]) value).length);
+        } else if (value != null) {
+            bytesRead.add(8);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.benchmark;
+
+import com.example.cache.RegionStatistics;
+import com.example.cache.TinyLfuRegionFactory;
+import com.example.model.Livre;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare EhCacheRegionFactory (région Livre bornée à 5000 éléments, LRU) et
+ * TinyLfuRegionFactory (région bornée en octets, W-TinyLFU) sur une charge mêlant
+ * des accès répétés à des livres populaires et des parcours séquentiels ponctuels
+ * qui chassent ces livres d'un cache LRU. Un livre sur quatre a un long résumé,
+ * ce qu'une borne en nombre d'éléments ne voit pas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheRegionFactoryBenchmark {
+
+    private static final String REGION = Livre.class.getName();
+    private static final int ACCES_PAR_OP = 50;
+
+    public enum Fabrique {
+        EHCACHE("org.hibernate.cache.ehcache.EhCacheRegionFactory"),
+        TINYLFU(TinyLfuRegionFactory.class.getName());
+
+        final String classe;
+
+        Fabrique(String classe) {
+            this.classe = classe;
+        }
+    }
+
+    @Param({"EHCACHE", "TINYLFU"})
+    Fabrique fabrique;
+
+    // Part des accès consacrée au parcours séquentiel (en %)
+    @Param({"20"})
+    int parcours;
+
+    // Budget de la région Livre pour TinyLFU, du même ordre que 5000 entrées Ehcache
+    @Param({"6291456"})
+    long octets;
+
+    private final int nbLivres = 20000;
+
+    private EntityManagerFactory emf;
+    private Statistics statistics;
+    private SplittableRandom random;
+    private long curseur;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, Object> props = new HashMap<>();
+        props.put("hibernate.cache.region.factory_class", fabrique.classe);
+        props.put(TinyLfuRegionFactory.MAX_BYTES_PREFIX + REGION, String.valueOf(octets));
+        props.put("hibernate.generate_statistics", "true");
+        props.put("hibernate.session.events.log", "false");
+        emf = BenchmarkSupport.createEntityManagerFactory(props);
+        BenchmarkSupport.populate(emf, nbLivres / 10, 10, 10);
+
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            em.createNativeQuery("UPDATE livres SET resume = REPEAT('x', 1500) WHERE MOD(id, 4) = 0")
+                    .executeUpdate();
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+        emf.getCache().evictAll();
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        random = new SplittableRandom(42);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetStatistics() {
+        statistics.clear();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printHitRatio() {
+        CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(REGION);
+        long hits = region.getHitCount();
+        long misses = region.getMissCount();
+        System.out.printf("%n[%s] région Livre : hits=%d miss=%d ratio=%.3f%n",
+                fabrique, hits, misses, hits + misses == 0 ? 0 : (double) hits / (hits + misses));
+        RegionStatistics tinyLfu = TinyLfuRegionFactory.regionStatistics(emf).get(REGION);
+        if (tinyLfu != null) {
+            System.out.println("[" + fabrique + "] " + tinyLfu);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public void chargeMixte(Blackhole bh) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            for (int i = 0; i < ACCES_PAR_OP; i++) {
+                long id;
+                if (random.nextInt(100) < parcours) {
+                    id = (curseur++ % nbLivres) + 1;
+                } else {
+                    // Popularité très asymétrique : r^3 concentre les accès sur les premiers livres
+                    double r = random.nextDouble();
+                    id = (long) (r * r * r * nbLivres) + 1;
+                }
+                Livre livre = em.find(Livre.class, id);
+                bh.consume(livre != null ? livre.getTitre() : null);
+            }
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.benchmark;
+
+import com.example.cache.CacheWarmer;
+import com.example.model.Auteur;
+import com.example.model.Categorie;
+import com.example.model.Livre;
+import com.example.service.DataInitService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redémarrages successifs sur la même base H2 : un premier démarrage enregistre
+ * l'instantané des clés chaudes, puis trois redémarrages comparent un cache froid,
+ * le préchauffage heuristique et le préchauffage depuis l'instantané. Pour chacun :
+ * temps de démarrage (préchauffage compris) puis ratio de hits du cache de second
+ * niveau sur la première minute, à débit fixe (--rate) comme un trafic réel au redémarrage.
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.example.benchmark.CacheWarmupDriver \
+ *      --auteurs=1000 --livres=20000 --threads=4 --rate=1000 --duration=60 --rounds=2
+ * </pre>
+ */
+public class CacheWarmupDriver {
+
+    private enum Demarrage {
+        FROID, HEURISTIQUE, INSTANTANE
+    }
+
+    private final String url = "jdbc:h2:mem:warmup-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+    private final int nbAuteurs;
+    private final int nbLivres;
+    private final int threads;
+    // Débit cible (opérations/s, tous threads confondus), 0 = sans limite
+    private final int rate;
+
+    CacheWarmupDriver(int nbAuteurs, int nbLivres, int threads, int rate) {
+        this.nbAuteurs = nbAuteurs;
+        this.nbLivres = nbLivres;
+        this.threads = threads;
+        this.rate = rate;
+    }
+
+    private EntityManagerFactory start(String ddl, Map<String, Object> warmup) {
+        Map<String, Object> props = new HashMap<>();
+        props.put("javax.persistence.jdbc.url", url);
+        // La base survit aux fermetures : pas de create-drop après le premier démarrage
+        props.put("hibernate.hbm2ddl.auto", ddl);
+        props.put("hibernate.generate_statistics", "true");
+        props.put("hibernate.session.events.log", "false");
+        props.put("com.example.search.enabled", "false");
+        props.putAll(warmup);
+        return BenchmarkSupport.createEntityManagerFactory(props);
+    }
+
+    // Accès asymétriques : quelques auteurs et livres concentrent l'essentiel des lectures
+    private void operation(EntityManagerFactory emf, ThreadLocalRandom random) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            int tirage = random.nextInt(10);
+            double r = random.nextDouble();
+            if (tirage < 6) {
+                em.find(Livre.class, 1L + (long) (r * r * r * nbLivres)).getTitre();
+            } else if (tirage < 9) {
+                em.find(Auteur.class, 1L + (long) (r * r * nbAuteurs)).getNom();
+            } else {
+                em.find(Categorie.class, 1L + random.nextInt(50)).getNom();
+            }
+        } finally {
+            em.close();
+        }
+    }
+
+    // Ratio de hits seconde par seconde sur les 10 premières secondes, puis par fenêtre
+    // de 10 s ; cache "chaud" à la première seconde qui atteint 95 % du ratio global
+    private List<String> charge(EntityManagerFactory emf, long durationMillis, int rate) throws Exception {
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        ExecutorService executor = LoadDriver.newExecutor(threads, false);
+        int secondes = (int) (durationMillis / 1000);
+        long[] hits = new long[secondes + 1];
+        long[] miss = new long[secondes + 1];
+        try {
+            long sql0 = stats.getPrepareStatementCount();
+            hits[0] = stats.getSecondLevelCacheHitCount();
+            miss[0] = stats.getSecondLevelCacheMissCount();
+            long debut = System.nanoTime();
+            long end = debut + TimeUnit.SECONDS.toNanos(secondes);
+            long intervalle = rate <= 0 ? 0 : TimeUnit.SECONDS.toNanos(threads) / rate;
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long prochaine = System.nanoTime();
+                    while (prochaine < end) {
+                        operation(emf, random);
+                        // Cadence fixe par thread : un retard n'est pas rattrapé en rafale
+                        prochaine = Math.max(prochaine + intervalle, System.nanoTime() - intervalle);
+                        TimeUnit.NANOSECONDS.sleep(Math.max(0, Math.min(prochaine, end) - System.nanoTime()));
+                    }
+                    return null;
+                }));
+            }
+            for (int t = 1; t <= secondes; t++) {
+                TimeUnit.NANOSECONDS.sleep(Math.max(0, debut + TimeUnit.SECONDS.toNanos(t) - System.nanoTime()));
+                hits[t] = stats.getSecondLevelCacheHitCount();
+                miss[t] = stats.getSecondLevelCacheMissCount();
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            List<String> lignes = new ArrayList<>();
+            double global = ratio(hits[secondes] - hits[0], miss[secondes] - miss[0]);
+            int chaud = -1;
+            for (int t = 1; t <= secondes; t++) {
+                if (chaud < 0 && ratio(hits[t] - hits[t - 1], miss[t] - miss[t - 1]) >= 0.95 * global) {
+                    chaud = t;
+                }
+                int debutFenetre = t <= 10 ? t - 1 : t - 10;
+                if (t <= 10 || t % 10 == 0) {
+                    lignes.add(String.format("    %3d-%-3d s : ratio=%.3f (hits=%d miss=%d)", debutFenetre, t,
+                            ratio(hits[t] - hits[debutFenetre], miss[t] - miss[debutFenetre]),
+                            hits[t] - hits[debutFenetre], miss[t] - miss[debutFenetre]));
+                }
+            }
+            lignes.add(String.format("    total : ratio=%.3f requêtes SQL=%d, 95 %% du ratio atteint en %s",
+                    global, stats.getPrepareStatementCount() - sql0, chaud < 0 ? "-" : chaud + " s"));
+            return lignes;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static double ratio(long hits, long misses) {
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+
+    void run(long trainingMillis, long durationMillis, int rounds) throws Exception {
+        Path instantane = Files.createTempFile("cache-snapshot", ".txt");
+        Files.delete(instantane);
+        Map<String, Object> enregistrement = new HashMap<>();
+        enregistrement.put(CacheWarmer.SNAPSHOT_FILE, instantane.toString());
+
+        EntityManagerFactory emf = start("create", enregistrement);
+        try {
+            new DataInitService(emf).initBulkData(nbAuteurs, nbLivres, 50);
+            charge(emf, trainingMillis, 0);
+        } finally {
+            emf.close();
+        }
+        System.out.println("Instantané : " + instantane + " (" + Files.size(instantane) + " octets)");
+
+        // Plusieurs tours : au premier, le JIT pénalise surtout le démarrage FROID, exécuté en premier
+        for (int tour = 1; tour <= rounds; tour++) {
+            for (Demarrage demarrage : Demarrage.values()) {
+                redemarrer(tour, demarrage, instantane, durationMillis);
+            }
+        }
+        Files.deleteIfExists(instantane);
+    }
+
+    private void redemarrer(int tour, Demarrage demarrage, Path instantane, long durationMillis) throws Exception {
+        Map<String, Object> warmup = new HashMap<>();
+        if (demarrage != Demarrage.FROID) {
+            warmup.put(CacheWarmer.ENABLED, "true");
+            warmup.put(CacheWarmer.THREADS, String.valueOf(threads));
+        }
+        if (demarrage == Demarrage.INSTANTANE) {
+            warmup.put(CacheWarmer.SNAPSHOT_FILE, instantane.toString());
+        }
+        long debut = System.nanoTime();
+        EntityManagerFactory emf = start("none", warmup);
+        long demarrageMillis = (System.nanoTime() - debut) / 1_000_000;
+        try {
+            System.out.printf("Tour %d, %s : démarrage %d ms (préchauffage compris)%n", tour, demarrage, demarrageMillis);
+            for (String ligne : charge(emf, durationMillis, rate)) {
+                System.out.println(ligne);
+            }
+        } finally {
+            emf.close();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] kv = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(kv[0], kv.length > 1 ? kv[1] : "true");
+        }
+        int nbAuteurs = Integer.parseInt(options.getOrDefault("auteurs", "1000"));
+        int nbLivres = Integer.parseInt(options.getOrDefault("livres", "20000"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", "4"));
+        long training = Long.parseLong(options.getOrDefault("training", "20")) * 1000;
+        long duration = Long.parseLong(options.getOrDefault("duration", "60")) * 1000;
+        int rate = Integer.parseInt(options.getOrDefault("rate", "1000"));
+        int rounds = Integer.parseInt(options.getOrDefault("rounds", "2"));
+        new CacheWarmupDriver(nbAuteurs, nbLivres, threads, rate).run(training, duration, rounds);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.benchmark;
+
+import com.example.model.Categorie;
+import com.example.model.Livre;
+import com.example.service.CatalogExportService;
+import com.example.service.DataInitService;
+import org.openjdk.jmh.annotations.*;
+
+import javax.persistence.EntityGraph;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Export complet du catalogue : curseur StatelessSession (CatalogExportService)
+ * contre le chargement actuel "SELECT l FROM Livre l" avec l'entity graph.
+ * Le pic de heap de chaque itération est affiché à la fin de celle-ci.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class CatalogExportBenchmark {
+
+    public enum Approche {
+        STREAMING, RESULT_LIST
+    }
+
+    @Param({"10000", "100000"})
+    int livres;
+
+    @Param({"STREAMING", "RESULT_LIST"})
+    Approche approche;
+
+    private EntityManagerFactory emf;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        emf = BenchmarkSupport.createEntityManagerFactory();
+        new DataInitService(emf).initBulkData(Math.max(1, livres / 100), livres, 50);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetHeapPeak() {
+        BenchmarkSupport.resetHeapPeak();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printHeapPeak() {
+        System.out.println("pic de heap: " + BenchmarkSupport.heapPeakBytes() / (1024 * 1024) + " Mo");
+    }
+
+    @Benchmark
+    public long exporter() throws IOException {
+        OutputStream out = new CountingOutputStream();
+        return approche == Approche.STREAMING
+                ? new CatalogExportService(emf).export(out, CatalogExportService.Format.CSV)
+                : exportResultList(out);
+    }
+
+    // Approche actuelle : toutes les entités Livre dans un seul contexte de persistance
+    private long exportResultList(OutputStream out) throws IOException {
+        EntityManager em = emf.createEntityManager();
+        try {
+            EntityGraph<?> graph = em.getEntityGraph("graph.Livre.categoriesEtAuteur");
+            List<Livre> result = em.createQuery("SELECT l FROM Livre l", Livre.class)
+                    .setHint("javax.persistence.fetchgraph", graph)
+                    .getResultList();
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            for (Livre livre : result) {
+                writer.write(livre.getId() + "," + livre.getTitre() + "," + livre.getAnneePublication() + ","
+                        + livre.getIsbn() + "," + livre.getAuteur().getPrenom() + " " + livre.getAuteur().getNom());
+                for (Categorie categorie : livre.getCategories()) {
+                    writer.write("|" + categorie.getNom());
+                }
+                writer.write('\n');
+            }
+            writer.flush();
+            return result.size();
+        } finally {
+            em.close();
+        }
+    }
+
+    // Sortie jetable : seul le volume écrit compte
+    static final class CountingOutputStream extends OutputStream {
+        long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
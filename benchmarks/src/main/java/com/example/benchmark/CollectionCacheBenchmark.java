@@ -0,0 +1,223 @@
+package com.example.benchmark;
+
+import com.example.model.Auteur;
+import com.example.model.Categorie;
+import com.example.model.Livre;
+import com.example.service.BulkCatalogService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CollectionStatistics;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lecture d'un auteur avec ses livres et leurs catégories (find, Auteur.livres, Livre.categories),
+ * sans cache de second niveau ou avec les collections en cache. ecritures : pourcentage
+ * d'opérations qui modifient une collection dans une transaction (addCategorie/removeCategorie
+ * sur un livre, ou removeLivre/addLivre vers un autre auteur).
+ * Chaque itération affiche les instructions SQL et les hits de collection par opération ; à la fin
+ * du trial, le graphe lu depuis le cache est comparé à la base (incohérences attendues : 0).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CollectionCacheBenchmark {
+
+    public enum Cache {
+        AUCUN, COLLECTIONS
+    }
+
+    @Param({"AUCUN", "COLLECTIONS"})
+    Cache cache;
+
+    @Param({"0", "5"})
+    int ecritures;
+
+    private static final String ROLE_AUTEUR_LIVRES = BulkCatalogService.ROLE_AUTEUR_LIVRES;
+    private static final String ROLE_LIVRE_CATEGORIES = BulkCatalogService.ROLE_LIVRE_CATEGORIES;
+
+    // 100 auteurs, 1000 livres : tiennent dans les régions d'ehcache.xml
+    private static final int AUTEURS = 100;
+    private static final int LIVRES_PAR_AUTEUR = 10;
+
+    private EntityManagerFactory emf;
+    private Statistics statistics;
+    private Long[] auteurIds;
+    private Long categorieId;
+    private final AtomicLong operations = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, Object> props = new HashMap<>();
+        props.put("hibernate.generate_statistics", "true");
+        if (cache == Cache.AUCUN) {
+            // Les deux : avec le cache de requêtes actif, la fabrique de régions reste en place et les
+            // collections annotées @Cache sont encore mises en cache
+            props.put("hibernate.cache.use_second_level_cache", "false");
+            props.put("hibernate.cache.use_query_cache", "false");
+        }
+        emf = BenchmarkSupport.createEntityManagerFactory(props);
+        BenchmarkSupport.populate(emf, AUTEURS, LIVRES_PAR_AUTEUR, 10);
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+
+        EntityManager em = emf.createEntityManager();
+        try {
+            auteurIds = em.createQuery("SELECT a.id FROM Auteur a ORDER BY a.id", Long.class)
+                    .getResultList().toArray(new Long[0]);
+            categorieId = em.createQuery("SELECT MIN(c.id) FROM Categorie c", Long.class).getSingleResult();
+        } finally {
+            em.close();
+        }
+        // Cache chaud : chaque auteur lu une fois
+        for (Long id : auteurIds) {
+            lire(id);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void debutIteration() {
+        statistics.clear();
+        operations.set(0);
+    }
+
+    @TearDown(Level.Iteration)
+    public void finIteration() {
+        long ops = Math.max(1, operations.get());
+        CollectionStatistics livres = statistics.getCollectionStatistics(ROLE_AUTEUR_LIVRES);
+        CollectionStatistics categories = statistics.getCollectionStatistics(ROLE_LIVRE_CATEGORIES);
+        System.out.printf("%n    SQL/op=%.3f collections chargées en SQL/op=%.3f hits cache collections/op=%.3f%n",
+                (double) statistics.getPrepareStatementCount() / ops,
+                (double) (livres.getLoadCount() + categories.getLoadCount()) / ops,
+                (double) (livres.getCacheHitCount() + categories.getCacheHitCount()) / ops);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%n    Incohérences cache / base : %d%n", incoherences());
+        emf.close();
+    }
+
+    @Benchmark
+    public void auteurAvecLivres(Blackhole bh) {
+        operations.incrementAndGet();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Long auteurId = auteurIds[random.nextInt(auteurIds.length)];
+        if (ecritures > 0 && random.nextInt(100) < ecritures) {
+            if (random.nextBoolean()) {
+                basculerCategorie(auteurId);
+            } else {
+                deplacerLivre(auteurId, auteurIds[random.nextInt(auteurIds.length)]);
+            }
+            return;
+        }
+        bh.consume(lire(auteurId));
+    }
+
+    private int lire(Long auteurId) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            int total = 0;
+            for (Livre livre : em.find(Auteur.class, auteurId).getLivres()) {
+                total += livre.getTitre().length() + livre.getCategories().size();
+            }
+            return total;
+        } finally {
+            em.close();
+        }
+    }
+
+    private void basculerCategorie(Long auteurId) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            List<Livre> livres = em.find(Auteur.class, auteurId).getLivres();
+            if (!livres.isEmpty()) {
+                Livre livre = livres.get(ThreadLocalRandom.current().nextInt(livres.size()));
+                Categorie categorie = em.find(Categorie.class, categorieId);
+                if (livre.getCategories().contains(categorie)) {
+                    livre.removeCategorie(categorie);
+                } else {
+                    livre.addCategorie(categorie);
+                }
+            }
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+    }
+
+    private void deplacerLivre(Long source, Long cible) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            List<Livre> livres = em.find(Auteur.class, source).getLivres();
+            if (!livres.isEmpty() && !source.equals(cible)) {
+                Livre livre = livres.get(0);
+                em.find(Auteur.class, source).removeLivre(livre);
+                em.find(Auteur.class, cible).addLivre(livre);
+            }
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+    }
+
+    // Auteurs dont le graphe lu (depuis le cache s'il est actif) diffère de la base
+    private int incoherences() {
+        Map<Long, Map<Long, Set<Long>>> base = new HashMap<>();
+        EntityManager em = emf.createEntityManager();
+        try {
+            @SuppressWarnings("unchecked")
+            List<Object[]> lignes = em.createNativeQuery("SELECT l.auteur_id, l.id, lc.categorie_id FROM livres l "
+                    + "LEFT JOIN livre_categorie lc ON lc.livre_id = l.id WHERE l.auteur_id IS NOT NULL").getResultList();
+            for (Object[] ligne : lignes) {
+                Set<Long> categories = base.computeIfAbsent(id(ligne[0]), k -> new TreeMap<>())
+                        .computeIfAbsent(id(ligne[1]), k -> new HashSet<>());
+                if (ligne[2] != null) {
+                    categories.add(id(ligne[2]));
+                }
+            }
+        } finally {
+            em.close();
+        }
+        int incoherences = 0;
+        for (Long auteurId : auteurIds) {
+            Map<Long, Set<Long>> lu = new TreeMap<>();
+            em = emf.createEntityManager();
+            try {
+                for (Livre livre : em.find(Auteur.class, auteurId).getLivres()) {
+                    Set<Long> categories = new HashSet<>();
+                    for (Categorie categorie : livre.getCategories()) {
+                        categories.add(categorie.getId());
+                    }
+                    lu.put(livre.getId(), categories);
+                }
+            } finally {
+                em.close();
+            }
+            if (!lu.equals(base.getOrDefault(auteurId, new TreeMap<>()))) {
+                incoherences++;
+            }
+        }
+        return incoherences;
+    }
+
+    private static Long id(Object value) {
+        return ((Number) value).longValue();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.benchmark;
+
+import com.example.model.Auteur;
+import com.example.model.Livre;
+import com.example.model.QueryCatalog;
+import com.example.repository.AsyncExecutor;
+import com.example.repository.AsyncRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Page "fiche auteur" composée de trois requêtes indépendantes : l'auteur, ses livres
+ * et le nombre de ses livres par catégorie. SEQUENTIEL les enchaîne dans un
+ * EntityManager ; PLATEFORME et VIRTUEL les lancent en parallèle via AsyncRepository.
+ * latenceMicros simule l'aller-retour réseau d'une base distante (NetworkLatencyConnectionProvider).
+ * VIRTUEL demande un JDK 21 (-p execution=VIRTUEL) ; la concurrence se règle avec -t.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompositePageBenchmark {
+
+    public enum Execution {
+        SEQUENTIEL, PLATEFORME, VIRTUEL
+    }
+
+    @Param({"SEQUENTIEL", "PLATEFORME"})
+    Execution execution;
+
+    @Param({"0", "500"})
+    long latenceMicros;
+
+    @Param({"50"})
+    int livresParAuteur;
+
+    private static final int AUTEURS = 1000;
+
+    private EntityManagerFactory emf;
+    private AsyncRepository repository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, Object> props = new HashMap<>();
+        // Cache de second niveau coupé : chaque requête va en base
+        props.put("hibernate.cache.use_second_level_cache", "false");
+        props.put("hibernate.cache.use_query_cache", "false");
+        props.put("hibernate.connection.provider_class", NetworkLatencyConnectionProvider.class.getName());
+        props.put(NetworkLatencyConnectionProvider.LATENCY_MICROS, String.valueOf(latenceMicros));
+        props.put("com.example.pool.max_size", "16");
+        props.put("com.example.pool.min_idle", "16");
+        emf = BenchmarkSupport.createEntityManagerFactory(props);
+        BenchmarkSupport.populate(emf, AUTEURS, livresParAuteur, 10);
+        if (execution != Execution.SEQUENTIEL) {
+            AsyncExecutor.Mode mode = execution == Execution.VIRTUEL
+                    ? AsyncExecutor.Mode.VIRTUAL : AsyncExecutor.Mode.PLATFORM;
+            repository = new AsyncRepository(emf, new AsyncExecutor(mode, 16, 16, 5000));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (repository != null) {
+            repository.getExecutor().close();
+        }
+        emf.close();
+    }
+
+    @Benchmark
+    public void fiche(Blackhole bh) {
+        long auteurId = ThreadLocalRandom.current().nextInt(AUTEURS) + 1L;
+        if (execution == Execution.SEQUENTIEL) {
+            EntityManager em = emf.createEntityManager();
+            try {
+                bh.consume(em.find(Auteur.class, auteurId));
+                bh.consume(em.createNamedQuery(QueryCatalog.LIVRE_FIND_BY_AUTEUR, Livre.class)
+                        .setParameter("auteurId", auteurId)
+                        .getResultList());
+                bh.consume(em.createNamedQuery(QueryCatalog.CATEGORIE_COUNT_LIVRES_BY_AUTEUR, Object[].class)
+                        .setParameter("auteurId", auteurId)
+                        .getResultList());
+            } finally {
+                em.close();
+            }
+            return;
+        }
+        CompletableFuture<Auteur> auteur = repository.findAuteur(auteurId);
+        CompletableFuture<List<Livre>> livres = repository.findLivresByAuteur(auteurId);
+        CompletableFuture<Map<String, Long>> parCategorie = repository.countLivresParCategorie(auteurId);
+        CompletableFuture.allOf(auteur, livres, parCategorie).join();
+        bh.consume(auteur.join());
+        bh.consume(livres.join());
+        bh.consume(parCategorie.join());
+    }
+}
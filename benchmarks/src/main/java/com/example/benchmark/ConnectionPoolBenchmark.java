@@ -0,0 +1,108 @@
+package com.example.benchmark;
+
+import com.example.model.Auteur;
+import com.example.monitoring.PersistenceMetrics;
+import com.example.pool.PoolSnapshot;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provider DriverManager de Hibernate contre PooledConnectionProvider (HikariCP),
+ * à taille de pool égale, sur une transaction courte : find d'un auteur puis
+ * requête sur ses livres, cache de second niveau désactivé.
+ * Faire varier la concurrence avec -t, par exemple -t 1, -t 8 et -t 32.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class ConnectionPoolBenchmark {
+
+    public enum Provider {
+        DRIVER_MANAGER, HIKARI
+    }
+
+    @Param({"DRIVER_MANAGER", "HIKARI"})
+    Provider provider;
+
+    @Param({"10"})
+    int taille;
+
+    @Param({"0", "64"})
+    int cacheRequetes;
+
+    private static final int AUTEURS = 500;
+
+    private EntityManagerFactory emf;
+    private PoolSnapshot avant;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, Object> props = new HashMap<>();
+        props.put("hibernate.cache.use_second_level_cache", "false");
+        props.put("hibernate.cache.use_query_cache", "false");
+        if (provider == Provider.HIKARI) {
+            props.put("hibernate.connection.provider_class", "com.example.pool.PooledConnectionProvider");
+            props.put("com.example.pool.min_idle", String.valueOf(taille));
+            props.put("com.example.pool.max_size", String.valueOf(taille));
+            props.put("com.example.pool.acquire_timeout_ms", "5000");
+            props.put("com.example.pool.statement_cache_size", String.valueOf(cacheRequetes));
+        } else {
+            props.put("hibernate.connection.pool_size", String.valueOf(taille));
+            if (cacheRequetes > 0) {
+                props.put("hibernate.connection.QUERY_CACHE_SIZE", String.valueOf(cacheRequetes));
+            }
+        }
+        emf = BenchmarkSupport.createEntityManagerFactory(props);
+        BenchmarkSupport.populate(emf, AUTEURS, 5, 5);
+    }
+
+    @Setup(Level.Iteration)
+    public void debutIteration() {
+        avant = PersistenceMetrics.pool(emf);
+    }
+
+    // Attente et timeouts du pool sur l'itération (HikariCP seulement)
+    @TearDown(Level.Iteration)
+    public void finIteration() {
+        PoolSnapshot apres = PersistenceMetrics.pool(emf);
+        if (apres != null && avant != null) {
+            System.out.println();
+            System.out.println("    " + apres.minus(avant));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public void transactionCourte(Blackhole bh) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            long id = ThreadLocalRandom.current().nextInt(AUTEURS) + 1L;
+            Auteur auteur = em.find(Auteur.class, id);
+            bh.consume(em.createQuery("SELECT l.titre FROM Livre l WHERE l.auteur = :auteur", String.class)
+                    .setParameter("auteur", auteur)
+                    .getResultList());
+            em.getTransaction().commit();
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+}
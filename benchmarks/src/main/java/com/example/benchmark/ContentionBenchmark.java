@@ -0,0 +1,128 @@
+package com.example.benchmark;
+
+import com.example.service.CatalogUpdateService;
+import com.example.service.RetryPolicy;
+import org.openjdk.jmh.annotations.*;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Écrivains concurrents sur les livres (CatalogUpdateService.changerTitre), verrouillage optimiste
+ * avec nouvelles tentatives contre SELECT ... FOR UPDATE :
+ * <ul>
+ * <li>CHEVAUCHANT : tous les threads modifient les mêmes {@value #LIVRES_CHAUDS} livres ;</li>
+ * <li>DISJOINT : chaque thread a ses propres livres, aucun conflit possible.</li>
+ * </ul>
+ * Une opération est une modification validée ou abandonnée : le débit donne les commits par
+ * seconde, le mode SampleTime la latence de queue, attentes entre tentatives comprises.
+ * Chaque itération affiche les conflits par modification et les modifications abandonnées.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class ContentionBenchmark {
+
+    private static final int LIVRES_CHAUDS = 4;
+    private static final int LIVRES_PAR_THREAD = 50;
+
+    // Chaque conflit optimiste est journalisé en ERROR (HHH000315) : l'écriture sur stderr fausserait
+    // la mesure. Référence gardée, java.util.logging ne retient ses loggers que faiblement.
+    private static final Logger BATCH_LOGGER = Logger.getLogger("org.hibernate.engine.jdbc.batch.internal.BatchingBatch");
+
+    public enum Acces {
+        CHEVAUCHANT, DISJOINT
+    }
+
+    @Param({"OPTIMISTE", "PESSIMISTE"})
+    CatalogUpdateService.Verrouillage verrouillage;
+
+    @Param({"CHEVAUCHANT", "DISJOINT"})
+    Acces acces;
+
+    private EntityManagerFactory emf;
+    private CatalogUpdateService updates;
+    private Long[] livreIds;
+    private final AtomicInteger threads = new AtomicInteger();
+    private long commitsDebut;
+    private long conflitsDebut;
+    private long abandonsDebut;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BATCH_LOGGER.setLevel(java.util.logging.Level.OFF);
+        Map<String, Object> props = new HashMap<>();
+        // Index de recherche coupé : seule la contention en base est mesurée
+        props.put("com.example.search.enabled", "false");
+        emf = BenchmarkSupport.createEntityManagerFactory(props);
+        BenchmarkSupport.populate(emf, 64, LIVRES_PAR_THREAD, 5);
+        updates = new CatalogUpdateService(emf, RetryPolicy.fromProperties(emf.getProperties()), verrouillage);
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<Long> ids = em.createQuery("SELECT l.id FROM Livre l ORDER BY l.id", Long.class).getResultList();
+            livreIds = ids.toArray(new Long[0]);
+        } finally {
+            em.close();
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void debutIteration() {
+        commitsDebut = updates.getCommits();
+        conflitsDebut = updates.getConflicts();
+        abandonsDebut = updates.getFailures();
+    }
+
+    @TearDown(Level.Iteration)
+    public void finIteration() {
+        long commits = updates.getCommits() - commitsDebut;
+        long conflits = updates.getConflicts() - conflitsDebut;
+        long abandons = updates.getFailures() - abandonsDebut;
+        System.out.printf("%n    commits=%d conflits/modification=%.3f abandons=%d (%s)%n", commits,
+                (double) conflits / Math.max(1, commits + abandons), abandons, updates.getRetryPolicy());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Ecrivain {
+        int premier;
+        int compteur;
+
+        @Setup(Level.Trial)
+        public void setUp(ContentionBenchmark benchmark) {
+            premier = benchmark.threads.getAndIncrement() * LIVRES_PAR_THREAD;
+        }
+    }
+
+    @Benchmark
+    public Object modifierTitre(Ecrivain ecrivain) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int index = acces == Acces.CHEVAUCHANT
+                ? random.nextInt(LIVRES_CHAUDS)
+                : (ecrivain.premier + random.nextInt(LIVRES_PAR_THREAD)) % livreIds.length;
+        try {
+            return updates.changerTitre(livreIds[index], "Titre " + ecrivain.compteur++);
+        } catch (RuntimeException e) {
+            // Tentatives épuisées (comptées par le service) : l'écrivain passe à la modification suivante
+            if (!CatalogUpdateService.isConflict(e)) {
+                throw e;
+            }
+            return e;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.benchmark;
+
+import com.example.model.Auteur;
+import com.example.model.Livre;
+import com.example.monitoring.MetricsSnapshot;
+import com.example.monitoring.PersistenceMetrics;
+import com.example.monitoring.StatementSnapshot;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parcours auteurs -> livres -> catégories (celui de testN1Problem) selon la
+ * stratégie de chargement : JOIN FETCH et entity graph existants, lots
+ * (com.example.fetch.mode=batch) et sous-requête (subselect).
+ * Le nombre d'instructions SQL et de lignes lues par opération est affiché
+ * à la fin de chaque itération.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FetchModeBenchmark {
+
+    public enum Strategie {
+        JOIN_FETCH, ENTITY_GRAPH, BATCH, SUBSELECT
+    }
+
+    @Param({"10", "100", "1000"})
+    int auteurs;
+
+    @Param({"10"})
+    int livresParAuteur;
+
+    @Param({"JOIN_FETCH", "ENTITY_GRAPH", "BATCH", "SUBSELECT"})
+    Strategie strategie;
+
+    private EntityManagerFactory emf;
+    private MetricsSnapshot debut;
+    private long operations;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, Object> props = new HashMap<>();
+        props.put("hibernate.connection.provider_class", "com.example.monitoring.TimedConnectionProvider");
+        if (strategie == Strategie.BATCH || strategie == Strategie.SUBSELECT) {
+            props.put("com.example.fetch.mode", strategie.name());
+        }
+        emf = BenchmarkSupport.createEntityManagerFactory(props);
+        BenchmarkSupport.populate(emf, auteurs, livresParAuteur, 5);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void startCounting() {
+        debut = PersistenceMetrics.snapshot(emf);
+        operations = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void printCounts() {
+        MetricsSnapshot delta = PersistenceMetrics.snapshot(emf).minus(debut);
+        long rows = 0;
+        for (StatementSnapshot statement : delta.getStatements().values()) {
+            rows += statement.getRows();
+        }
+        System.out.printf("instructions/op: %.1f, lignes/op: %.1f%n",
+                (double) delta.getStatementCount() / operations, (double) rows / operations);
+    }
+
+    @Benchmark
+    public void parcourirCatalogue(Blackhole bh) {
+        operations++;
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<Auteur> result;
+            switch (strategie) {
+                case JOIN_FETCH:
+                    result = em.createQuery("SELECT DISTINCT a FROM Auteur a LEFT JOIN FETCH a.livres", Auteur.class)
+                            .getResultList();
+                    break;
+                case ENTITY_GRAPH:
+                    result = em.createQuery("SELECT DISTINCT a FROM Auteur a", Auteur.class)
+                            .setHint("javax.persistence.fetchgraph", em.getEntityGraph("graph.Auteur.livresEtCategories"))
+                            .getResultList();
+                    break;
+                default:
+                    result = em.createQuery("SELECT a FROM Auteur a", Auteur.class).getResultList();
+            }
+            for (Auteur auteur : result) {
+                bh.consume(auteur.getNom());
+                for (Livre livre : auteur.getLivres()) {
+                    bh.consume(livre.getTitre());
+                    bh.consume(livre.getCategories().size());
+                }
+            }
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.benchmark;
+
+import com.example.model.Auteur;
+import com.example.model.Livre;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.persistence.EntityGraph;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reprend les parcours de testN1Problem, testJoinFetch et testEntityGraph
+ * sans affichage ni show_sql, pour plusieurs tailles de catalogue.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class FetchStrategyBenchmark {
+
+    public enum Strategie {
+        LAZY, JOIN_FETCH, ENTITY_GRAPH
+    }
+
+    @Param({"10", "100"})
+    int auteurs;
+
+    @Param({"10"})
+    int livresParAuteur;
+
+    @Param({"LAZY", "JOIN_FETCH", "ENTITY_GRAPH"})
+    Strategie strategie;
+
+    private EntityManagerFactory emf;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        emf = BenchmarkSupport.createEntityManagerFactory();
+        BenchmarkSupport.populate(emf, auteurs, livresParAuteur, 5);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public void parcourirCatalogue(Blackhole bh) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            switch (strategie) {
+                case LAZY:
+                    parcourirAuteurs(em.createQuery("SELECT a FROM Auteur a", Auteur.class)
+                            .getResultList(), bh);
+                    break;
+                case JOIN_FETCH:
+                    parcourirAuteurs(em.createQuery(
+                                    "SELECT DISTINCT a FROM Auteur a LEFT JOIN FETCH a.livres", Auteur.class)
+                            .getResultList(), bh);
+                    break;
+                case ENTITY_GRAPH:
+                    EntityGraph<?> graph = em.getEntityGraph("graph.Livre.categoriesEtAuteur");
+                    List<Livre> livres = em.createQuery("SELECT l FROM Livre l", Livre.class)
+                            .setHint("javax.persistence.fetchgraph", graph)
+                            .getResultList();
+                    for (Livre livre : livres) {
+                        bh.consume(livre.getTitre());
+                        bh.consume(livre.getAuteur().getNom());
+                        bh.consume(livre.getCategories().size());
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Stratégie inconnue: " + strategie);
+            }
+        } finally {
+            em.close();
+        }
+    }
+
+    private static void parcourirAuteurs(List<Auteur> auteurs, Blackhole bh) {
+        for (Auteur auteur : auteurs) {
+            bh.consume(auteur.getNom());
+            for (Livre livre : auteur.getLivres()) {
+                bh.consume(livre.getTitre());
+                bh.consume(livre.getCategories().size());
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.benchmark;
+
+import com.example.cache.RegionStatistics;
+import com.example.cache.TinyLfuRegionFactory;
+import com.example.model.Livre;
+import org.hibernate.engine.spi.ManagedEntity;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.persistence.CacheRetrieveMode;
+import javax.persistence.CacheStoreMode;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Livre.resume paresseux (bytecode enrichi) : liste des titres, et flush d'un contexte de
+ * persistance de {@code livres} livres dont un seul est modifié.
+ * <ul>
+ * <li>PARESSEUX : SELECT l FROM Livre l, le résumé n'est pas lu ;</li>
+ * <li>COMPLET : même requête avec FETCH ALL PROPERTIES, comme avant l'enrichissement.</li>
+ * </ul>
+ * Au démarrage, le trial affiche par livre chargé : octets lus dans les ResultSet, heap retenu
+ * par le contexte de persistance et taille de l'entrée de cache (TinyLfuRegionFactory).
+ * H2 en mémoire renvoie ses propres instances de String : le heap retenu ne compte pas le texte
+ * du résumé, qu'un pilote réseau copierait pour chaque ligne.
+ * Pour le flush par comparaison au snapshot, relancer sur un build non enrichi :
+ * mvn install -DnoEnhance (les deux modes lisent alors le résumé).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LazyResumeBenchmark {
+
+    private static final int LONGUEUR_RESUME = 1500;
+
+    public enum Chargement {
+        PARESSEUX("SELECT l FROM Livre l ORDER BY l.id"),
+        COMPLET("SELECT l FROM Livre l FETCH ALL PROPERTIES ORDER BY l.id");
+
+        final String jpql;
+
+        Chargement(String jpql) {
+            this.jpql = jpql;
+        }
+    }
+
+    @Param({"1000"})
+    int livres;
+
+    @Param({"PARESSEUX", "COMPLET"})
+    Chargement chargement;
+
+    EntityManagerFactory emf;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, Object> props = new HashMap<>();
+        props.put("hibernate.cache.region.factory_class", TinyLfuRegionFactory.class.getName());
+        props.put("hibernate.connection.provider_class", ByteCountingConnectionProvider.class.getName());
+        emf = BenchmarkSupport.createEntityManagerFactory(props);
+        BenchmarkSupport.populate(emf, livres / 20, 20, 10);
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            em.createNativeQuery("UPDATE livres SET resume = REPEAT('x', " + LONGUEUR_RESUME + ")").executeUpdate();
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+        emf.getCache().evictAll();
+        mesurer();
+    }
+
+    private void mesurer() {
+        ByteCountingConnectionProvider octets = ByteCountingConnectionProvider.of(emf);
+        octets.reset();
+        EntityManager em = ouvrir(false);
+        charger(em);
+        em.close();
+        long octetsParLivre = octets.getBytesRead() / livres;
+
+        long avant = heapApresGc();
+        em = ouvrir(false);
+        List<Livre> charges = charger(em);
+        long heapParLivre = (heapApresGc() - avant) / livres;
+        // Le contexte et la liste doivent rester atteignables pendant la seconde mesure
+        if (charges.size() != livres || !em.isOpen()) {
+            throw new IllegalStateException();
+        }
+        em.close();
+
+        em = ouvrir(true);
+        charger(em);
+        em.close();
+        RegionStatistics region = TinyLfuRegionFactory.regionStatistics(emf).get(Livre.class.getName());
+        long cacheParLivre = region.getEntries() == 0 ? 0 : region.getBytes() / region.getEntries();
+        emf.getCache().evictAll();
+
+        System.out.printf("%n%s (bytecode enrichi : %s) : par livre %d octets lus, %d octets de heap, "
+                        + "%d octets en cache%n", chargement, ManagedEntity.class.isAssignableFrom(Livre.class),
+                octetsParLivre, heapParLivre, cacheParLivre);
+    }
+
+    // Plusieurs collectes : une seule laisse parfois des déchets de la phase précédente
+    private static long heapApresGc() {
+        MemoryMXBean memoire = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memoire.getHeapMemoryUsage().getUsed();
+    }
+
+    // Lectures en base ; le cache de second niveau n'est alimenté que si demandé
+    EntityManager ouvrir(boolean cache) {
+        EntityManager em = emf.createEntityManager();
+        em.setProperty("javax.persistence.cache.retrieveMode", CacheRetrieveMode.BYPASS);
+        em.setProperty("javax.persistence.cache.storeMode", cache ? CacheStoreMode.REFRESH : CacheStoreMode.BYPASS);
+        return em;
+    }
+
+    List<Livre> charger(EntityManager em) {
+        List<Livre> result = em.createQuery(chargement.jpql, Livre.class).getResultList();
+        if (result.size() != livres) {
+            throw new IllegalStateException(result.size() + " livres chargés");
+        }
+        return result;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public void listerTitres(Blackhole bh) {
+        EntityManager em = ouvrir(false);
+        try {
+            for (Livre livre : charger(em)) {
+                bh.consume(livre.getTitre());
+                bh.consume(livre.getAnneePublication());
+            }
+        } finally {
+            em.close();
+        }
+    }
+
+    // Contexte de persistance chargé une fois par itération, dans une transaction annulée à la fin :
+    // chaque appel modifie un livre et paie la détection des changements sur tout le contexte
+    @State(Scope.Thread)
+    public static class Contexte {
+
+        EntityManager em;
+        Livre livre;
+        int version;
+
+        @Setup(Level.Iteration)
+        public void ouvrir(LazyResumeBenchmark benchmark) {
+            em = benchmark.ouvrir(false);
+            em.getTransaction().begin();
+            livre = benchmark.charger(em).get(0);
+        }
+
+        @TearDown(Level.Iteration)
+        public void fermer() {
+            em.getTransaction().rollback();
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public void flush(Contexte contexte) {
+        contexte.livre.setTitre("Titre " + contexte.version++);
+        contexte.em.flush();
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.benchmark;
+
+import com.example.search.SearchResult;
+import com.example.service.DataInitService;
+import com.example.service.LivreSearchService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Première page (20 livres) d'une recherche par mot : index inversé en mémoire
+ * (LivreSearchService.search) contre LIKE '%mot%' sur titre et résumé.
+ * Titres et résumés sont réécrits en SQL à partir d'un vocabulaire accentué, puis
+ * l'index est reconstruit depuis la base (durée affichée au démarrage).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class LivreSearchBenchmark {
+
+    private static final String[] VOCABULAIRE = {
+            "mystère", "château", "forêt", "épée", "dragon", "océan", "étoile", "rivière", "hiver", "été",
+            "guerre", "paix", "amour", "trahison", "héritage", "voyage", "île", "désert", "montagne", "royaume",
+            "secret", "prophétie", "sorcière", "chevalier", "pirate", "trésor", "enquête", "meurtre", "détective",
+            "révolution", "empire", "galaxie", "robot", "planète", "mémoire", "rêve", "ombre", "lumière", "nuit",
+            "aube", "cœur", "âme", "destin", "légende", "bête", "cité", "frontière", "exil", "retour", "silence"};
+
+    public enum Requete {
+        // Terme rare : environ 1 livre sur 5000
+        RARE("ref1234"),
+        // Terme fréquent du vocabulaire
+        FREQUENT("détective"),
+        // Deux termes, l'un dans le titre, l'autre dans le résumé
+        DEUX_MOTS("château trahison");
+
+        final String texte;
+
+        Requete(String texte) {
+            this.texte = texte;
+        }
+    }
+
+    @Param({"1000000"})
+    int livres;
+
+    @Param({"RARE", "FREQUENT", "DEUX_MOTS"})
+    Requete requete;
+
+    private EntityManagerFactory emf;
+    private LivreSearchService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        emf = BenchmarkSupport.createEntityManagerFactory();
+        new DataInitService(emf).initBulkData(Math.max(1, livres / 100), livres, 50);
+        reecrireTextes();
+        service = new LivreSearchService(emf);
+        service.rebuildIndex();
+        SearchResult index = service.search(requete.texte, 0, 20);
+        System.out.printf("%n%s : %d livres trouvés par l'index%n", requete, index.getTotalHits());
+    }
+
+    // Mise à jour SQL : contourne les écouteurs, d'où la reconstruction qui suit
+    private void reecrireTextes() {
+        StringBuilder mots = new StringBuilder("ARRAY[");
+        for (int i = 0; i < VOCABULAIRE.length; i++) {
+            mots.append(i == 0 ? "'" : ", '").append(VOCABULAIRE[i]).append('\'');
+        }
+        mots.append(']');
+        int n = VOCABULAIRE.length;
+        String mot = "ARRAY_GET(" + mots + ", MOD(id * %d + %d, " + n + ") + 1)";
+        StringBuilder resume = new StringBuilder("CONCAT('Résumé ref', MOD(id, 5000)");
+        for (int k = 0; k < 12; k++) {
+            resume.append(", ' ', ").append(String.format(mot, 7 * k + 3, k * k));
+        }
+        resume.append(')');
+        String sql = "UPDATE livres SET titre = CONCAT('Le ', " + String.format(mot, 13, 0) + ", ' de la ', "
+                + String.format(mot, 17, 5) + "), resume = " + resume;
+
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            em.createNativeQuery(sql).executeUpdate();
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public void index(Blackhole bh) {
+        bh.consume(service.search(requete.texte, 0, 20));
+    }
+
+    @Benchmark
+    public void like(Blackhole bh) {
+        bh.consume(service.searchWithLike(requete.texte, 0, 20));
+    }
+}
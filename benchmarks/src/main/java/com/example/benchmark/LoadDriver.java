@@ -0,0 +1,308 @@
+package com.example.benchmark;
+
+import com.example.model.Auteur;
+import com.example.model.Livre;
+import com.example.monitoring.LatencyHistogram;
+import com.example.repository.AsyncExecutor;
+import com.example.service.CatalogUpdateService;
+import com.example.service.DataInitService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Générateur de charge concurrente sur le modèle : un mélange configurable de
+ * find, requêtes en cache, chargements par entity graph et mises à jour,
+ * exécuté par N threads (plateforme ou virtuels) pour chaque niveau de concurrence.
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.example.benchmark.LoadDriver \
+ *      --threads=1,4,16,64,256 --duration=10 --mix=find:60,query:20,graph:15,update:5 [--virtual]
+ * </pre>
+ * Les threads virtuels demandent un JDK 21 ou plus (obtenus par réflexion).
+ */
+public class LoadDriver {
+
+    public enum Operation {
+        FIND, QUERY, GRAPH, UPDATE
+    }
+
+    private final EntityManagerFactory emf;
+    private final CatalogUpdateService updates;
+    private final int nbAuteurs;
+    private final int nbLivres;
+    private final Operation[] tirage;
+
+    public LoadDriver(EntityManagerFactory emf, int nbAuteurs, int nbLivres, Map<Operation, Integer> mix) {
+        this.emf = emf;
+        this.updates = new CatalogUpdateService(emf);
+        this.nbAuteurs = nbAuteurs;
+        this.nbLivres = nbLivres;
+        // Tableau de 100 cases réparties selon les pourcentages du mélange
+        List<Operation> cases = new ArrayList<>();
+        mix.forEach((operation, poids) -> cases.addAll(Collections.nCopies(poids, operation)));
+        if (cases.isEmpty()) {
+            throw new IllegalArgumentException("Mélange d'opérations vide");
+        }
+        this.tirage = cases.toArray(new Operation[0]);
+    }
+
+    /**
+     * Résultat d'un palier de concurrence.
+     */
+    public static final class Result {
+        final int threads;
+        final long durationNanos;
+        final Map<Operation, LatencyHistogram.Snapshot> latencies = new EnumMap<>(Operation.class);
+        final Map<String, Long> erreursParCause = new TreeMap<>();
+        long erreurs;
+        long blockedCount;
+        long blockedMillis;
+        long waitedCount;
+        long cacheHits;
+        long cacheMisses;
+        long cachePuts;
+
+        Result(int threads, long durationNanos) {
+            this.threads = threads;
+            this.durationNanos = durationNanos;
+        }
+
+        long operations() {
+            long total = 0;
+            for (LatencyHistogram.Snapshot snapshot : latencies.values()) {
+                total += snapshot.getCount();
+            }
+            return total;
+        }
+
+        double throughput() {
+            return operations() * 1e9 / durationNanos;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(String.format(
+                    "threads=%-4d %10.0f ops/s  erreurs=%d  bloqués=%d (%d ms)  attentes=%d  cache hit/miss/put=%d/%d/%d",
+                    threads, throughput(), erreurs, blockedCount, blockedMillis, waitedCount,
+                    cacheHits, cacheMisses, cachePuts));
+            if (!erreursParCause.isEmpty()) {
+                sb.append(String.format("%n    erreurs par cause: %s", erreursParCause));
+            }
+            latencies.forEach((operation, latency) -> sb.append(String.format(
+                    "%n    %-6s n=%-8d p50=%.3fms p95=%.3fms p99=%.3fms max=%.3fms",
+                    operation, latency.getCount(),
+                    latency.percentileNanos(0.50) / 1e6, latency.percentileNanos(0.95) / 1e6,
+                    latency.percentileNanos(0.99) / 1e6, latency.getMaxNanos() / 1e6)));
+            return sb.toString();
+        }
+    }
+
+    public Result run(int threads, boolean virtual, long warmupMillis, long durationMillis) throws Exception {
+        Map<Operation, LatencyHistogram> histograms = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new LatencyHistogram());
+        }
+        LongAdder erreurs = new LongAdder();
+        ConcurrentMap<String, LongAdder> erreursParCause = new ConcurrentHashMap<>();
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean.isThreadContentionMonitoringSupported()) {
+            threadBean.setThreadContentionMonitoringEnabled(true);
+        }
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+
+        ExecutorService executor = newExecutor(threads, virtual);
+        try {
+            long warmupEnd = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(warmupMillis);
+            long end = warmupEnd + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+            Map<Long, long[]> contentionDebut = new HashMap<>();
+            long[] cacheDebut = new long[3];
+
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    boolean mesure = false;
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (true) {
+                        long now = System.nanoTime();
+                        if (now >= end) {
+                            return null;
+                        }
+                        if (!mesure && now >= warmupEnd) {
+                            mesure = true;
+                            synchronized (contentionDebut) {
+                                contentionDebut.put(Thread.currentThread().getId(),
+                                        contention(threadBean, Thread.currentThread().getId()));
+                            }
+                        }
+                        Operation operation = tirage[random.nextInt(tirage.length)];
+                        long start = System.nanoTime();
+                        try {
+                            execute(operation, random);
+                        } catch (RuntimeException e) {
+                            if (mesure) {
+                                erreurs.increment();
+                                erreursParCause.computeIfAbsent(rootCause(e), k -> new LongAdder()).increment();
+                            }
+                            continue;
+                        }
+                        if (mesure) {
+                            histograms.get(operation).record(System.nanoTime() - start);
+                        }
+                    }
+                }));
+            }
+
+            TimeUnit.NANOSECONDS.sleep(Math.max(0, warmupEnd - System.nanoTime()));
+            cacheDebut[0] = stats.getSecondLevelCacheHitCount();
+            cacheDebut[1] = stats.getSecondLevelCacheMissCount();
+            cacheDebut[2] = stats.getSecondLevelCachePutCount();
+
+            // Lecture de la contention juste avant la fin, tant que les threads existent
+            TimeUnit.NANOSECONDS.sleep(Math.max(0, end - System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(50)));
+            Result result = new Result(threads, TimeUnit.MILLISECONDS.toNanos(durationMillis));
+            synchronized (contentionDebut) {
+                for (Map.Entry<Long, long[]> entry : contentionDebut.entrySet()) {
+                    long[] fin = contention(threadBean, entry.getKey());
+                    result.blockedCount += fin[0] - entry.getValue()[0];
+                    result.blockedMillis += fin[1] - entry.getValue()[1];
+                    result.waitedCount += fin[2] - entry.getValue()[2];
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            histograms.forEach((operation, histogram) -> {
+                LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+                if (snapshot.getCount() > 0) {
+                    result.latencies.put(operation, snapshot);
+                }
+            });
+            result.erreurs = erreurs.sum();
+            erreursParCause.forEach((cause, count) -> result.erreursParCause.put(cause, count.sum()));
+            result.cacheHits = stats.getSecondLevelCacheHitCount() - cacheDebut[0];
+            result.cacheMisses = stats.getSecondLevelCacheMissCount() - cacheDebut[1];
+            result.cachePuts = stats.getSecondLevelCachePutCount() - cacheDebut[2];
+            return result;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void execute(Operation operation, ThreadLocalRandom random) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            switch (operation) {
+                case FIND:
+                    Auteur auteur = em.find(Auteur.class, 1L + random.nextInt(nbAuteurs));
+                    auteur.getNom();
+                    break;
+                case QUERY:
+                    em.createQuery("SELECT a FROM Auteur a WHERE a.nom = :nom", Auteur.class)
+                            .setParameter("nom", "Nom" + random.nextInt(nbAuteurs))
+                            .setHint("org.hibernate.cacheable", "true")
+                            .getResultList();
+                    break;
+                case GRAPH:
+                    Map<String, Object> hints = new HashMap<>();
+                    hints.put("javax.persistence.fetchgraph", em.getEntityGraph("graph.Livre.categoriesEtAuteur"));
+                    Livre livre = em.find(Livre.class, 1L + random.nextInt(nbLivres), hints);
+                    livre.getCategories().size();
+                    break;
+                case UPDATE:
+                    // Conflits de version rejoués par le service ; seules les tentatives épuisées sont des erreurs
+                    updates.changerTitre(1L + random.nextInt(nbLivres), "Livre modifié " + random.nextInt(1000));
+                    break;
+                default:
+                    throw new IllegalStateException("Opération inconnue: " + operation);
+            }
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+
+    private static String rootCause(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        String message = cause.getMessage() == null ? "" : ": " + cause.getMessage();
+        return cause.getClass().getSimpleName() + (message.length() > 80 ? message.substring(0, 80) + "..." : message);
+    }
+
+    // {nombre de blocages, temps bloqué (ms), nombre d'attentes} d'un thread plateforme
+    private static long[] contention(ThreadMXBean threadBean, long threadId) {
+        ThreadInfo info = threadBean.getThreadInfo(threadId);
+        if (info == null) {
+            return new long[3];
+        }
+        return new long[]{info.getBlockedCount(), Math.max(0, info.getBlockedTime()), info.getWaitedCount()};
+    }
+
+    static ExecutorService newExecutor(int threads, boolean virtual) {
+        return virtual ? AsyncExecutor.newVirtualThreadPerTaskExecutor() : Executors.newFixedThreadPool(threads);
+    }
+
+    static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            String[] kv = part.split(":");
+            mix.put(Operation.valueOf(kv[0].trim().toUpperCase()), Integer.parseInt(kv[1].trim()));
+        }
+        return mix;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] kv = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(kv[0], kv.length > 1 ? kv[1] : "true");
+        }
+        int nbAuteurs = Integer.parseInt(options.getOrDefault("auteurs", "1000"));
+        int nbLivres = Integer.parseInt(options.getOrDefault("livres", "20000"));
+        boolean virtual = Boolean.parseBoolean(options.getOrDefault("virtual", "false"));
+        long warmup = Long.parseLong(options.getOrDefault("warmup", "3")) * 1000;
+        long duration = Long.parseLong(options.getOrDefault("duration", "10")) * 1000;
+        Map<Operation, Integer> mix = parseMix(options.getOrDefault("mix", "find:60,query:20,graph:15,update:5"));
+
+        Map<String, Object> props = new HashMap<>();
+        props.put("hibernate.generate_statistics", "true");
+        // Sans quoi chaque session journalise ses métriques à la fermeture
+        props.put("hibernate.session.events.log", "false");
+        EntityManagerFactory emf = BenchmarkSupport.createEntityManagerFactory(props);
+        try {
+            new DataInitService(emf).initBulkData(nbAuteurs, nbLivres, 50);
+            LoadDriver driver = new LoadDriver(emf, nbAuteurs, nbLivres, mix);
+            System.out.println("Mélange " + mix + ", threads " + (virtual ? "virtuels" : "plateforme"));
+            for (String threads : options.getOrDefault("threads", "1,2,4,8,16,32,64,128,256").split(",")) {
+                System.out.println(driver.run(Integer.parseInt(threads.trim()), virtual, warmup, duration));
+            }
+        } finally {
+            emf.close();
+        }
+    }
+}
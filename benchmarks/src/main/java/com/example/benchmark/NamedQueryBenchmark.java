@@ -0,0 +1,107 @@
+package com.example.benchmark;
+
+import com.example.model.Auteur;
+import com.example.model.QueryCatalog;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requête ad hoc (createQuery avec la chaîne JPQL) contre requête nommée du
+ * catalogue, compilée au démarrage. premierAppel mesure un seul appel sur une
+ * EntityManagerFactory neuve (cache de plans vide pour l'ad hoc), regime mesure
+ * l'appel courant une fois les deux plans en cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(2)
+public class NamedQueryBenchmark {
+
+    public enum Acces {
+        AD_HOC, NOMMEE
+    }
+
+    private static final String JPQL_PAR_NOM = "SELECT a FROM Auteur a WHERE a.nom = :nom";
+    private static final int AUTEURS = 100;
+
+    @State(Scope.Benchmark)
+    public static class Regime {
+
+        @Param({"AD_HOC", "NOMMEE"})
+        Acces acces;
+
+        EntityManagerFactory emf;
+        int compteur;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            emf = BenchmarkSupport.createEntityManagerFactory();
+            BenchmarkSupport.populate(emf, AUTEURS, 2, 5);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            emf.close();
+        }
+    }
+
+    // Une EntityManagerFactory neuve par itération : l'appel mesuré est le premier
+    @State(Scope.Thread)
+    public static class Demarrage {
+
+        @Param({"AD_HOC", "NOMMEE"})
+        Acces acces;
+
+        EntityManagerFactory emf;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            emf = BenchmarkSupport.createEntityManagerFactory();
+            BenchmarkSupport.populate(emf, AUTEURS, 2, 5);
+            // Une autre requête sur Auteur : connexion, chargeur d'entités et SQL H2 déjà prêts,
+            // il ne reste au premier appel mesuré que l'analyse de la requête ad hoc
+            EntityManager em = emf.createEntityManager();
+            try {
+                em.createNamedQuery(QueryCatalog.AUTEUR_FIND_ALL, Auteur.class).getResultList();
+            } finally {
+                em.close();
+            }
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() {
+            emf.close();
+        }
+    }
+
+    private static Object parNom(EntityManagerFactory emf, Acces acces, String nom) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return (acces == Acces.NOMMEE
+                    ? em.createNamedQuery(QueryCatalog.AUTEUR_FIND_BY_NOM, Auteur.class)
+                    : em.createQuery(JPQL_PAR_NOM, Auteur.class))
+                    .setParameter("nom", nom)
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 50)
+    public Object premierAppel(Demarrage state) {
+        return parNom(state.emf, state.acces, "Nom1");
+    }
+
+    @Benchmark
+    @Warmup(iterations = 5, time = 1)
+    @Measurement(iterations = 10, time = 1)
+    public void regime(Regime state, Blackhole bh) {
+        bh.consume(parNom(state.emf, state.acces, "Nom" + (state.compteur++ % AUTEURS)));
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.benchmark;
+
+import com.example.model.Livre;
+import com.example.service.NaturalIdService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Recherche d'un livre par ISBN : requête JPQL, requête JPQL en cache de requêtes,
+ * ou natural id (résolution en cache puis entité en cache de second niveau).
+ * ecritures : pourcentage d'opérations qui changent l'ISBN d'un livre ; chaque changement
+ * invalide tout le cache de requêtes sur livres, mais une seule résolution natural-id.
+ * Les instructions SQL par opération sont affichées à chaque itération.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NaturalIdBenchmark {
+
+    public enum Acces {
+        JPQL, JPQL_CACHE_REQUETES, NATURAL_ID
+    }
+
+    @Param({"JPQL", "JPQL_CACHE_REQUETES", "NATURAL_ID"})
+    Acces acces;
+
+    @Param({"0", "5"})
+    int ecritures;
+
+    // 4000 livres : tiennent dans les régions Livre et Livre##NaturalId d'ehcache.xml (5000 éléments)
+    private static final int AUTEURS = 200;
+    private static final int LIVRES_PAR_AUTEUR = 20;
+
+    private EntityManagerFactory emf;
+    private NaturalIdService naturalIds;
+    private Statistics statistics;
+    private long[] ids;
+    private AtomicReferenceArray<String> isbns;
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicLong operations = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, Object> props = new HashMap<>();
+        props.put("hibernate.generate_statistics", "true");
+        emf = BenchmarkSupport.createEntityManagerFactory(props);
+        BenchmarkSupport.populate(emf, AUTEURS, LIVRES_PAR_AUTEUR, 5);
+        naturalIds = new NaturalIdService(emf);
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<Object[]> rows = em.createQuery("SELECT l.id, l.isbn FROM Livre l ORDER BY l.id", Object[].class)
+                    .getResultList();
+            ids = new long[rows.size()];
+            isbns = new AtomicReferenceArray<>(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                ids[i] = (Long) rows.get(i)[0];
+                isbns.set(i, (String) rows.get(i)[1]);
+            }
+        } finally {
+            em.close();
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void debutIteration() {
+        statistics.clear();
+        operations.set(0);
+    }
+
+    @TearDown(Level.Iteration)
+    public void finIteration() {
+        long ops = Math.max(1, operations.get());
+        System.out.printf("%n    SQL/op=%.3f résolutions natural-id SQL/op=%.3f hits cache requêtes/op=%.3f%n",
+                (double) statistics.getPrepareStatementCount() / ops,
+                (double) statistics.getNaturalIdQueryExecutionCount() / ops,
+                (double) statistics.getQueryCacheHitCount() / ops);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public void rechercheParIsbn(Blackhole bh) {
+        operations.incrementAndGet();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int i = random.nextInt(ids.length);
+        if (ecritures > 0 && random.nextInt(100) < ecritures) {
+            String isbn = "isbn-v" + versions.incrementAndGet();
+            naturalIds.changerIsbn(ids[i], isbn);
+            isbns.set(i, isbn);
+            return;
+        }
+        String isbn = isbns.get(i);
+        if (acces == Acces.NATURAL_ID) {
+            bh.consume(naturalIds.findLivreByIsbn(isbn));
+            return;
+        }
+        EntityManager em = emf.createEntityManager();
+        try {
+            bh.consume(em.createQuery("SELECT l FROM Livre l WHERE l.isbn = :isbn", Livre.class)
+                    .setParameter("isbn", isbn)
+                    .setHint("org.hibernate.cacheable", acces == Acces.JPQL_CACHE_REQUETES)
+                    .getSingleResult());
+        } finally {
+            em.close();
+        }
+    }
+}
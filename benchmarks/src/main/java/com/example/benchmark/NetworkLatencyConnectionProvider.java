@@ -0,0 +1,55 @@
+package com.example.benchmark;
+
+import com.example.pool.PooledConnectionProvider;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * PooledConnectionProvider qui ajoute un aller-retour réseau simulé (attente sans CPU)
+ * à chaque exécution de requête, pour se rapprocher d'une base distante avec H2 en mémoire.
+ * Délai : propriété LATENCY_MICROS.
+ */
+public class NetworkLatencyConnectionProvider extends PooledConnectionProvider {
+
+    public static final String LATENCY_MICROS = "com.example.benchmark.latency_micros";
+
+    private long latencyNanos;
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void configure(Map configurationValues) {
+        super.configure(configurationValues);
+        Object value = configurationValues.get(LATENCY_MICROS);
+        latencyNanos = value == null ? 0 : TimeUnit.MICROSECONDS.toNanos(Long.parseLong(value.toString()));
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection connection = super.getConnection();
+        return latencyNanos == 0 ? connection : (Connection) proxy(connection, Connection.class);
+    }
+
+    private Object proxy(Object target, Class<?> type) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, method, args) -> {
+            if (method.getName().startsWith("execute")) {
+                LockSupport.parkNanos(latencyNanos);
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            // Les statements créés par la connexion portent aussi le délai
+            Class<?> returned = method.getReturnType();
+            return result != null && Statement.class.isAssignableFrom(returned) ? proxy(result, returned) : result;
+        });
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.benchmark;
+
+import com.example.model.Livre;
+import com.example.service.DataInitService;
+import com.example.service.PaginationService;
+import org.openjdk.jmh.annotations.*;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latence d'une page de livres selon sa profondeur : OFFSET contre pagination
+ * par clé (avec ou sans entity graph). 200 000 livres, pages de 20.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PaginationBenchmark {
+
+    public enum Acces {
+        OFFSET, KEYSET, KEYSET_GRAPH
+    }
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1", "100", "1000", "10000"})
+    int page;
+
+    @Param({"OFFSET", "KEYSET", "KEYSET_GRAPH"})
+    Acces acces;
+
+    private EntityManagerFactory emf;
+    private PaginationService paginationService;
+    private Integer lastAnnee;
+    private Long lastId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        emf = BenchmarkSupport.createEntityManagerFactory();
+        new DataInitService(emf).initBulkData(2000, PAGE_SIZE * 10000, 50);
+        paginationService = new PaginationService(emf);
+
+        // Clé du dernier livre de la page précédente, comme la fournirait un client qui pagine
+        if (page > 1) {
+            EntityManager em = emf.createEntityManager();
+            try {
+                Object[] key = em.createQuery(
+                                "SELECT l.anneePublication, l.id FROM Livre l " +
+                                        "ORDER BY l.anneePublication, l.id", Object[].class)
+                        .setFirstResult((page - 1) * PAGE_SIZE - 1)
+                        .setMaxResults(1)
+                        .getSingleResult();
+                lastAnnee = (Integer) key[0];
+                lastId = (Long) key[1];
+            } finally {
+                em.close();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public List<Livre> lirePage() {
+        switch (acces) {
+            case OFFSET:
+                EntityManager em = emf.createEntityManager();
+                try {
+                    return em.createQuery("SELECT l FROM Livre l ORDER BY l.anneePublication, l.id", Livre.class)
+                            .setFirstResult((page - 1) * PAGE_SIZE)
+                            .setMaxResults(PAGE_SIZE)
+                            .getResultList();
+                } finally {
+                    em.close();
+                }
+            case KEYSET:
+                return paginationService.getLivres(lastAnnee, lastId, PAGE_SIZE).getContent();
+            case KEYSET_GRAPH:
+                return paginationService.getLivresWithGraph(lastAnnee, lastId, PAGE_SIZE).getContent();
+            default:
+                throw new IllegalStateException("Accès inconnu: " + acces);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.benchmark;
+
+import com.example.model.Auteur;
+import com.example.model.Categorie;
+import com.example.model.Livre;
+import com.example.service.DataInitService;
+import com.example.service.ProjectionQueryService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.persistence.EntityGraph;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Écrans de liste servis par entités (chemins de testJoinFetch / testEntityGraph)
+ * ou par projections DTO (ProjectionQueryService). Comparer la latence et
+ * gc.alloc.rate.norm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ProjectionBenchmark {
+
+    @Param({"1000", "10000"})
+    int livres;
+
+    private EntityManagerFactory emf;
+    private ProjectionQueryService projectionQueryService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        emf = BenchmarkSupport.createEntityManagerFactory();
+        new DataInitService(emf).initBulkData(Math.max(1, livres / 20), livres, 50);
+        projectionQueryService = new ProjectionQueryService(emf);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public void auteursEntites(Blackhole bh) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<Auteur> auteurs = em.createQuery(
+                            "SELECT DISTINCT a FROM Auteur a LEFT JOIN FETCH a.livres", Auteur.class)
+                    .getResultList();
+            for (Auteur auteur : auteurs) {
+                bh.consume(auteur.getNom());
+                bh.consume(auteur.getLivres().size());
+            }
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public void auteursProjection(Blackhole bh) {
+        bh.consume(projectionQueryService.getAuteursAvecNombreLivres());
+    }
+
+    @Benchmark
+    public void livresEntites(Blackhole bh) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            EntityGraph<?> graph = em.getEntityGraph("graph.Livre.categoriesEtAuteur");
+            List<Livre> result = em.createQuery("SELECT l FROM Livre l", Livre.class)
+                    .setHint("javax.persistence.fetchgraph", graph)
+                    .getResultList();
+            for (Livre livre : result) {
+                List<String> noms = new ArrayList<>();
+                for (Categorie categorie : livre.getCategories()) {
+                    noms.add(categorie.getNom());
+                }
+                bh.consume(livre.getTitre());
+                bh.consume(noms);
+            }
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public void livresProjection(Blackhole bh) {
+        bh.consume(projectionQueryService.getLivresAvecCategories());
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.benchmark;
+
+import com.example.model.Categorie;
+import com.example.reference.CategorieRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Accès aux catégories : find par id et recherche par nom.
+ * REGISTRE : CategorieRegistry (écouteur de chargement et index par nom) ;
+ * CACHE_REFERENCE : cache de second niveau en lecture seule avec entrées par référence ;
+ * CACHE_DESASSEMBLE : même cache, entrées désassemblées (réassemblées à chaque lecture).
+ * Hors registre, la recherche par nom passe par le cache de requêtes.
+ * SQL et lectures de région par opération sont affichés à chaque itération.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReferenceDataBenchmark {
+
+    public enum Source {
+        REGISTRE, CACHE_REFERENCE, CACHE_DESASSEMBLE
+    }
+
+    @Param({"REGISTRE", "CACHE_REFERENCE", "CACHE_DESASSEMBLE"})
+    Source source;
+
+    private static final int CATEGORIES = 50;
+    private static final int FINDS_PAR_PAGE = 20;
+
+    private EntityManagerFactory emf;
+    private CategorieRegistry registry;
+    private Statistics statistics;
+    private long[] ids;
+    private String[] noms;
+    private final AtomicLong operations = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, Object> props = new HashMap<>();
+        props.put("hibernate.generate_statistics", "true");
+        props.put("com.example.reference.enabled", String.valueOf(source == Source.REGISTRE));
+        props.put("hibernate.cache.use_reference_entries", String.valueOf(source != Source.CACHE_DESASSEMBLE));
+        emf = BenchmarkSupport.createEntityManagerFactory(props);
+        BenchmarkSupport.populate(emf, 10, 5, CATEGORIES);
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<Categorie> categories = em.createQuery("SELECT c FROM Categorie c ORDER BY c.id", Categorie.class)
+                    .getResultList();
+            ids = new long[categories.size()];
+            noms = new String[categories.size()];
+            for (int i = 0; i < categories.size(); i++) {
+                ids[i] = categories.get(i).getId();
+                noms[i] = categories.get(i).getNom();
+            }
+        } finally {
+            em.close();
+        }
+        if (source == Source.REGISTRE) {
+            registry = CategorieRegistry.of(emf);
+            registry.all();
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void debutIteration() {
+        statistics.clear();
+        operations.set(0);
+    }
+
+    @TearDown(Level.Iteration)
+    public void finIteration() {
+        long ops = Math.max(1, operations.get());
+        System.out.printf("%n    SQL/op=%.4f lectures de région/op=%.3f%n",
+                (double) statistics.getPrepareStatementCount() / ops,
+                (double) (statistics.getSecondLevelCacheHitCount() + statistics.getSecondLevelCacheMissCount()
+                        + statistics.getQueryCacheHitCount() + statistics.getQueryCacheMissCount()) / ops);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    // Catégories d'une page de 20 livres : 20 find distincts dans un même EntityManager
+    @Benchmark
+    @OperationsPerInvocation(FINDS_PAR_PAGE)
+    public void findParId(Blackhole bh) {
+        operations.addAndGet(FINDS_PAR_PAGE);
+        int debut = ThreadLocalRandom.current().nextInt(ids.length);
+        EntityManager em = emf.createEntityManager();
+        try {
+            for (int i = 0; i < FINDS_PAR_PAGE; i++) {
+                bh.consume(em.find(Categorie.class, ids[(debut + i) % ids.length]).getNom());
+            }
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public void rechercheParNom(Blackhole bh) {
+        operations.incrementAndGet();
+        String nom = noms[ThreadLocalRandom.current().nextInt(noms.length)];
+        if (registry != null) {
+            bh.consume(registry.byNom(nom));
+            return;
+        }
+        EntityManager em = emf.createEntityManager();
+        try {
+            bh.consume(em.createQuery("SELECT c FROM Categorie c WHERE c.nom = :nom", Categorie.class)
+                    .setParameter("nom", nom)
+                    .setHint("org.hibernate.cacheable", "true")
+                    .getSingleResult());
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.benchmark;
+
+import com.example.reporting.ReportingIntegrator;
+import com.example.reporting.SummaryTables;
+import com.example.service.BulkLoadReport;
+import com.example.service.DataInitService;
+import com.example.service.ReportingService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Rapports livres par catégorie et décennie, livres par auteur, sur un gros catalogue :
+ * <ul>
+ * <li>FLUX_PARALLELE : lecture des couples (année, catégorie) / auteurs puis agrégation
+ * en Java par parallelStream ;</li>
+ * <li>GROUP_BY : agrégation SQL à la demande ;</li>
+ * <li>SYNTHESE : lecture des tables de synthèse tenues à jour par les écouteurs.</li>
+ * </ul>
+ * Le chargement initial passe par les écouteurs (tables de synthèse maintenues pendant
+ * l'insertion) ; sa durée et celle d'un recalcul complet sont affichées au démarrage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ReportingBenchmark {
+
+    public enum Source {
+        FLUX_PARALLELE, GROUP_BY, SYNTHESE
+    }
+
+    @Param({"1000000"})
+    int livres;
+
+    @Param({"FLUX_PARALLELE", "GROUP_BY", "SYNTHESE"})
+    Source source;
+
+    private EntityManagerFactory emf;
+    private ReportingService reporting;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, Object> props = BenchmarkSupport.defaultProperties();
+        props.put(ReportingIntegrator.SUMMARY_ENABLED, "true");
+        // Sans écriture entre deux appels, H2 renverrait le résultat précédent de la même requête
+        props.put("javax.persistence.jdbc.url", props.get("javax.persistence.jdbc.url") + ";OPTIMIZE_REUSE_RESULTS=0");
+        emf = BenchmarkSupport.createEntityManagerFactory(props);
+        BulkLoadReport chargement = new DataInitService(emf).initBulkData(Math.max(1, livres / 100), livres, 50);
+        reporting = new ReportingService(emf);
+
+        long debut = System.nanoTime();
+        reporting.rebuildSummary();
+        System.out.printf("%nChargement avec tables de synthèse : %s%nRecalcul complet : %d ms%n",
+                chargement, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - debut));
+        System.out.printf("%d lignes (catégorie, décennie), %d auteurs%n",
+                reporting.getLivresParCategorieEtDecennieDepuisResume().size(),
+                reporting.getLivresParAuteurDepuisResume().size());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public void categoriesParDecennie(Blackhole bh) {
+        switch (source) {
+            case FLUX_PARALLELE:
+                bh.consume(categoriesParDecennieEnMemoire());
+                break;
+            case GROUP_BY:
+                bh.consume(reporting.getLivresParCategorieEtDecennieEnDirect());
+                break;
+            default:
+                bh.consume(reporting.getLivresParCategorieEtDecennieDepuisResume());
+        }
+    }
+
+    @Benchmark
+    public void livresParAuteur(Blackhole bh) {
+        switch (source) {
+            case FLUX_PARALLELE:
+                bh.consume(livresParAuteurEnMemoire());
+                break;
+            case GROUP_BY:
+                bh.consume(reporting.getLivresParAuteurEnDirect());
+                break;
+            default:
+                bh.consume(reporting.getLivresParAuteurDepuisResume());
+        }
+    }
+
+    // Une ligne par couple (livre, catégorie), regroupée en Java
+    private Map<List<Object>, Long> categoriesParDecennieEnMemoire() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<Object[]> rows = em.createQuery(
+                            "SELECT c.id, l.anneePublication FROM Livre l JOIN l.categories c " +
+                                    "WHERE l.anneePublication IS NOT NULL", Object[].class)
+                    .getResultList();
+            return rows.parallelStream().collect(Collectors.groupingByConcurrent(
+                    row -> Arrays.<Object>asList(row[0], SummaryTables.decennie((Integer) row[1])),
+                    Collectors.counting()));
+        } finally {
+            em.close();
+        }
+    }
+
+    private Map<Long, Long> livresParAuteurEnMemoire() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<Long> auteurs = em.createQuery("SELECT l.auteur.id FROM Livre l WHERE l.auteur IS NOT NULL", Long.class)
+                    .getResultList();
+            return auteurs.parallelStream().collect(Collectors.groupingByConcurrent(id -> id, Collectors.counting()));
+        } finally {
+            em.close();
+        }
+    }
+}
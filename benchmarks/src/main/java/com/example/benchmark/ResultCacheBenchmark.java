@@ -0,0 +1,226 @@
+package com.example.benchmark;
+
+import com.example.cache.ResultCache;
+import com.example.cache.ResultCacheStatistics;
+import com.example.model.Auteur;
+import com.example.model.Livre;
+import com.example.model.QueryCatalog;
+import com.example.service.CatalogUpdateService;
+import com.example.service.ResultCacheService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recherches paramétrées (Auteur.findByNom, Livre.findByAuteur) sans cache, avec le cache
+ * de requêtes Hibernate ou avec le cache de résultats applicatif, entrecoupées d'écritures :
+ * ecritures est le pourcentage d'opérations qui modifient, à parts égales, le prénom d'un
+ * auteur, son nom (vers un autre nom du jeu) ou le titre d'un livre.
+ * Chaque itération affiche les instructions SQL par opération et le taux de hit du cache
+ * utilisé ; à la fin du trial, les résultats servis sont comparés à la base (attendu : 0).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResultCacheBenchmark {
+
+    public enum Cache {
+        AUCUN, REQUETES, RESULTATS
+    }
+
+    @Param({"AUCUN", "REQUETES", "RESULTATS"})
+    Cache cache;
+
+    @Param({"0", "10"})
+    int ecritures;
+
+    private static final int AUTEURS = 500;
+    private static final int LIVRES_PAR_AUTEUR = 4;
+
+    private EntityManagerFactory emf;
+    private Statistics statistics;
+    private ResultCacheService results;
+    private CatalogUpdateService updates;
+    private Long[] auteurIds;
+    private Long[] livreIds;
+    private final AtomicLong operations = new AtomicLong();
+    private long hitsDebut;
+    private long missDebut;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, Object> props = new HashMap<>();
+        props.put("hibernate.generate_statistics", "true");
+        props.put("com.example.search.enabled", "false");
+        // Chaque mode ne paie que la tenue de son propre cache ; le cache de second niveau des entités reste actif
+        props.put("hibernate.cache.use_query_cache", String.valueOf(cache == Cache.REQUETES));
+        props.put("com.example.resultcache.enabled", String.valueOf(cache == Cache.RESULTATS));
+        emf = BenchmarkSupport.createEntityManagerFactory(props);
+        BenchmarkSupport.populate(emf, AUTEURS, LIVRES_PAR_AUTEUR, 5);
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        if (cache == Cache.RESULTATS) {
+            results = new ResultCacheService(emf);
+        }
+        updates = new CatalogUpdateService(emf);
+
+        EntityManager em = emf.createEntityManager();
+        try {
+            auteurIds = em.createQuery("SELECT a.id FROM Auteur a ORDER BY a.id", Long.class)
+                    .getResultList().toArray(new Long[0]);
+            livreIds = em.createQuery("SELECT l.id FROM Livre l ORDER BY l.id", Long.class)
+                    .getResultList().toArray(new Long[0]);
+        } finally {
+            em.close();
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void debutIteration() {
+        statistics.clear();
+        operations.set(0);
+        long[] compteurs = hitsEtMiss();
+        hitsDebut = compteurs[0];
+        missDebut = compteurs[1];
+    }
+
+    @TearDown(Level.Iteration)
+    public void finIteration() {
+        long ops = Math.max(1, operations.get());
+        long[] compteurs = hitsEtMiss();
+        long hits = compteurs[0] - hitsDebut;
+        long miss = compteurs[1] - missDebut;
+        String detail = "";
+        if (cache == Cache.RESULTATS) {
+            ResultCacheStatistics stats = ResultCache.of(emf).statistics();
+            detail = String.format(" invalidations=%d refusées=%d entrées=%d",
+                    stats.getInvalidations(), stats.getRejectedPuts(), stats.getEntries());
+        }
+        System.out.printf("%n    SQL/op=%.3f hit ratio=%.3f%s%n", (double) statistics.getPrepareStatementCount() / ops,
+                hits + miss == 0 ? 0 : (double) hits / (hits + miss), detail);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%n    Résultats différents de la base : %d%n", incoherences());
+        emf.close();
+    }
+
+    @Benchmark
+    public void rechercheEtEcritures(Blackhole bh) {
+        operations.incrementAndGet();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (ecritures > 0 && random.nextInt(100) < ecritures) {
+            ecrire(random);
+            return;
+        }
+        EntityManager em = emf.createEntityManager();
+        try {
+            if (random.nextBoolean()) {
+                bh.consume(auteursParNom(em, "Nom" + random.nextInt(AUTEURS)).size());
+            } else {
+                bh.consume(livresParAuteur(em, auteurIds[random.nextInt(auteurIds.length)]).size());
+            }
+        } finally {
+            em.close();
+        }
+    }
+
+    private void ecrire(ThreadLocalRandom random) {
+        int numero = random.nextInt(1000);
+        switch (random.nextInt(3)) {
+            case 0:
+                updates.modifier(Auteur.class, auteurIds[random.nextInt(auteurIds.length)],
+                        auteur -> auteur.setPrenom("Prenom" + numero));
+                break;
+            case 1:
+                updates.modifier(Auteur.class, auteurIds[random.nextInt(auteurIds.length)],
+                        auteur -> auteur.setNom("Nom" + numero % AUTEURS));
+                break;
+            default:
+                updates.changerTitre(livreIds[random.nextInt(livreIds.length)], "Titre " + numero);
+        }
+    }
+
+    private List<Auteur> auteursParNom(EntityManager em, String nom) {
+        if (cache == Cache.RESULTATS) {
+            return results.findAuteursByNom(em, nom);
+        }
+        return em.createNamedQuery(QueryCatalog.AUTEUR_FIND_BY_NOM, Auteur.class)
+                .setParameter("nom", nom)
+                .setHint("org.hibernate.cacheable", cache == Cache.REQUETES)
+                .getResultList();
+    }
+
+    private List<Livre> livresParAuteur(EntityManager em, Long auteurId) {
+        if (cache == Cache.RESULTATS) {
+            return results.findLivresByAuteur(em, auteurId);
+        }
+        return em.createNamedQuery(QueryCatalog.LIVRE_FIND_BY_AUTEUR, Livre.class)
+                .setParameter("auteurId", auteurId)
+                .setHint("org.hibernate.cacheable", cache == Cache.REQUETES)
+                .getResultList();
+    }
+
+    // {hits, miss} du cache utilisé par le mode
+    private long[] hitsEtMiss() {
+        if (cache == Cache.RESULTATS) {
+            ResultCacheStatistics stats = ResultCache.of(emf).statistics();
+            return new long[]{stats.getHits(), stats.getMisses()};
+        }
+        // Statistiques remises à zéro en début d'itération
+        return new long[]{statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount()};
+    }
+
+    // Recherches dont le résultat servi (depuis le cache s'il est actif) diffère de la base
+    private int incoherences() {
+        int incoherences = 0;
+        EntityManager em = emf.createEntityManager();
+        try {
+            for (int i = 0; i < AUTEURS; i++) {
+                String nom = "Nom" + i;
+                List<Long> base = em.createQuery("SELECT a.id FROM Auteur a WHERE a.nom = :nom ORDER BY a.id", Long.class)
+                        .setParameter("nom", nom).getResultList();
+                if (!base.equals(sortedIds(auteursParNom(em, nom)))) {
+                    incoherences++;
+                }
+            }
+            for (Long auteurId : auteurIds) {
+                List<Long> base = em.createQuery("SELECT l.id FROM Livre l WHERE l.auteur.id = :id ORDER BY l.id", Long.class)
+                        .setParameter("id", auteurId).getResultList();
+                List<Long> lu = new ArrayList<>();
+                for (Livre livre : livresParAuteur(em, auteurId)) {
+                    lu.add(livre.getId());
+                }
+                if (!base.equals(lu)) {
+                    incoherences++;
+                }
+            }
+        } finally {
+            em.close();
+        }
+        return incoherences;
+    }
+
+    private static List<Long> sortedIds(List<Auteur> auteurs) {
+        List<Long> ids = new ArrayList<>();
+        for (Auteur auteur : auteurs) {
+            ids.add(auteur.getId());
+        }
+        ids.sort(null);
+        return ids;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.benchmark;
+
+import com.example.model.Auteur;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reprend testSecondLevelCache et testPerformanceComparison : find par id et
+ * requête par nom, avec et sans cache de second niveau.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SecondLevelCacheBenchmark {
+
+    @Param({"10", "1000"})
+    int auteurs;
+
+    @Param({"true", "false"})
+    boolean cache;
+
+    private EntityManagerFactory emf;
+    private long compteur;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, Object> props = new HashMap<>();
+        props.put("hibernate.cache.use_second_level_cache", String.valueOf(cache));
+        props.put("hibernate.cache.use_query_cache", String.valueOf(cache));
+        emf = BenchmarkSupport.createEntityManagerFactory(props);
+        BenchmarkSupport.populate(emf, auteurs, 5, 5);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emf.close();
+    }
+
+    // Un EntityManager par accès, comme la boucle "avec cache" de testPerformanceComparison
+    @Benchmark
+    public void findAuteurAvecLivres(Blackhole bh) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            Auteur auteur = em.find(Auteur.class, (compteur++ % auteurs) + 1L);
+            bh.consume(auteur.getLivres().size());
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public void requeteParNom(Blackhole bh) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            bh.consume(em.createQuery("SELECT a FROM Auteur a WHERE a.nom = :nom", Auteur.class)
+                    .setParameter("nom", "Nom" + (compteur++ % auteurs))
+                    .setHint("org.hibernate.cacheable", String.valueOf(cache))
+                    .getResultList());
+        } finally {
+            em.close();
+        }
+    }
+}
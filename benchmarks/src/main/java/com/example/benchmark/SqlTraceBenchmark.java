@@ -0,0 +1,113 @@
+package com.example.benchmark;
+
+import com.example.model.Livre;
+import com.example.model.QueryCatalog;
+import com.example.monitoring.SqlTrace;
+import com.example.monitoring.TimedConnectionProvider;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût de la sortie SQL sur une unité de travail courante (livres d'un auteur par la requête
+ * nommée, puis leurs catégories : environ 4 instructions), cache de second niveau désactivé
+ * pour que chaque opération atteigne la base. Toutes les variantes passent par
+ * TimedConnectionProvider :
+ * <ul>
+ * <li>AUCUNE : ni show_sql ni trace ;</li>
+ * <li>STDOUT : show_sql et format_sql, System.out redirigé vers un fichier ;</li>
+ * <li>TRACE_ECHANTILLON : SqlTrace à 1 % ;</li>
+ * <li>TRACE_COMPLETE : SqlTrace à 100 %.</li>
+ * </ul>
+ * Le trial affiche les compteurs de la trace (tracées, écrites, perdues).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class SqlTraceBenchmark {
+
+    private static final int AUTEURS = 100;
+
+    public enum Sortie {
+        AUCUNE, STDOUT, TRACE_ECHANTILLON, TRACE_COMPLETE
+    }
+
+    @Param({"AUCUNE", "STDOUT", "TRACE_ECHANTILLON", "TRACE_COMPLETE"})
+    Sortie sortie;
+
+    private final Path dossier = Paths.get(System.getProperty("java.io.tmpdir"), "hibernate-performance-bench");
+    private EntityManagerFactory emf;
+    private PrintStream stdout;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Files.createDirectories(dossier);
+        Map<String, Object> props = new HashMap<>();
+        props.put("hibernate.connection.provider_class", TimedConnectionProvider.class.getName());
+        props.put("hibernate.cache.use_second_level_cache", "false");
+        props.put("hibernate.cache.use_query_cache", "false");
+        if (sortie == Sortie.STDOUT) {
+            props.put("hibernate.show_sql", "true");
+            props.put("hibernate.format_sql", "true");
+        } else if (sortie != Sortie.AUCUNE) {
+            Path fichier = dossier.resolve("sql-trace.jsonl");
+            Files.deleteIfExists(fichier);
+            props.put(SqlTrace.ENABLED, "true");
+            props.put(SqlTrace.FILE, fichier.toString());
+            props.put(SqlTrace.SAMPLE_RATE, sortie == Sortie.TRACE_COMPLETE ? "1.0" : "0.01");
+        }
+        emf = BenchmarkSupport.createEntityManagerFactory(props);
+        BenchmarkSupport.populate(emf, AUTEURS, 10, 10);
+        if (sortie == Sortie.STDOUT) {
+            // show_sql écrit sur System.out : vers un fichier plutôt que dans la sortie de JMH
+            stdout = System.out;
+            System.setOut(new PrintStream(new FileOutputStream(dossier.resolve("show-sql.log").toFile()), false));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SqlTrace trace = SqlTrace.of(emf);
+        emf.close();
+        if (stdout != null) {
+            System.out.close();
+            System.setOut(stdout);
+        }
+        if (trace != null) {
+            System.out.printf("%n%s%n", trace);
+        }
+    }
+
+    @Benchmark
+    public void livresEtCategories(Blackhole bh) {
+        long auteurId = 1 + ThreadLocalRandom.current().nextInt(AUTEURS);
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<Livre> livres = em.createNamedQuery(QueryCatalog.LIVRE_FIND_BY_AUTEUR, Livre.class)
+                    .setParameter("auteurId", auteurId)
+                    .setMaxResults(3)
+                    .getResultList();
+            for (Livre livre : livres) {
+                bh.consume(livre.getCategories().size());
+            }
+        } finally {
+            em.close();
+        }
+    }
+}
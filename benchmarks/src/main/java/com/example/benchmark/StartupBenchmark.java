@@ -0,0 +1,94 @@
+package com.example.benchmark;
+
+import com.example.boot.Bootstrapper;
+import com.example.model.Livre;
+import com.example.model.QueryCatalog;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Démarrage à froid de l'EntityManagerFactory, une mesure par JVM :
+ * <ul>
+ * <li>STANDARD : schéma create-drop puis DataInitService.initData() ;</li>
+ * <li>RAPIDE : schéma validé sur une copie de l'image H2 préconstruite, initialisations différées
+ * (Bootstrapper.fast).</li>
+ * </ul>
+ * demarrerEtLire ajoute la première lecture d'un job court (requête nommée, find), qui paie ce que
+ * le démarrage rapide a différé. Chaque fork affiche la décomposition par phase (StartupReport).
+ * L'image est construite par une JVM à part, pour que le fork mesuré reste froid.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+public class StartupBenchmark {
+
+    public enum Demarrage {
+        STANDARD, RAPIDE
+    }
+
+    @Param({"STANDARD", "RAPIDE"})
+    Demarrage demarrage;
+
+    private final Path image = Paths.get(System.getProperty("java.io.tmpdir"), "hibernate-performance-bench",
+            "catalog-image");
+    private Map<String, Object> props;
+    private EntityManagerFactory emf;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        props = BenchmarkSupport.defaultProperties();
+        props.put(Bootstrapper.IMAGE, image.toString());
+        if (demarrage == Demarrage.RAPIDE && !Files.exists(image.resolveSibling(image.getFileName() + ".mv.db"))) {
+            Process process = new ProcessBuilder(Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-cp", System.getProperty("java.class.path"), StartupBenchmark.class.getName(), image.toString())
+                    .inheritIO().start();
+            if (process.waitFor() != 0) {
+                throw new IllegalStateException("Construction de l'image " + image + " en échec");
+            }
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        System.out.printf("%n%s%n", Bootstrapper.lastReport());
+        emf.close();
+    }
+
+    private EntityManagerFactory demarrer() {
+        return demarrage == Demarrage.STANDARD ? Bootstrapper.standard(props) : Bootstrapper.fast(props);
+    }
+
+    @Benchmark
+    public void demarrer(Blackhole bh) {
+        emf = demarrer();
+        bh.consume(emf);
+    }
+
+    @Benchmark
+    public void demarrerEtLire(Blackhole bh) {
+        emf = demarrer();
+        EntityManager em = emf.createEntityManager();
+        try {
+            bh.consume(em.createNamedQuery(QueryCatalog.LIVRE_FIND_ALL, Livre.class).setMaxResults(10).getResultList());
+            bh.consume(em.find(Livre.class, 1L));
+        } finally {
+            em.close();
+        }
+    }
+
+    // Construction de l'image dans une JVM à part (voir setUp)
+    public static void main(String[] args) {
+        Bootstrapper.buildImage(Paths.get(args[0]), BenchmarkSupport.defaultProperties());
+    }
+}
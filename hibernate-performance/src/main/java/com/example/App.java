@@ -0,0 +1,68 @@
+package com.example;
+
+import com.example.boot.Bootstrapper;
+import com.example.monitoring.SqlTrace;
+import com.example.service.PerformanceTestService;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class App {
+    public static void main(String[] args) {
+        // Création de l'EntityManagerFactory et initialisation des données ;
+        // --fast-boot : schéma validé sur l'image H2 préconstruite (com.example.boot.Bootstrapper)
+        EntityManagerFactory emf = Arrays.asList(args).contains("--fast-boot")
+                ? Bootstrapper.fast(Collections.emptyMap())
+                : Bootstrapper.standard(Collections.emptyMap());
+        System.out.println(Bootstrapper.lastReport());
+        SqlTrace trace = SqlTrace.of(emf);
+
+        try {
+            // Service de test de performance
+            PerformanceTestService performanceTestService = new PerformanceTestService(emf);
+
+            // Test 1: Problème N+1 sans optimisation
+            scenario("TEST 1: PROBLÈME N+1 SANS OPTIMISATION", performanceTestService::testN1Problem);
+
+            // Test 2: Résolution du problème N+1 avec JOIN FETCH
+            scenario("TEST 2: RÉSOLUTION AVEC JOIN FETCH", performanceTestService::testJoinFetch);
+
+            // Test 3: Résolution du problème N+1 avec Entity Graphs
+            scenario("TEST 3: RÉSOLUTION AVEC ENTITY GRAPHS", performanceTestService::testEntityGraph);
+
+            // Test 4: Test du cache de second niveau
+            scenario("TEST 4: CACHE DE SECOND NIVEAU", performanceTestService::testSecondLevelCache);
+
+            // Test 5: Comparaison des performances avec et sans cache
+            scenario("TEST 5: COMPARAISON DES PERFORMANCES", performanceTestService::testPerformanceComparison);
+
+            // Test 6: Recherche par clé métier avec le cache natural-id
+            scenario("TEST 6: CACHE NATURAL-ID", performanceTestService::testNaturalIdCache);
+
+            // Test 7: Rapports agrégés, en direct et depuis les tables de synthèse
+            scenario("TEST 7: RAPPORTS ET TABLES DE SYNTHÈSE", performanceTestService::testReporting);
+
+            // Test 8: Cache de résultats invalidé par entrée, comparé au cache de requêtes
+            scenario("TEST 8: CACHE DE RÉSULTATS", performanceTestService::testResultCache);
+
+        } finally {
+            // Fermeture de l'EntityManagerFactory (vide aussi la trace SQL)
+            emf.close();
+        }
+        if (trace != null) {
+            System.out.println(trace);
+        }
+    }
+
+    // Bannière du test, et ses requêtes attribuées au test dans la trace SQL
+    private static void scenario(String titre, Runnable test) {
+        System.out.println("\n\n=== " + titre + " ===");
+        SqlTrace.Scope scope = SqlTrace.scenario(titre);
+        try {
+            test.run();
+        } finally {
+            scope.close();
+        }
+    }
+}
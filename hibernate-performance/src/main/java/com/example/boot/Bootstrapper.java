@@ -0,0 +1,236 @@
+package com.example.boot;
+
+import com.example.cache.LazyEhcacheRegionFactory;
+import com.example.config.QueryCatalogIntegrator;
+import com.example.service.DataInitService;
+import org.hibernate.boot.archive.scan.internal.DisabledScanner;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.HibernatePersistenceProvider;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.EntityManagerFactoryBuilder;
+import org.hibernate.jpa.boot.spi.PersistenceUnitDescriptor;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import javax.persistence.PersistenceException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Démarrage de l'EntityManagerFactory, avec décomposition du temps passé (StartupReport).
+ * <ul>
+ * <li>standard : persistence.xml tel quel (schéma create-drop) puis DataInitService.initData() ;</li>
+ * <li>rapide : base H2 fichier préconstruite (l'image), seulement validée contre le mapping ;
+ * ni lecture des métadonnées JDBC, ni scan des archives, ni compilation des requêtes nommées
+ * et du catalogue au démarrage (elles le sont à la première utilisation), ni sortie SQL ;
+ * régions de cache Ehcache créées à leur première écriture (LazyEhcacheRegionFactory).</li>
+ * </ul>
+ * Propriétés du mode rapide :
+ * <ul>
+ * <li>com.example.boot.image : chemin de l'image, sans extension (target/catalog-image) ;
+ * construite par le démarrage standard si elle manque ou ne correspond plus au mapping</li>
+ * <li>com.example.boot.image_mode : copy (copie de travail, écritures possibles, par défaut)
+ * ou mapped (image ouverte en lecture seule et projetée en mémoire, sans copie)</li>
+ * </ul>
+ */
+public final class Bootstrapper {
+
+    public static final String PERSISTENCE_UNIT = "hibernate-performance";
+    public static final String IMAGE = "com.example.boot.image";
+    public static final String IMAGE_MODE = "com.example.boot.image_mode";
+
+    private static final String URL = "javax.persistence.jdbc.url";
+    private static final String H2_SUFFIX = ".mv.db";
+
+    private static volatile StartupReport lastReport;
+
+    private Bootstrapper() {
+    }
+
+    // Dernier démarrage effectué dans la JVM, null si aucun
+    public static StartupReport lastReport() {
+        return lastReport;
+    }
+
+    public static EntityManagerFactory standard(Map<String, Object> overrides) {
+        TimedBuild build = new TimedBuild(new HashMap<>(overrides));
+        EntityManagerFactory emf = build.emf;
+        long start = System.nanoTime();
+        try {
+            new DataInitService(emf).initData();
+        } catch (RuntimeException e) {
+            emf.close();
+            throw e;
+        }
+        lastReport = build.report("standard", millisSince(start), "DataInitService.initData");
+        return emf;
+    }
+
+    public static EntityManagerFactory fast(Map<String, Object> overrides) {
+        Map<String, Object> props = fastProperties();
+        props.putAll(overrides);
+        Path image = Paths.get(String.valueOf(props.getOrDefault(IMAGE, "target/catalog-image")).trim())
+                .toAbsolutePath();
+        boolean mapped = "mapped".equalsIgnoreCase(String.valueOf(props.getOrDefault(IMAGE_MODE, "copy")).trim());
+
+        long start = System.nanoTime();
+        boolean built = false;
+        if (!Files.exists(h2File(image))) {
+            buildImage(image, overrides);
+            built = true;
+        }
+        String data = open(image, mapped, props);
+        TimedBuild build;
+        try {
+            build = new TimedBuild(props);
+        } catch (PersistenceException e) {
+            if (built) {
+                throw e;
+            }
+            // Image d'un mapping antérieur : la validation du schéma échoue, on la reconstruit une fois
+            System.out.println("Image " + image + " invalide (" + e.getMessage() + ") : reconstruction");
+            start = System.nanoTime();
+            buildImage(image, overrides);
+            built = true;
+            data = open(image, mapped, props);
+            build = new TimedBuild(props);
+        }
+        long dataMillis = millisSince(start) - build.totalMillis;
+        lastReport = build.report("rapide", dataMillis, (built ? "image construite, " : "") + data);
+        return build.emf;
+    }
+
+    // Réglages du mode rapide, que les propriétés passées à fast() peuvent remplacer
+    static Map<String, Object> fastProperties() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(AvailableSettings.HBM2DDL_AUTO, "validate");
+        props.put(AvailableSettings.SHOW_SQL, "false");
+        props.put(AvailableSettings.FORMAT_SQL, "false");
+        // Dialecte fixé dans persistence.xml : pas de connexion pour lire les métadonnées JDBC
+        props.put("hibernate.temp.use_jdbc_metadata_defaults", "false");
+        // Entités listées dans persistence.xml : pas d'indexation des classes de l'archive, qui dure
+        // quelques secondes dans un jar qui embarque ses dépendances (scan non désactivé par
+        // hibernate.archive.autodetection)
+        props.put(AvailableSettings.SCANNER, DisabledScanner.class.getName());
+        // Requêtes nommées et catalogue compilés à la première utilisation, plus au démarrage
+        props.put(AvailableSettings.QUERY_STARTUP_CHECKING, "false");
+        props.put(QueryCatalogIntegrator.VALIDATE, "false");
+        // CacheManager et caches Ehcache créés à la première écriture dans une région
+        props.put(AvailableSettings.CACHE_REGION_FACTORY, LazyEhcacheRegionFactory.class.getName());
+        return props;
+    }
+
+    // Met l'image à disposition de la base et renvoie la description de la phase données
+    private static String open(Path image, boolean mapped, Map<String, Object> props) {
+        if (mapped) {
+            props.put(URL, "jdbc:h2:nioMapped:" + image + ";ACCESS_MODE_DATA=r");
+            return "image ouverte en lecture seule";
+        }
+        Path work = image.resolveSibling(image.getFileName() + "-travail");
+        try {
+            Files.copy(h2File(image), h2File(work), StandardCopyOption.REPLACE_EXISTING);
+            long bytes = Files.size(h2File(work));
+            props.put(URL, "jdbc:h2:file:" + work);
+            return "image copiée (" + bytes / 1024 + " Ko)";
+        } catch (IOException e) {
+            throw new UncheckedIOException("Copie de l'image " + image + " impossible", e);
+        }
+    }
+
+    // Schéma créé et données de DataInitService, comme au démarrage standard, dans un fichier H2 ;
+    // à relancer après un changement de mapping, sinon fast() s'en charge à la validation
+    public static void buildImage(Path image, Map<String, Object> overrides) {
+        try {
+            Files.createDirectories(image.getParent());
+            Files.deleteIfExists(h2File(image));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Préparation de l'image " + image + " impossible", e);
+        }
+        Map<String, Object> props = new HashMap<>(overrides);
+        props.put(URL, "jdbc:h2:file:" + image);
+        props.put(AvailableSettings.HBM2DDL_AUTO, "create");
+        props.put(AvailableSettings.SHOW_SQL, "false");
+        EntityManagerFactory emf = Persistence.createEntityManagerFactory(PERSISTENCE_UNIT, props);
+        try {
+            new DataInitService(emf).initData();
+        } finally {
+            emf.close();
+        }
+    }
+
+    private static Path h2File(Path database) {
+        return database.resolveSibling(database.getFileName() + H2_SUFFIX);
+    }
+
+    private static long millisSince(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    // Construction chronométrée : métadonnées, puis SessionFactory dont on retire le temps du schéma
+    private static final class TimedBuild {
+
+        final EntityManagerFactory emf;
+        final long metadataMillis;
+        final long sessionFactoryMillis;
+        final long schemaMillis;
+        final long totalMillis;
+
+        TimedBuild(Map<String, Object> props) {
+            TimedSchemaManagementTool schemaTool = new TimedSchemaManagementTool();
+            props.put(AvailableSettings.SCHEMA_MANAGEMENT_TOOL, schemaTool);
+            long start = System.nanoTime();
+            MetadataExposingBuilder builder = new Provider().builder(props);
+            builder.completeMetadata();
+            long metadataDone = System.nanoTime();
+            this.emf = builder.build();
+            long end = System.nanoTime();
+
+            this.metadataMillis = (metadataDone - start) / 1_000_000;
+            this.schemaMillis = schemaTool.getNanos() / 1_000_000;
+            this.sessionFactoryMillis = (end - metadataDone) / 1_000_000 - schemaMillis;
+            this.totalMillis = (end - start) / 1_000_000;
+        }
+
+        StartupReport report(String mode, long dataMillis, String data) {
+            return new StartupReport(mode, metadataMillis, sessionFactoryMillis, schemaMillis, dataMillis, data);
+        }
+    }
+
+    // Même recherche de l'unité de persistance que Persistence.createEntityManagerFactory
+    private static final class Provider extends HibernatePersistenceProvider {
+
+        MetadataExposingBuilder builder(Map<String, Object> props) {
+            EntityManagerFactoryBuilder builder = getEntityManagerFactoryBuilderOrNull(PERSISTENCE_UNIT, props);
+            if (builder == null) {
+                throw new PersistenceException("Unité de persistance introuvable : " + PERSISTENCE_UNIT);
+            }
+            return (MetadataExposingBuilder) builder;
+        }
+
+        @Override
+        @SuppressWarnings("rawtypes")
+        protected EntityManagerFactoryBuilder getEntityManagerFactoryBuilder(PersistenceUnitDescriptor descriptor,
+                                                                             Map integration, ClassLoader providedClassLoader) {
+            return new MetadataExposingBuilder(descriptor, integration, providedClassLoader);
+        }
+    }
+
+    // Le constructeur prépare les sources ; les métadonnées sont complétées à part de build()
+    private static final class MetadataExposingBuilder extends EntityManagerFactoryBuilderImpl {
+
+        @SuppressWarnings("rawtypes")
+        MetadataExposingBuilder(PersistenceUnitDescriptor descriptor, Map integration, ClassLoader classLoader) {
+            super(descriptor, integration, classLoader);
+        }
+
+        void completeMetadata() {
+            metadata();
+        }
+    }
+}
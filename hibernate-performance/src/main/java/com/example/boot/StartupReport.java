@@ -0,0 +1,64 @@
+package com.example.boot;
+
+/**
+ * Décomposition d'un démarrage : construction des métadonnées (lecture de persistence.xml,
+ * liaison des annotations), construction de la SessionFactory hors schéma (persisters,
+ * régions de cache, intégrateurs et observateurs), action sur le schéma, mise en place
+ * des données.
+ */
+public class StartupReport {
+
+    private final String mode;
+    private final long metadataMillis;
+    private final long sessionFactoryMillis;
+    private final long schemaMillis;
+    private final long dataMillis;
+    private final String data;
+
+    StartupReport(String mode, long metadataMillis, long sessionFactoryMillis, long schemaMillis,
+                  long dataMillis, String data) {
+        this.mode = mode;
+        this.metadataMillis = metadataMillis;
+        this.sessionFactoryMillis = sessionFactoryMillis;
+        this.schemaMillis = schemaMillis;
+        this.dataMillis = dataMillis;
+        this.data = data;
+    }
+
+    // "standard" ou "rapide"
+    public String getMode() {
+        return mode;
+    }
+
+    public long getMetadataMillis() {
+        return metadataMillis;
+    }
+
+    public long getSessionFactoryMillis() {
+        return sessionFactoryMillis;
+    }
+
+    public long getSchemaMillis() {
+        return schemaMillis;
+    }
+
+    public long getDataMillis() {
+        return dataMillis;
+    }
+
+    // Origine des données : initData, image copiée, image ouverte en lecture seule...
+    public String getData() {
+        return data;
+    }
+
+    public long getTotalMillis() {
+        return metadataMillis + sessionFactoryMillis + schemaMillis + dataMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Démarrage %s : %d ms (métadonnées %d ms, SessionFactory %d ms, schéma %d ms, "
+                        + "données %d ms : %s)", mode, getTotalMillis(), metadataMillis, sessionFactoryMillis,
+                schemaMillis, dataMillis, data);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.boot;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.tool.schema.internal.HibernateSchemaManagementTool;
+import org.hibernate.tool.schema.spi.DelayedDropAction;
+import org.hibernate.tool.schema.spi.ExecutionOptions;
+import org.hibernate.tool.schema.spi.SchemaCreator;
+import org.hibernate.tool.schema.spi.SchemaDropper;
+import org.hibernate.tool.schema.spi.SchemaMigrator;
+import org.hibernate.tool.schema.spi.SchemaValidator;
+import org.hibernate.tool.schema.spi.SourceDescriptor;
+import org.hibernate.tool.schema.spi.TargetDescriptor;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Outil de schéma de Hibernate qui cumule la durée des actions exécutées pendant la
+ * construction de la SessionFactory (drop, create, update, validate), pour isoler la
+ * phase « schéma » du démarrage. Passé en instance dans hibernate.schema_management_tool.
+ */
+class TimedSchemaManagementTool extends HibernateSchemaManagementTool {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    long getNanos() {
+        return nanos.get();
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public SchemaCreator getSchemaCreator(Map options) {
+        SchemaCreator delegate = super.getSchemaCreator(options);
+        return (metadata, executionOptions, source, target) -> {
+            long start = System.nanoTime();
+            try {
+                delegate.doCreation(metadata, executionOptions, source, target);
+            } finally {
+                nanos.addAndGet(System.nanoTime() - start);
+            }
+        };
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public SchemaDropper getSchemaDropper(Map options) {
+        SchemaDropper delegate = super.getSchemaDropper(options);
+        return new SchemaDropper() {
+            @Override
+            public void doDrop(Metadata metadata, ExecutionOptions executionOptions,
+                               SourceDescriptor source, TargetDescriptor target) {
+                long start = System.nanoTime();
+                try {
+                    delegate.doDrop(metadata, executionOptions, source, target);
+                } finally {
+                    nanos.addAndGet(System.nanoTime() - start);
+                }
+            }
+
+            // Drop différé de create-drop : exécuté à la fermeture, hors démarrage
+            @Override
+            public DelayedDropAction buildDelayedAction(Metadata metadata, ExecutionOptions executionOptions,
+                                                        SourceDescriptor source) {
+                return delegate.buildDelayedAction(metadata, executionOptions, source);
+            }
+        };
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public SchemaMigrator getSchemaMigrator(Map options) {
+        SchemaMigrator delegate = super.getSchemaMigrator(options);
+        return (metadata, executionOptions, target) -> {
+            long start = System.nanoTime();
+            try {
+                delegate.doMigration(metadata, executionOptions, target);
+            } finally {
+                nanos.addAndGet(System.nanoTime() - start);
+            }
+        };
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public SchemaValidator getSchemaValidator(Map options) {
+        SchemaValidator delegate = super.getSchemaValidator(options);
+        return (metadata, executionOptions) -> {
+            long start = System.nanoTime();
+            try {
+                delegate.doValidation(metadata, executionOptions);
+            } finally {
+                nanos.addAndGet(System.nanoTime() - start);
+            }
+        };
+    }
+}
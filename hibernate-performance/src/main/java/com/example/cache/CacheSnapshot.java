@@ -0,0 +1,67 @@
+package com.example.cache;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fichier des clés chaudes : une ligne par entité, "nomEntité=id1,id2,...", les
+ * identifiants du plus au moins fréquent. Les identifiants sont des Long, comme
+ * pour toutes les entités du modèle.
+ */
+final class CacheSnapshot {
+
+    private CacheSnapshot() {
+    }
+
+    static void write(Path file, Map<String, List<Serializable>> keys) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        // Écriture dans un fichier temporaire puis renommage : pas d'instantané tronqué
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            writer.write("# Clés chaudes du cache de second niveau, de la plus à la moins fréquente");
+            writer.newLine();
+            for (Map.Entry<String, List<Serializable>> entry : keys.entrySet()) {
+                writer.write(entry.getKey());
+                writer.write('=');
+                for (int i = 0; i < entry.getValue().size(); i++) {
+                    if (i > 0) {
+                        writer.write(',');
+                    }
+                    writer.write(entry.getValue().get(i).toString());
+                }
+                writer.newLine();
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    static Map<String, List<Long>> read(Path file) throws IOException {
+        Map<String, List<Long>> keys = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            int eq = line.indexOf('=');
+            if (line.startsWith("#") || eq < 0) {
+                continue;
+            }
+            List<Long> ids = new ArrayList<>();
+            for (String id : line.substring(eq + 1).split(",")) {
+                if (!id.isEmpty()) {
+                    ids.add(Long.valueOf(id.trim()));
+                }
+            }
+            keys.put(line.substring(0, eq).trim(), ids);
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.cache;
+
+import com.example.model.Auteur;
+import com.example.model.Categorie;
+import com.example.model.Livre;
+import com.example.model.QueryCatalog;
+import org.hibernate.SessionFactory;
+import org.hibernate.SessionFactoryObserver;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Préchauffe le cache de second niveau au démarrage de la SessionFactory, avant
+ * qu'elle ne soit rendue à l'application : toutes les catégories, puis les auteurs
+ * et livres chauds, chargés en parallèle par lots. Les clés chaudes viennent de
+ * l'instantané enregistré à l'arrêt précédent ; à défaut, on prend les auteurs
+ * ayant le plus de livres et leurs livres.
+ * <ul>
+ *     <li>com.example.cache.warmup.enabled : préchauffage au démarrage (false)</li>
+ *     <li>com.example.cache.warmup.threads : threads de chargement (4)</li>
+ *     <li>com.example.cache.warmup.auteurs / livres : taille de l'heuristique (100 / 1000)</li>
+ *     <li>com.example.cache.warmup.snapshot_file : instantané lu au démarrage et écrit à l'arrêt</li>
+ *     <li>com.example.cache.warmup.snapshot_keys : clés conservées par entité (2000)</li>
+ * </ul>
+ */
+public class CacheWarmer implements SessionFactoryObserver {
+
+    public static final String ENABLED = "com.example.cache.warmup.enabled";
+    public static final String THREADS = "com.example.cache.warmup.threads";
+    public static final String AUTEURS = "com.example.cache.warmup.auteurs";
+    public static final String LIVRES = "com.example.cache.warmup.livres";
+    public static final String SNAPSHOT_FILE = "com.example.cache.warmup.snapshot_file";
+    public static final String SNAPSHOT_KEYS = "com.example.cache.warmup.snapshot_keys";
+
+    private static final int BATCH = 500;
+
+    private static volatile WarmupReport lastReport;
+
+    private final boolean enabled;
+    private final int threads;
+    private final int auteurs;
+    private final int livres;
+    private final Path snapshotFile;
+    private final int snapshotKeys;
+    private final HotKeyTracker tracker;
+
+    CacheWarmer(Map<String, Object> properties) {
+        this.enabled = Boolean.parseBoolean(String.valueOf(properties.getOrDefault(ENABLED, "false")).trim());
+        this.threads = intValue(properties, THREADS, 4);
+        this.auteurs = intValue(properties, AUTEURS, 100);
+        this.livres = intValue(properties, LIVRES, 1000);
+        Object file = properties.get(SNAPSHOT_FILE);
+        this.snapshotFile = file == null || file.toString().trim().isEmpty() ? null : Paths.get(file.toString().trim());
+        this.snapshotKeys = intValue(properties, SNAPSHOT_KEYS, 2000);
+        this.tracker = snapshotFile == null ? null : new HotKeyTracker(snapshotKeys * 4);
+    }
+
+    // Suivi des clés chaudes, seulement si un instantané doit être écrit
+    HotKeyTracker getTracker() {
+        return tracker;
+    }
+
+    // Dernier préchauffage effectué dans la JVM, null si aucun
+    public static WarmupReport lastReport() {
+        return lastReport;
+    }
+
+    @Override
+    public void sessionFactoryCreated(SessionFactory factory) {
+        if (enabled) {
+            WarmupReport report = warm(factory);
+            lastReport = report;
+            System.out.println(report);
+        }
+    }
+
+    @Override
+    public void sessionFactoryClosing(SessionFactory factory) {
+        if (tracker == null) {
+            return;
+        }
+        try {
+            CacheSnapshot.write(snapshotFile, tracker.hottest(snapshotKeys));
+        } catch (IOException e) {
+            // L'arrêt ne doit pas échouer pour un instantané : le prochain démarrage sera froid
+            System.err.println("Instantané du cache non enregistré (" + snapshotFile + ") : " + e);
+        }
+    }
+
+    WarmupReport warm(SessionFactory factory) {
+        long start = System.nanoTime();
+        Map<String, List<Long>> keys = snapshotFile != null && Files.isRegularFile(snapshotFile)
+                ? readSnapshot(factory)
+                : null;
+        String source = keys != null ? "instantané" : "heuristique";
+        if (keys == null) {
+            keys = hottestByHeuristic(factory);
+        }
+
+        Map<String, AtomicInteger> loaded = new TreeMap<>();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        AtomicInteger categories = new AtomicInteger();
+        loaded.put(Categorie.class.getName(), categories);
+        tasks.add(() -> {
+            categories.addAndGet(loadNamed(factory, QueryCatalog.CATEGORIE_FIND_ALL));
+            return null;
+        });
+        for (Map.Entry<String, List<Long>> entry : keys.entrySet()) {
+            if (entry.getKey().equals(Categorie.class.getName())) {
+                continue;
+            }
+            AtomicInteger counter = loaded.computeIfAbsent(entry.getKey(), name -> new AtomicInteger());
+            String query = "SELECT e FROM " + entry.getKey() + " e WHERE e.id IN :ids";
+            List<Long> ids = entry.getValue();
+            for (int i = 0; i < ids.size(); i += BATCH) {
+                List<Long> batch = ids.subList(i, Math.min(ids.size(), i + BATCH));
+                tasks.add(() -> {
+                    counter.addAndGet(load(factory, query, batch));
+                    return null;
+                });
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "cache-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Un cache froid reste correct : on signale et on démarre quand même
+            System.err.println("Préchauffage du cache incomplet : " + e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<String, Integer> counts = new TreeMap<>();
+        loaded.forEach((name, count) -> counts.put(name, count.get()));
+        return new WarmupReport(source, counts, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static int load(SessionFactory factory, String query, List<Long> ids) {
+        EntityManager em = factory.createEntityManager();
+        try {
+            return em.createQuery(query).setParameter("ids", ids).getResultList().size();
+        } finally {
+            em.close();
+        }
+    }
+
+    private static int loadNamed(SessionFactory factory, String name) {
+        EntityManager em = factory.createEntityManager();
+        try {
+            return em.createNamedQuery(name).getResultList().size();
+        } finally {
+            em.close();
+        }
+    }
+
+    // Entités inconnues ou non cachées ignorées : le modèle a pu changer depuis l'instantané
+    private Map<String, List<Long>> readSnapshot(SessionFactory factory) {
+        Map<String, List<Long>> keys;
+        try {
+            keys = CacheSnapshot.read(snapshotFile);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Instantané du cache illisible (" + snapshotFile + ") : " + e);
+            return null;
+        }
+        Map<String, List<Long>> cacheable = new TreeMap<>();
+        keys.forEach((entityName, ids) -> {
+            EntityPersister persister = persister(factory, entityName);
+            if (persister != null && persister.canWriteToCache()) {
+                cacheable.put(entityName, ids);
+            }
+        });
+        return cacheable;
+    }
+
+    private static EntityPersister persister(SessionFactory factory, String entityName) {
+        try {
+            return factory.unwrap(SessionFactoryImplementor.class)
+                    .getMetamodel().entityPersister(entityName);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private Map<String, List<Long>> hottestByHeuristic(SessionFactory factory) {
+        Map<String, List<Long>> keys = new TreeMap<>();
+        EntityManager em = factory.createEntityManager();
+        try {
+            List<Long> auteurIds = em.createQuery(
+                            "SELECT a.id FROM Auteur a ORDER BY SIZE(a.livres) DESC, a.id", Long.class)
+                    .setMaxResults(auteurs)
+                    .getResultList();
+            keys.put(Auteur.class.getName(), auteurIds);
+            if (!auteurIds.isEmpty()) {
+                keys.put(Livre.class.getName(), em.createQuery(
+                                "SELECT l.id FROM Livre l WHERE l.auteur.id IN :ids ORDER BY l.id", Long.class)
+                        .setParameter("ids", auteurIds)
+                        .setMaxResults(livres)
+                        .getResultList());
+            }
+        } catch (RuntimeException e) {
+            // Schéma absent ou vide (create-drop) : seules les catégories seront chargées
+            System.err.println("Heuristique de préchauffage indisponible : " + e);
+        } finally {
+            em.close();
+        }
+        return keys;
+    }
+
+    private static int intValue(Map<String, Object> properties, String name, int defaultValue) {
+        Object value = properties.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value.toString().trim());
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.cache;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Branche CacheWarmer sur le cycle de vie de la SessionFactory (préchauffage à la
+ * création, instantané à la fermeture) et, si un instantané est configuré, le suivi
+ * des clés chaudes sur POST_LOAD. Déclaré dans META-INF/services.
+ */
+public class CacheWarmupIntegrator implements Integrator {
+
+    @Override
+    public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                          SessionFactoryServiceRegistry serviceRegistry) {
+        if (!sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled()) {
+            return;
+        }
+        CacheWarmer warmer = new CacheWarmer(sessionFactory.getProperties());
+        sessionFactory.addObserver(warmer);
+        if (warmer.getTracker() != null) {
+            serviceRegistry.getService(EventListenerRegistry.class)
+                    .appendListeners(EventType.POST_LOAD, warmer.getTracker());
+        }
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+}
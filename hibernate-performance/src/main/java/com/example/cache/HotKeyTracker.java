@@ -0,0 +1,48 @@
+package com.example.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Repère les identifiants les plus chargés de chaque entité en cache (depuis la base
+ * ou le cache de second niveau). Un cache Caffeine de taille fixe par entité sert de
+ * compteur borné : son esquisse de fréquence W-TinyLFU garde les clés chaudes et
+ * hottest() les restitue de la plus à la moins fréquente.
+ */
+class HotKeyTracker implements PostLoadEventListener {
+
+    private final int capacity;
+    private final ConcurrentMap<String, Cache<Serializable, Boolean>> keys = new ConcurrentHashMap<>();
+
+    HotKeyTracker(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        if (!event.getPersister().canWriteToCache()) {
+            return;
+        }
+        keys.computeIfAbsent(event.getPersister().getEntityName(),
+                        name -> Caffeine.newBuilder().maximumSize(capacity).<Serializable, Boolean>build())
+                .get(event.getId(), id -> Boolean.TRUE);
+    }
+
+    // Au plus limit identifiants par entité, les plus fréquents en tête
+    Map<String, List<Serializable>> hottest(int limit) {
+        Map<String, List<Serializable>> hottest = new LinkedHashMap<>();
+        keys.forEach((entityName, cache) -> cache.policy().eviction().ifPresent(eviction ->
+                hottest.put(entityName, new ArrayList<>(eviction.hottest(limit).keySet()))));
+        return hottest;
+    }
+}
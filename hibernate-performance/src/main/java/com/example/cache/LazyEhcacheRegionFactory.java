@@ -0,0 +1,185 @@
+package com.example.cache;
+
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.ehcache.internal.EhcacheRegionFactory;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * EhcacheRegionFactory dont l'initialisation est différée : le CacheManager (lecture
+ * d'ehcache.xml, création des caches qui y sont déclarés) est créé à la première écriture
+ * dans une région, et chaque cache Ehcache à la première écriture dans sa région. Une
+ * lecture sur une région encore vide est un défaut de cache, sans rien créer.
+ * Utilisée par le démarrage rapide (com.example.boot.Bootstrapper) ; configuration identique
+ * à celle d'EhCacheRegionFactory.
+ */
+public class LazyEhcacheRegionFactory extends EhcacheRegionFactory {
+
+    private volatile SessionFactoryOptions settings;
+    @SuppressWarnings("rawtypes")
+    private volatile Map configValues;
+    private volatile boolean prepared;
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    protected void prepareForUse(SessionFactoryOptions settings, Map configValues) {
+        this.settings = settings;
+        this.configValues = configValues;
+    }
+
+    private void ensurePrepared() {
+        if (!prepared) {
+            synchronized (this) {
+                if (!prepared) {
+                    super.prepareForUse(settings, configValues);
+                    prepared = true;
+                }
+            }
+        }
+    }
+
+    // Démarrée dès start(), même si le CacheManager n'existe pas encore
+    @Override
+    protected boolean isStarted() {
+        return prepared ? super.isStarted() : settings != null;
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        if (prepared) {
+            super.releaseFromUse();
+        }
+    }
+
+    @Override
+    public long getTimeout() {
+        ensurePrepared();
+        return super.getTimeout();
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+                                                                    DomainDataRegionBuildingContext buildingContext) {
+        return new LazyStorageAccess(() -> {
+            ensurePrepared();
+            return super.createDomainDataStorageAccess(regionConfig, buildingContext);
+        });
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName,
+                                                                  SessionFactoryImplementor sessionFactory) {
+        return new LazyStorageAccess(() -> {
+            ensurePrepared();
+            return super.createQueryResultsRegionStorageAccess(regionName, sessionFactory);
+        });
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName,
+                                                                SessionFactoryImplementor sessionFactory) {
+        return new LazyStorageAccess(() -> {
+            ensurePrepared();
+            return super.createTimestampsRegionStorageAccess(regionName, sessionFactory);
+        });
+    }
+
+    // Stockage créé à la première écriture ; avant, lectures et évictions n'ont rien à faire
+    private static final class LazyStorageAccess implements DomainDataStorageAccess {
+
+        private final Supplier<StorageAccess> factory;
+        private volatile StorageAccess delegate;
+
+        LazyStorageAccess(Supplier<StorageAccess> factory) {
+            this.factory = factory;
+        }
+
+        private StorageAccess delegate() {
+            StorageAccess current = delegate;
+            if (current == null) {
+                synchronized (this) {
+                    current = delegate;
+                    if (current == null) {
+                        current = factory.get();
+                        delegate = current;
+                    }
+                }
+            }
+            return current;
+        }
+
+        @Override
+        public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+            StorageAccess current = delegate;
+            return current == null ? null : current.getFromCache(key, session);
+        }
+
+        @Override
+        public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+            delegate().putIntoCache(key, value, session);
+        }
+
+        @Override
+        public void putFromLoad(Object key, Object value, SharedSessionContractImplementor session) {
+            StorageAccess current = delegate();
+            if (current instanceof DomainDataStorageAccess) {
+                ((DomainDataStorageAccess) current).putFromLoad(key, value, session);
+            } else {
+                current.putIntoCache(key, value, session);
+            }
+        }
+
+        @Override
+        public void removeFromCache(Object key, SharedSessionContractImplementor session) {
+            StorageAccess current = delegate;
+            if (current != null) {
+                current.removeFromCache(key, session);
+            }
+        }
+
+        @Override
+        public void clearCache(SharedSessionContractImplementor session) {
+            StorageAccess current = delegate;
+            if (current != null) {
+                current.clearCache(session);
+            }
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            StorageAccess current = delegate;
+            return current != null && current.contains(key);
+        }
+
+        @Override
+        public void evictData() {
+            StorageAccess current = delegate;
+            if (current != null) {
+                current.evictData();
+            }
+        }
+
+        @Override
+        public void evictData(Object key) {
+            StorageAccess current = delegate;
+            if (current != null) {
+                current.evictData(key);
+            }
+        }
+
+        @Override
+        public void release() {
+            StorageAccess current = delegate;
+            if (current != null) {
+                current.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.cache;
+
+/**
+ * Compteurs d'une région de TinyLfuRegionFactory. Ils portent sur les accès bruts au
+ * stockage : putFromLoad lit avant d'écrire, il y a donc plus de miss que dans les
+ * statistiques Hibernate, qui ne comptent que les lectures applicatives.
+ */
+public final class RegionStatistics {
+
+    private final String regionName;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long evictedBytes;
+    private final long entries;
+    private final long bytes;
+    private final long maxBytes;
+
+    RegionStatistics(String regionName, long hits, long misses, long evictions, long evictedBytes,
+                     long entries, long bytes, long maxBytes) {
+        this.regionName = regionName;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.evictedBytes = evictedBytes;
+        this.entries = entries;
+        this.bytes = bytes;
+        this.maxBytes = maxBytes;
+    }
+
+    public String getRegionName() {
+        return regionName;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public double getHitRatio() {
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getEvictedBytes() {
+        return evictedBytes;
+    }
+
+    public long getEntries() {
+        return entries;
+    }
+
+    // Octets estimés occupés par la région (0 si elle n'est pas bornée)
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: hits=%d miss=%d ratio=%.3f évictions=%d (%d o) entrées=%d octets=%d/%d",
+                regionName, hits, misses, getHitRatio(), evictions, evictedBytes, entries, bytes, maxBytes);
+    }
+}
@@ -0,0 +1,335 @@
+package com.example.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Cache applicatif de résultats de requêtes, une instance par SessionFactory (voir
+ * ResultCacheIntegrator). Une entrée est indexée par requête et paramètres et déclare
+ * les dépendances dont son résultat dépend (valeur d'un attribut, instance, classe) ;
+ * ResultCacheListener retire après chaque commit les seules entrées dont une insertion,
+ * une modification ou une suppression touche une dépendance, là où le cache de requêtes
+ * Hibernate invalide toutes les requêtes sur la table.
+ * <p>
+ * Un chargement qui croise une invalidation d'une de ses dépendances n'est pas mis en
+ * cache : il a pu lire l'état d'avant le commit. Borné en nombre d'entrées (Caffeine,
+ * W-TinyLFU). Les résultats sont partagés : y mettre des ids ou des valeurs immuables,
+ * pas des entités gérées. Les collections (Livre.categories) ne sont pas suivies.
+ */
+public final class ResultCache {
+
+    private static final ConcurrentMap<SessionFactoryImplementor, ResultCache> CACHES = new ConcurrentHashMap<>();
+
+    // Tranches de numéros d'invalidation : une collision fait seulement renoncer à une mise en cache
+    private static final int STRIPES = 1024;
+
+    private final long maxEntries;
+    private final Cache<Key, Entry> entries;
+    private final ConcurrentMap<Dependency, Set<Entry>> index = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>, Set<String>> attributes = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLongArray invalidatedAt = new AtomicLongArray(STRIPES);
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder rejectedPuts = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    ResultCache(long maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .recordStats()
+                // Dans le thread appelant : l'index est nettoyé avant que la clé puisse être reprise
+                .executor(Runnable::run)
+                .removalListener((Key key, Entry entry, RemovalCause cause) -> {
+                    if (entry != null) {
+                        unregister(entry);
+                    }
+                })
+                .build();
+    }
+
+    public static ResultCache of(EntityManagerFactory emf) {
+        ResultCache cache = find(emf);
+        if (cache == null) {
+            throw new IllegalStateException("Cache de résultats désactivé (" + ResultCacheIntegrator.ENABLED + ")");
+        }
+        return cache;
+    }
+
+    // null si le cache de résultats est désactivé
+    public static ResultCache find(EntityManagerFactory emf) {
+        return CACHES.get(emf.unwrap(SessionFactoryImplementor.class));
+    }
+
+    static void register(SessionFactoryImplementor sessionFactory, ResultCache cache) {
+        CACHES.put(sessionFactory, cache);
+    }
+
+    static void unregister(SessionFactoryImplementor sessionFactory) {
+        ResultCache cache = CACHES.remove(sessionFactory);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Résultat en cache, ou chargé par loader puis mis en cache avec ses dépendances.
+     * La liste renvoyée n'est pas modifiable.
+     */
+    public <T> List<T> get(Key key, Collection<Dependency> dependencies, Supplier<List<T>> loader) {
+        Entry cached = entries.getIfPresent(key);
+        if (cached != null) {
+            @SuppressWarnings("unchecked")
+            List<T> values = (List<T>) cached.values;
+            return values;
+        }
+        Dependency[] declared = dependencies.toArray(new Dependency[0]);
+        // Attributs suivis avant le chargement : un commit concurrent doit marquer leur valeur
+        for (Dependency dependency : declared) {
+            if (dependency.attribute != null) {
+                attributes.computeIfAbsent(dependency.entityClass, k -> ConcurrentHashMap.newKeySet())
+                        .add(dependency.attribute);
+            }
+        }
+        long start = sequence.get();
+        List<T> values = Collections.unmodifiableList(new ArrayList<>(loader.get()));
+        Entry entry = new Entry(key, values, declared);
+        if (invalidatedSince(entry, start)) {
+            rejectedPuts.increment();
+            return values;
+        }
+        // Inscription dans l'index avant la publication : une invalidation concurrente trouve l'entrée
+        for (Dependency dependency : entry.dependencies) {
+            index.compute(dependency, (d, set) -> {
+                Set<Entry> target = set != null ? set : new HashSet<>();
+                target.add(entry);
+                return target;
+            });
+        }
+        if (entries.asMap().putIfAbsent(key, entry) != null) {
+            unregister(entry);
+            return values;
+        }
+        puts.increment();
+        // Invalidation passée entre la vérification et la publication : l'entrée est retirée
+        if (invalidatedSince(entry, start) && entries.asMap().remove(key, entry)) {
+            puts.decrement();
+            rejectedPuts.increment();
+        }
+        return values;
+    }
+
+    // Retire les entrées qui dépendent de dependency
+    public void invalidate(Dependency dependency) {
+        stamp(stripe(dependency));
+        Set<Entry> removed = index.remove(dependency);
+        if (removed != null) {
+            for (Entry entry : removed) {
+                if (entries.asMap().remove(entry.key, entry)) {
+                    invalidations.increment();
+                }
+            }
+        }
+    }
+
+    public void invalidate(Collection<Dependency> dependencies) {
+        for (Dependency dependency : dependencies) {
+            invalidate(dependency);
+        }
+    }
+
+    // Retire toutes les entrées qui dépendent de la classe (état modifié inconnu, mise à jour ensembliste)
+    public void invalidateAll(Class<?> entityClass) {
+        for (int i = 0; i < STRIPES; i++) {
+            stamp(i);
+        }
+        for (Dependency dependency : new ArrayList<>(index.keySet())) {
+            if (dependency.entityClass == entityClass) {
+                invalidate(dependency);
+            }
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < STRIPES; i++) {
+            stamp(i);
+        }
+        entries.invalidateAll();
+        index.clear();
+    }
+
+    // Attributs de la classe utilisés par au moins une dépendance de valeur
+    Set<String> trackedAttributes(Class<?> entityClass) {
+        Set<String> tracked = attributes.get(entityClass);
+        return tracked != null ? tracked : Collections.<String>emptySet();
+    }
+
+    public long size() {
+        return entries.estimatedSize();
+    }
+
+    public ResultCacheStatistics statistics() {
+        CacheStats stats = entries.stats();
+        return new ResultCacheStatistics(stats.hitCount(), stats.missCount(), puts.sum(), rejectedPuts.sum(),
+                invalidations.sum(), stats.evictionCount(), entries.estimatedSize(), maxEntries);
+    }
+
+    private void stamp(int stripe) {
+        long value = sequence.incrementAndGet();
+        invalidatedAt.accumulateAndGet(stripe, value, Math::max);
+    }
+
+    private boolean invalidatedSince(Entry entry, long start) {
+        for (Dependency dependency : entry.dependencies) {
+            if (invalidatedAt.get(stripe(dependency)) > start) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int stripe(Dependency dependency) {
+        int h = dependency.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    private void unregister(Entry entry) {
+        for (Dependency dependency : entry.dependencies) {
+            index.computeIfPresent(dependency, (d, set) -> {
+                set.remove(entry);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    // Identité propre à chaque mise en cache : le nettoyage d'une entrée retirée ne touche pas sa remplaçante
+    private static final class Entry {
+        final Key key;
+        final List<?> values;
+        final Dependency[] dependencies;
+
+        Entry(Key key, List<?> values, Dependency[] dependencies) {
+            this.key = key;
+            this.values = values;
+            this.dependencies = dependencies;
+        }
+    }
+
+    /**
+     * Requête et valeurs de ses paramètres.
+     */
+    public static final class Key {
+
+        private final String query;
+        private final Object[] parameters;
+        private final int hash;
+
+        private Key(String query, Object[] parameters) {
+            this.query = Objects.requireNonNull(query);
+            this.parameters = parameters.clone();
+            this.hash = 31 * query.hashCode() + Arrays.hashCode(this.parameters);
+        }
+
+        public static Key of(String query, Object... parameters) {
+            return new Key(query, parameters);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hash == other.hash && query.equals(other.query) && Arrays.equals(parameters, other.parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return query + Arrays.toString(parameters);
+        }
+    }
+
+    /**
+     * Ce dont dépend un résultat : la valeur d'un attribut (une entité qui prend ou perd
+     * cette valeur change le résultat), une instance (toute modification ou suppression)
+     * ou toute la classe. Un attribut association se compare par id de l'entité associée.
+     */
+    public static final class Dependency {
+
+        private final Class<?> entityClass;
+        private final String attribute;
+        private final Object value;
+
+        private Dependency(Class<?> entityClass, String attribute, Object value) {
+            this.entityClass = Objects.requireNonNull(entityClass);
+            this.attribute = attribute;
+            this.value = value;
+        }
+
+        public static Dependency attribute(Class<?> entityClass, String attribute, Object value) {
+            return new Dependency(entityClass, Objects.requireNonNull(attribute), Objects.requireNonNull(value));
+        }
+
+        public static Dependency instance(Class<?> entityClass, Object id) {
+            return new Dependency(entityClass, null, Objects.requireNonNull(id));
+        }
+
+        public static Dependency anyOf(Class<?> entityClass) {
+            return new Dependency(entityClass, null, null);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Dependency)) {
+                return false;
+            }
+            Dependency other = (Dependency) o;
+            return entityClass == other.entityClass && Objects.equals(attribute, other.attribute)
+                    && Objects.equals(value, other.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * entityClass.hashCode() + Objects.hashCode(attribute)) + Objects.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            String name = entityClass.getSimpleName();
+            if (attribute != null) {
+                return name + "." + attribute + "=" + value;
+            }
+            return value != null ? name + "#" + value : name + ".*";
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.cache;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+import java.util.Map;
+
+/**
+ * Crée le cache de résultats de la SessionFactory et enregistre l'écouteur qui
+ * l'invalide après chaque commit. Désactivable par com.example.resultcache.enabled=false ;
+ * com.example.resultcache.max_entries borne le nombre d'entrées (10000).
+ * Déclaré dans META-INF/services.
+ */
+public class ResultCacheIntegrator implements Integrator {
+
+    public static final String ENABLED = "com.example.resultcache.enabled";
+    public static final String MAX_ENTRIES = "com.example.resultcache.max_entries";
+
+    @Override
+    public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                          SessionFactoryServiceRegistry serviceRegistry) {
+        Map<String, Object> properties = sessionFactory.getProperties();
+        Object enabled = properties.get(ENABLED);
+        if (enabled != null && !Boolean.parseBoolean(enabled.toString().trim())) {
+            return;
+        }
+        Object maxEntries = properties.get(MAX_ENTRIES);
+        ResultCache cache = new ResultCache(maxEntries == null ? 10000 : Long.parseLong(maxEntries.toString().trim()));
+        ResultCache.register(sessionFactory, cache);
+
+        ResultCacheListener listener = new ResultCacheListener(cache);
+        EventListenerRegistry registry = serviceRegistry.getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        ResultCache.unregister(sessionFactory);
+    }
+}
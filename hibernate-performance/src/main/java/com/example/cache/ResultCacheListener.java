@@ -0,0 +1,160 @@
+package com.example.cache;
+
+import org.hibernate.bytecode.enhance.spi.LazyPropertyInitializer;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.type.EntityType;
+import org.hibernate.type.Type;
+
+import java.util.Objects;
+
+/**
+ * Invalide le cache de résultats une fois la transaction validée : pour chaque attribut
+ * suivi de l'entité, l'ancienne et la nouvelle valeur (seulement si elle a changé pour
+ * une modification), puis l'instance et la classe. Un rollback après flush invalide de
+ * même les entrées touchées. Les mises
+ * à jour en masse ne passent pas par ces événements : elles déclarent leurs dépendances
+ * à ScopedInvalidation.
+ */
+class ResultCacheListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    // Valeur illisible (attribut paresseux non chargé) : toutes les entrées de la classe sont retirées
+    private static final Object UNKNOWN = new Object();
+
+    private final ResultCache cache;
+
+    ResultCacheListener(ResultCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        EntityPersister persister = event.getPersister();
+        Class<?> type = persister.getMappedClass();
+        for (String attribute : cache.trackedAttributes(type)) {
+            if (!invalidate(persister, attribute, event.getState(), event.getSession())) {
+                cache.invalidateAll(type);
+                return;
+            }
+        }
+        cache.invalidate(ResultCache.Dependency.anyOf(type));
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        EntityPersister persister = event.getPersister();
+        Class<?> type = persister.getMappedClass();
+        Object[] oldState = event.getOldState();
+        if (oldState == null) {
+            // Entité fusionnée sans état chargé : valeurs précédentes inconnues
+            cache.invalidateAll(type);
+            return;
+        }
+        for (String attribute : cache.trackedAttributes(type)) {
+            Integer index = persister.getEntityMetamodel().getPropertyIndexOrNull(attribute);
+            if (index == null) {
+                continue;
+            }
+            Object before = value(persister, index, oldState[index], event.getSession());
+            Object after = value(persister, index, event.getState()[index], event.getSession());
+            if (before == UNKNOWN || after == UNKNOWN) {
+                cache.invalidateAll(type);
+                return;
+            }
+            if (!Objects.equals(before, after)) {
+                invalidate(type, attribute, before);
+                invalidate(type, attribute, after);
+            }
+        }
+        cache.invalidate(ResultCache.Dependency.instance(type, event.getId()));
+        cache.invalidate(ResultCache.Dependency.anyOf(type));
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        EntityPersister persister = event.getPersister();
+        Class<?> type = persister.getMappedClass();
+        for (String attribute : cache.trackedAttributes(type)) {
+            if (!invalidate(persister, attribute, event.getDeletedState(), event.getSession())) {
+                cache.invalidateAll(type);
+                return;
+            }
+        }
+        cache.invalidate(ResultCache.Dependency.instance(type, event.getId()));
+        cache.invalidate(ResultCache.Dependency.anyOf(type));
+    }
+
+    // false si la valeur de l'attribut n'a pas pu être lue
+    private boolean invalidate(EntityPersister persister, String attribute, Object[] state,
+                               SharedSessionContractImplementor session) {
+        Integer index = persister.getEntityMetamodel().getPropertyIndexOrNull(attribute);
+        if (index == null) {
+            return true;
+        }
+        Object value = value(persister, index, state[index], session);
+        if (value == UNKNOWN) {
+            return false;
+        }
+        invalidate(persister.getMappedClass(), attribute, value);
+        return true;
+    }
+
+    private void invalidate(Class<?> type, String attribute, Object value) {
+        if (value != null) {
+            cache.invalidate(ResultCache.Dependency.attribute(type, attribute, value));
+        }
+    }
+
+    // Valeur comparable à celle d'une dépendance : id pour une association
+    private static Object value(EntityPersister persister, int index, Object value,
+                                SharedSessionContractImplementor session) {
+        if (value == LazyPropertyInitializer.UNFETCHED_PROPERTY) {
+            return UNKNOWN;
+        }
+        Type type = persister.getPropertyTypes()[index];
+        if (value == null || !type.isEntityType()) {
+            return value;
+        }
+        if (value instanceof HibernateProxy) {
+            return ((HibernateProxy) value).getHibernateLazyInitializer().getIdentifier();
+        }
+        String associated = ((EntityType) type).getAssociatedEntityName();
+        return session.getFactory().getMetamodel().entityPersister(associated).getIdentifier(value, session);
+    }
+
+    // Rollback après flush : une entrée chargée entre-temps a pu lire l'état non validé
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        onPostInsert(event);
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        onPostUpdate(event);
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        onPostDelete(event);
+    }
+
+    // Toutes les entités : un chargement en cours peut dépendre d'une classe encore jamais suivie
+    @Override
+    @SuppressWarnings("deprecation") // méthode abstraite de Hibernate 5, remplacée par requiresPostCommitHandling
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return true;
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return requiresPostCommitHanding(persister);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.cache;
+
+/**
+ * Compteurs du cache de résultats depuis le démarrage. Une mise en cache refusée est un
+ * chargement qui a croisé l'invalidation d'une de ses dépendances ; une invalidation est
+ * une entrée retirée par un changement d'entité, une éviction une entrée retirée par la borne.
+ */
+public final class ResultCacheStatistics {
+
+    private final long hits;
+    private final long misses;
+    private final long puts;
+    private final long rejectedPuts;
+    private final long invalidations;
+    private final long evictions;
+    private final long entries;
+    private final long maxEntries;
+
+    ResultCacheStatistics(long hits, long misses, long puts, long rejectedPuts, long invalidations,
+                          long evictions, long entries, long maxEntries) {
+        this.hits = hits;
+        this.misses = misses;
+        this.puts = puts;
+        this.rejectedPuts = rejectedPuts;
+        this.invalidations = invalidations;
+        this.evictions = evictions;
+        this.entries = entries;
+        this.maxEntries = maxEntries;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public double getHitRatio() {
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+
+    public long getPuts() {
+        return puts;
+    }
+
+    public long getRejectedPuts() {
+        return rejectedPuts;
+    }
+
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getEntries() {
+        return entries;
+    }
+
+    public long getMaxEntries() {
+        return maxEntries;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Cache de résultats: hits=%d miss=%d ratio=%.3f mises en cache=%d (refusées %d) "
+                        + "invalidations=%d évictions=%d entrées=%d/%d",
+                hits, misses, getHitRatio(), puts, rejectedPuts, invalidations, evictions, entries, maxEntries);
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.cache;
+
+import org.hibernate.Cache;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.engine.spi.SessionImplementor;
+
+import javax.persistence.EntityManager;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Invalidation ciblée pour une mise à jour SQL ensembliste : seules les entrées
+ * désignées (entités par id, collections par propriétaire) sont retirées du cache de
+ * second niveau, au lieu des régions entières que Hibernate vide pour un UPDATE natif.
+ * Les entrées sont retirées tout de suite puis de nouveau après la fin de la transaction
+ * (une lecture concurrente a pu remettre l'ancien état entre-temps) ; les tables sont
+ * invalidées dans le cache de requêtes aux mêmes moments, et les dépendances correspondantes
+ * dans le cache de résultats (ResultCache) s'il est actif.
+ * La requête native doit déclarer addSynchronizedQuerySpace(NO_SPACE) pour que Hibernate
+ * ne vide pas lui-même les régions.
+ */
+public final class ScopedInvalidation {
+
+    // Espace de requête qui ne correspond à aucune table : Hibernate n'invalide alors aucune région
+    public static final String NO_SPACE = "";
+
+    private final SessionImplementor session;
+    private final Map<Class<?>, Set<Serializable>> entities = new LinkedHashMap<>();
+    private final Map<String, Set<Serializable>> collections = new LinkedHashMap<>();
+    private final Set<String> tables = new LinkedHashSet<>();
+    private final Set<ResultCache.Dependency> results = new LinkedHashSet<>();
+
+    private ScopedInvalidation(SessionImplementor session) {
+        this.session = session;
+    }
+
+    public static ScopedInvalidation of(EntityManager em) {
+        return new ScopedInvalidation(em.unwrap(SessionImplementor.class));
+    }
+
+    public ScopedInvalidation entities(Class<?> entityClass, Collection<? extends Serializable> ids) {
+        entities.computeIfAbsent(entityClass, k -> new LinkedHashSet<>()).addAll(ids);
+        return this;
+    }
+
+    // role : nom complet de la collection, par exemple "com.example.model.Livre.categories"
+    public ScopedInvalidation collections(String role, Collection<? extends Serializable> ownerIds) {
+        collections.computeIfAbsent(role, k -> new LinkedHashSet<>()).addAll(ownerIds);
+        return this;
+    }
+
+    // Valeurs d'un attribut touchées par la mise à jour (anciennes et nouvelles), pour le cache de résultats
+    public ScopedInvalidation attribute(Class<?> entityClass, String attribute, Collection<?> values) {
+        for (Object value : values) {
+            results.add(ResultCache.Dependency.attribute(entityClass, attribute, value));
+        }
+        return this;
+    }
+
+    public ScopedInvalidation tables(String... names) {
+        for (String name : names) {
+            tables.add(name);
+        }
+        return this;
+    }
+
+    public int getEntityCount() {
+        int count = 0;
+        for (Set<Serializable> ids : entities.values()) {
+            count += ids.size();
+        }
+        return count;
+    }
+
+    public int getCollectionCount() {
+        int count = 0;
+        for (Set<Serializable> owners : collections.values()) {
+            count += owners.size();
+        }
+        return count;
+    }
+
+    /**
+     * Retire les entrées maintenant et programme le second passage à la fin de la transaction.
+     * À appeler dans la transaction de la mise à jour, juste après son exécution.
+     */
+    public void apply() {
+        String[] spaces = tables.toArray(new String[0]);
+        TimestampsCache timestamps = session.getFactory().getCache().getTimestampsCache();
+        if (timestamps != null && spaces.length > 0) {
+            timestamps.preInvalidate(spaces, session);
+        }
+        // Copie figée : l'instance peut encore être complétée par l'appelant
+        Runnable eviction = snapshotEviction();
+        eviction.run();
+        session.getActionQueue().registerProcess((success, s) -> {
+            eviction.run();
+            if (timestamps != null && spaces.length > 0) {
+                timestamps.invalidate(spaces, s);
+            }
+        });
+    }
+
+    private Runnable snapshotEviction() {
+        Map<Class<?>, List<Serializable>> entitiesCopy = new LinkedHashMap<>();
+        entities.forEach((type, ids) -> entitiesCopy.put(type, new ArrayList<>(ids)));
+        Map<String, List<Serializable>> collectionsCopy = new LinkedHashMap<>();
+        collections.forEach((role, owners) -> collectionsCopy.put(role, new ArrayList<>(owners)));
+        Cache cache = session.getFactory().getCache();
+        ResultCache resultCache = ResultCache.find(session.getFactory());
+        List<ResultCache.Dependency> resultsCopy = new ArrayList<>(results);
+        entities.forEach((type, ids) -> {
+            for (Serializable id : ids) {
+                resultsCopy.add(ResultCache.Dependency.instance(type, id));
+            }
+            resultsCopy.add(ResultCache.Dependency.anyOf(type));
+        });
+        return () -> {
+            evict(cache, entitiesCopy, collectionsCopy);
+            if (resultCache != null) {
+                resultCache.invalidate(resultsCopy);
+            }
+        };
+    }
+
+    private static void evict(Cache cache, Map<Class<?>, ? extends Collection<Serializable>> entities,
+                              Map<String, ? extends Collection<Serializable>> collections) {
+        entities.forEach((type, ids) -> {
+            for (Serializable id : ids) {
+                cache.evictEntityData(type, id);
+            }
+        });
+        collections.forEach((role, owners) -> {
+            for (Serializable owner : owners) {
+                cache.evictCollectionData(role, owner);
+            }
+        });
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.cache;
+
+import org.hibernate.cache.spi.entry.CacheEntry;
+import org.hibernate.cache.spi.entry.CollectionCacheEntry;
+import org.hibernate.cache.spi.support.AbstractReadWriteAccess;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Estimation grossière de l'empreinte mémoire d'une entrée de cache (JVM 64 bits,
+ * références compressées). Seuls les types que Hibernate place dans le cache sont
+ * parcourus : entrées d'entité et de collection, valeurs désassemblées, listes de résultats.
+ */
+final class SizeEstimator {
+
+    private static final int OBJECT_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int UNKNOWN = 64;
+    private static final int MAX_DEPTH = 4;
+
+    private SizeEstimator() {
+    }
+
+    static long estimate(Object key, Object value) {
+        return estimate(key, 0) + estimate(value, 0);
+    }
+
+    static long estimate(Object value, int depth) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String) {
+            return 40 + 2L * ((String) value).length();
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            return 24;
+        }
+        if (value instanceof java.util.Date) {
+            return 32;
+        }
+        if (depth >= MAX_DEPTH) {
+            return UNKNOWN;
+        }
+        if (value instanceof AbstractReadWriteAccess.Item) {
+            return 40 + estimate(((AbstractReadWriteAccess.Item) value).getValue(), depth + 1);
+        }
+        if (value instanceof CacheEntry) {
+            return 32 + estimateArray(((CacheEntry) value).getDisassembledState(), depth + 1);
+        }
+        if (value instanceof CollectionCacheEntry) {
+            return 24 + estimateArray(((CollectionCacheEntry) value).getState(), depth + 1);
+        }
+        if (value instanceof Object[]) {
+            return estimateArray((Object[]) value, depth + 1);
+        }
+        if (value instanceof Collection) {
+            long size = 48;
+            for (Object element : (Collection<?>) value) {
+                size += REFERENCE + 16 + estimate(element, depth + 1);
+            }
+            return size;
+        }
+        if (value instanceof Map) {
+            long size = 64;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                size += 32 + estimate(entry.getKey(), depth + 1) + estimate(entry.getValue(), depth + 1);
+            }
+            return size;
+        }
+        return UNKNOWN;
+    }
+
+    private static long estimateArray(Object[] array, int depth) {
+        if (array == null) {
+            return 0;
+        }
+        long size = OBJECT_HEADER + (long) REFERENCE * array.length;
+        for (Object element : array) {
+            size += estimate(element, depth);
+        }
+        return size;
+    }
+}
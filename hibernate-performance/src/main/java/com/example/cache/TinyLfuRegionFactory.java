@@ -0,0 +1,101 @@
+package com.example.cache;
+
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache de second niveau dont les régions sont bornées en octets estimés
+ * (et non en nombre d'éléments) et gérées par W-TinyLFU.
+ * Activation : hibernate.cache.region.factory_class = com.example.cache.TinyLfuRegionFactory
+ * <ul>
+ *     <li>com.example.cache.default_max_bytes : taille par défaut d'une région (32 Mo)</li>
+ *     <li>com.example.cache.max_bytes.&lt;région&gt; : taille d'une région donnée</li>
+ *     <li>com.example.cache.expire_after_write_seconds : durée de vie des entrées (600 s, 0 = aucune)</li>
+ * </ul>
+ */
+public class TinyLfuRegionFactory extends RegionFactoryTemplate {
+
+    public static final String DEFAULT_MAX_BYTES = "com.example.cache.default_max_bytes";
+    public static final String MAX_BYTES_PREFIX = "com.example.cache.max_bytes.";
+    public static final String EXPIRE_AFTER_WRITE = "com.example.cache.expire_after_write_seconds";
+
+    private final ConcurrentMap<String, TinyLfuStorageAccess> regions = new ConcurrentHashMap<>();
+    private Map<?, ?> configValues = Collections.emptyMap();
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    protected void prepareForUse(SessionFactoryOptions settings, Map configValues) {
+        this.configValues = configValues;
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        regions.values().forEach(TinyLfuStorageAccess::release);
+        regions.clear();
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+                                                                    DomainDataRegionBuildingContext buildingContext) {
+        return register(regionConfig.getRegionName(), maxBytes(regionConfig.getRegionName()));
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName,
+                                                                  SessionFactoryImplementor sessionFactory) {
+        return register(regionName, maxBytes(regionName));
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName,
+                                                                SessionFactoryImplementor sessionFactory) {
+        // Une entrée par table : ni borne ni expiration, une perte fausserait l'invalidation des requêtes
+        TinyLfuStorageAccess storage = new TinyLfuStorageAccess(regionName, 0, 0);
+        regions.put(regionName, storage);
+        return storage;
+    }
+
+    private TinyLfuStorageAccess register(String regionName, long maxBytes) {
+        TinyLfuStorageAccess storage = new TinyLfuStorageAccess(regionName, maxBytes,
+                longValue(EXPIRE_AFTER_WRITE, 600));
+        regions.put(regionName, storage);
+        return storage;
+    }
+
+    private long maxBytes(String regionName) {
+        Object value = configValues.get(MAX_BYTES_PREFIX + regionName);
+        return value != null ? Long.parseLong(value.toString().trim()) : longValue(DEFAULT_MAX_BYTES, 32L << 20);
+    }
+
+    private long longValue(String name, long defaultValue) {
+        Object value = configValues.get(name);
+        return value == null ? defaultValue : Long.parseLong(value.toString().trim());
+    }
+
+    public Map<String, RegionStatistics> getRegionStatistics() {
+        Map<String, RegionStatistics> stats = new TreeMap<>();
+        regions.forEach((name, storage) -> stats.put(name, storage.statistics()));
+        return stats;
+    }
+
+    // Statistiques des régions, vide si l'EntityManagerFactory utilise une autre fabrique
+    public static Map<String, RegionStatistics> regionStatistics(EntityManagerFactory emf) {
+        RegionFactory regionFactory = emf.unwrap(SessionFactoryImplementor.class).getCache().getRegionFactory();
+        return regionFactory instanceof TinyLfuRegionFactory
+                ? ((TinyLfuRegionFactory) regionFactory).getRegionStatistics()
+                : Collections.<String, RegionStatistics>emptyMap();
+    }
+}
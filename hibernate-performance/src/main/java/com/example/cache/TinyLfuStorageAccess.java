@@ -0,0 +1,85 @@
+package com.example.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stockage d'une région : cache Caffeine borné en octets estimés, avec la
+ * politique d'admission/éviction W-TinyLFU (résistante aux parcours ponctuels).
+ * Sans borne (maxBytes &lt;= 0) pour la région des timestamps, qui ne doit rien perdre.
+ */
+class TinyLfuStorageAccess implements DomainDataStorageAccess {
+
+    private final String regionName;
+    private final long maxBytes;
+    private final Cache<Object, Object> cache;
+
+    TinyLfuStorageAccess(String regionName, long maxBytes, long expireAfterWriteSeconds) {
+        this.regionName = regionName;
+        this.maxBytes = maxBytes;
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+        if (maxBytes > 0) {
+            builder.maximumWeight(maxBytes)
+                    .weigher((key, value) -> (int) Math.min(Integer.MAX_VALUE, SizeEstimator.estimate(key, value)));
+        }
+        if (expireAfterWriteSeconds > 0) {
+            builder.expireAfterWrite(expireAfterWriteSeconds, TimeUnit.SECONDS);
+        }
+        this.cache = builder.build();
+    }
+
+    @Override
+    public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+        return cache.getIfPresent(key);
+    }
+
+    @Override
+    public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+        cache.put(key, value);
+    }
+
+    @Override
+    public void removeFromCache(Object key, SharedSessionContractImplementor session) {
+        cache.invalidate(key);
+    }
+
+    @Override
+    public void clearCache(SharedSessionContractImplementor session) {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public boolean contains(Object key) {
+        return cache.asMap().containsKey(key);
+    }
+
+    @Override
+    public void evictData() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void evictData(Object key) {
+        cache.invalidate(key);
+    }
+
+    @Override
+    public void release() {
+        cache.invalidateAll();
+        cache.cleanUp();
+    }
+
+    RegionStatistics statistics() {
+        CacheStats stats = cache.stats();
+        long bytes = cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+        return new RegionStatistics(regionName, stats.hitCount(), stats.missCount(), stats.evictionCount(),
+                stats.evictionWeight(), cache.estimatedSize(), bytes, maxBytes);
+    }
+}
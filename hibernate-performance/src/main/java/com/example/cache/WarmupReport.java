@@ -0,0 +1,46 @@
+package com.example.cache;
+
+import java.util.Map;
+
+/**
+ * Résultat d'un préchauffage : origine des clés, entités chargées par type et durée.
+ */
+public class WarmupReport {
+
+    private final String source;
+    private final Map<String, Integer> loaded;
+    private final long durationMillis;
+
+    WarmupReport(String source, Map<String, Integer> loaded, long durationMillis) {
+        this.source = source;
+        this.loaded = loaded;
+        this.durationMillis = durationMillis;
+    }
+
+    // "instantané" si les clés viennent du fichier, "heuristique" sinon
+    public String getSource() {
+        return source;
+    }
+
+    public Map<String, Integer> getLoaded() {
+        return loaded;
+    }
+
+    public int getTotalLoaded() {
+        int total = 0;
+        for (int count : loaded.values()) {
+            total += count;
+        }
+        return total;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Préchauffage du cache (%s) : %d entités en %d ms %s",
+                source, getTotalLoaded(), durationMillis, loaded);
+    }
+}
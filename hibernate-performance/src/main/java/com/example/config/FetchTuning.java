@@ -0,0 +1,49 @@
+package com.example.config;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Mode de chargement des associations Auteur.livres et Livre.categories,
+ * choisi à la construction de l'EntityManagerFactory (une factory par cas d'usage) :
+ * <ul>
+ *     <li>SELECT : une requête par collection initialisée (comportement par défaut, N+1)</li>
+ *     <li>BATCH : les collections non initialisées du contexte sont chargées par lots (équivalent @BatchSize)</li>
+ *     <li>SUBSELECT : la première initialisation charge la collection de tous les propriétaires
+ *     issus de la même requête, via une sous-requête (équivalent @Fetch(FetchMode.SUBSELECT))</li>
+ * </ul>
+ */
+public final class FetchTuning {
+
+    public enum Mode {
+        SELECT, BATCH, SUBSELECT
+    }
+
+    public static final String MODE = "com.example.fetch.mode";
+    public static final String BATCH_SIZE = "com.example.fetch.batch_size";
+
+    public static final int DEFAULT_BATCH_SIZE = 25;
+
+    // Associations concernées, par rôle Hibernate
+    public static final List<String> ROLES = Collections.unmodifiableList(Arrays.asList(
+            "com.example.model.Auteur.livres",
+            "com.example.model.Livre.categories"));
+
+    private FetchTuning() {
+    }
+
+    @SuppressWarnings("rawtypes")
+    static Mode mode(Map properties) {
+        Object value = properties.get(MODE);
+        return value == null ? Mode.SELECT : Mode.valueOf(value.toString().trim().toUpperCase(Locale.ROOT));
+    }
+
+    @SuppressWarnings("rawtypes")
+    static int batchSize(Map properties) {
+        Object value = properties.get(BATCH_SIZE);
+        return value == null ? DEFAULT_BATCH_SIZE : Integer.parseInt(value.toString().trim());
+    }
+}
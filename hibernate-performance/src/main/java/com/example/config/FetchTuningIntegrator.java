@@ -0,0 +1,39 @@
+package com.example.config;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.mapping.Collection;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Applique FetchTuning au mapping des collections. Les intégrateurs passent
+ * avant la création des persisters, qui lisent alors la taille de lot et le
+ * mode subselect modifiés ici. Déclaré dans META-INF/services.
+ */
+public class FetchTuningIntegrator implements Integrator {
+
+    @Override
+    public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                          SessionFactoryServiceRegistry serviceRegistry) {
+        FetchTuning.Mode mode = FetchTuning.mode(sessionFactory.getProperties());
+        if (mode == FetchTuning.Mode.SELECT) {
+            return;
+        }
+        int batchSize = FetchTuning.batchSize(sessionFactory.getProperties());
+        for (String role : FetchTuning.ROLES) {
+            Collection collection = metadata.getCollectionBinding(role);
+            if (mode == FetchTuning.Mode.BATCH) {
+                collection.setBatchSize(batchSize);
+            } else {
+                // Comme @Fetch(FetchMode.SUBSELECT) : le propriétaire doit aussi mémoriser ses requêtes
+                collection.setSubselectLoadable(true);
+                collection.getOwner().setSubselectLoadableCollections(true);
+            }
+        }
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+}
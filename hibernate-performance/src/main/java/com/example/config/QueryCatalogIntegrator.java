@@ -0,0 +1,31 @@
+package com.example.config;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Enregistre QueryCatalogValidator, qui vérifie le catalogue QueryCatalog une fois
+ * la SessionFactory construite. Désactivable par com.example.querycatalog.validate=false
+ * (démarrage rapide : les requêtes sont alors compilées à leur première exécution).
+ * Déclaré dans META-INF/services.
+ */
+public class QueryCatalogIntegrator implements Integrator {
+
+    public static final String VALIDATE = "com.example.querycatalog.validate";
+
+    @Override
+    public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                          SessionFactoryServiceRegistry serviceRegistry) {
+        Object validate = sessionFactory.getProperties().get(VALIDATE);
+        if (validate != null && !Boolean.parseBoolean(validate.toString().trim())) {
+            return;
+        }
+        sessionFactory.addObserver(new QueryCatalogValidator());
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+}
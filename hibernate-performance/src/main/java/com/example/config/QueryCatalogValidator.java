@@ -0,0 +1,52 @@
+package com.example.config;
+
+import com.example.model.QueryCatalog;
+import org.hibernate.SessionFactory;
+import org.hibernate.SessionFactoryObserver;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Vérifie au démarrage que chaque requête et chaque entity graph de QueryCatalog
+ * existe et que le plan HQL de chaque requête est compilé (il l'est déjà si
+ * hibernate.query.startup_check est actif, sinon il entre ici dans le cache de plans).
+ * Une entrée invalide fait échouer la création de l'EntityManagerFactory.
+ */
+class QueryCatalogValidator implements SessionFactoryObserver {
+
+    @Override
+    public void sessionFactoryCreated(SessionFactory factory) {
+        SessionFactoryImplementor sessionFactory = factory.unwrap(SessionFactoryImplementor.class);
+        long start = System.nanoTime();
+        List<String> erreurs = new ArrayList<>();
+
+        // createNamedQuery échoue si la requête est absente et compile son plan HQL
+        EntityManager em = sessionFactory.createEntityManager();
+        try {
+            for (String name : QueryCatalog.NAMED_QUERIES) {
+                try {
+                    em.createNamedQuery(name);
+                } catch (RuntimeException e) {
+                    erreurs.add(name + " : " + e.getMessage());
+                }
+            }
+        } finally {
+            em.close();
+        }
+        for (String name : QueryCatalog.ENTITY_GRAPHS) {
+            if (sessionFactory.findEntityGraphByName(name) == null) {
+                erreurs.add("entity graph absent : " + name);
+            }
+        }
+
+        if (!erreurs.isEmpty()) {
+            throw new IllegalStateException("Catalogue de requêtes invalide : " + erreurs);
+        }
+        System.out.printf("Catalogue de requêtes : %d requêtes nommées et %d entity graphs validés en %d ms%n",
+                QueryCatalog.NAMED_QUERIES.size(), QueryCatalog.ENTITY_GRAPHS.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.dto;
+
+/**
+ * Projection en lecture seule : un auteur et son nombre de livres, compté en SQL.
+ */
+public final class AuteurLivresCount {
+
+    private final Long id;
+    private final String nom;
+    private final String prenom;
+    private final long nombreLivres;
+
+    // Utilisé par l'expression constructeur JPQL "SELECT NEW ..."
+    public AuteurLivresCount(Long id, String nom, String prenom, Long nombreLivres) {
+        this.id = id;
+        this.nom = nom;
+        this.prenom = prenom;
+        this.nombreLivres = nombreLivres == null ? 0 : nombreLivres;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getNom() {
+        return nom;
+    }
+
+    public String getPrenom() {
+        return prenom;
+    }
+
+    public long getNombreLivres() {
+        return nombreLivres;
+    }
+
+    @Override
+    public String toString() {
+        return "AuteurLivresCount{" +
+                "id=" + id +
+                ", nom='" + nom + '\'' +
+                ", prenom='" + prenom + '\'' +
+                ", nombreLivres=" + nombreLivres +
+                '}';
+    }
+}
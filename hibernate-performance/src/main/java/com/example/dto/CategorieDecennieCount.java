@@ -0,0 +1,46 @@
+package com.example.dto;
+
+/**
+ * Projection en lecture seule : nombre de livres d'une catégorie publiés dans une décennie.
+ */
+public final class CategorieDecennieCount {
+
+    private final Long categorieId;
+    private final String categorie;
+    private final int decennie;
+    private final long nombreLivres;
+
+    // Utilisé par l'expression constructeur JPQL "SELECT NEW ..."
+    public CategorieDecennieCount(Long categorieId, String categorie, Integer decennie, Long nombreLivres) {
+        this.categorieId = categorieId;
+        this.categorie = categorie;
+        this.decennie = decennie;
+        this.nombreLivres = nombreLivres == null ? 0 : nombreLivres;
+    }
+
+    public Long getCategorieId() {
+        return categorieId;
+    }
+
+    public String getCategorie() {
+        return categorie;
+    }
+
+    public int getDecennie() {
+        return decennie;
+    }
+
+    public long getNombreLivres() {
+        return nombreLivres;
+    }
+
+    @Override
+    public String toString() {
+        return "CategorieDecennieCount{" +
+                "categorieId=" + categorieId +
+                ", categorie='" + categorie + '\'' +
+                ", decennie=" + decennie +
+                ", nombreLivres=" + nombreLivres +
+                '}';
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.dto;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Projection en lecture seule : titre d'un livre et noms de ses catégories.
+ */
+public final class LivreCategories {
+
+    private final Long id;
+    private final String titre;
+    private final List<String> categories;
+
+    public LivreCategories(Long id, String titre, List<String> categories) {
+        this.id = id;
+        this.titre = titre;
+        this.categories = Collections.unmodifiableList(categories);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitre() {
+        return titre;
+    }
+
+    public List<String> getCategories() {
+        return categories;
+    }
+
+    @Override
+    public String toString() {
+        return "LivreCategories{" +
+                "id=" + id +
+                ", titre='" + titre + '\'' +
+                ", categories=" + categories +
+                '}';
+    }
+}
@@ -1,28 +1,58 @@
 package com.example.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
 import javax.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "auteurs")
+@Table(name = "auteurs", indexes = {
+        // Index de la pagination par clé (nom, id)
+        @Index(name = "idx_auteurs_nom_id", columnList = "nom, id")
+})
 @Cacheable // Marquer l'entité comme cacheable
+@NaturalIdCache // Résolution clé métier -> id en cache de second niveau
+@NamedQueries({
+        @NamedQuery(name = QueryCatalog.AUTEUR_FIND_ALL, query = "SELECT a FROM Auteur a"),
+        @NamedQuery(name = QueryCatalog.AUTEUR_FIND_ALL_WITH_LIVRES,
+                query = "SELECT DISTINCT a FROM Auteur a LEFT JOIN FETCH a.livres"),
+        @NamedQuery(name = QueryCatalog.AUTEUR_FIND_BY_NOM, query = "SELECT a FROM Auteur a WHERE a.nom = :nom")
+})
+@NamedEntityGraph(
+        name = QueryCatalog.GRAPH_AUTEUR_LIVRES_ET_CATEGORIES,
+        attributeNodes = @NamedAttributeNode(value = "livres", subgraph = "livres"),
+        subgraphs = @NamedSubgraph(name = "livres", attributeNodes = @NamedAttributeNode("categories"))
+)
 public class Auteur {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "auteur_gen")
+    @SequenceGenerator(name = "auteur_gen", sequenceName = "auteurs_seq", allocationSize = 50) // pooled : permet le batch JDBC
     private Long id;
 
+    // Verrouillage optimiste : chaque UPDATE vérifie puis incrémente la version lue
+    @Version
+    private Long version;
+
     @Column(nullable = false)
     private String nom;
 
     @Column(nullable = false)
     private String prenom;
 
+    // Clé métier modifiable : Hibernate met à jour la résolution en cache quand elle change
+    @NaturalId(mutable = true)
     @Column(unique = true)
     private String email;
 
+    // Ids des livres en cache de second niveau. Côté inverse : l'entrée est aussi retirée quand seul
+    // Livre.auteur change (hibernate.cache.auto_evict_collection_cache)
     @OneToMany(mappedBy = "auteur", cascade = CascadeType.ALL)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<Livre> livres = new ArrayList<>();
 
     // Constructeurs
@@ -55,6 +85,10 @@ public class Auteur {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public String getNom() {
         return nom;
     }
@@ -0,0 +1,71 @@
+package com.example.model;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+
+@Entity
+@Table(name = "categories")
+@Cacheable // Marquer l'entité comme cacheable
+// Donnée de référence : jamais modifiée par Hibernate, mise en cache en lecture seule.
+// Sans association, le cache conserve l'instance elle-même (hibernate.cache.use_reference_entries).
+// Changements : insertion, suppression ou SQL, suivis de CategorieRegistry.categoriesChanged().
+@Immutable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
+@NamedQueries({
+        @NamedQuery(name = QueryCatalog.CATEGORIE_FIND_ALL, query = "SELECT c FROM Categorie c"),
+        // Nombre de livres de l'auteur par catégorie : lignes [nom, nombre]
+        @NamedQuery(name = QueryCatalog.CATEGORIE_COUNT_LIVRES_BY_AUTEUR,
+                query = "SELECT c.nom, COUNT(l) FROM Livre l JOIN l.categories c "
+                        + "WHERE l.auteur.id = :auteurId GROUP BY c.nom ORDER BY c.nom")
+})
+public class Categorie {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "categorie_gen")
+    @SequenceGenerator(name = "categorie_gen", sequenceName = "categories_seq", allocationSize = 50) // pooled : permet le batch JDBC
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String nom;
+
+    @Column(length = 500)
+    private String description;
+
+    // Constructeurs
+    public Categorie() {
+    }
+
+    public Categorie(String nom) {
+        this.nom = nom;
+    }
+
+    public Categorie(String nom, String description) {
+        this.nom = nom;
+        this.description = description;
+    }
+
+    // Getters : pas de setters, les instances sont partagées entre sessions (cache par référence, registre)
+    public Long getId() {
+        return id;
+    }
+
+    public String getNom() {
+        return nom;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public String toString() {
+        return "Categorie{" +
+                "id=" + id +
+                ", nom='" + nom + '\'' +
+                ", description='" + description + '\'' +
+                '}';
+    }
+}
\ No newline at end of file
@@ -1,14 +1,28 @@
 package com.example.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
 import javax.persistence.*;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "livres")
+@Table(name = "livres", indexes = {
+        // Index de la pagination par clé (anneePublication, id)
+        @Index(name = "idx_livres_annee_id", columnList = "annee_publication, id")
+})
 @Cacheable // Marquer l'entité comme cacheable
+@NaturalIdCache // Résolution clé métier -> id en cache de second niveau
+@NamedQueries({
+        @NamedQuery(name = QueryCatalog.LIVRE_FIND_ALL, query = "SELECT l FROM Livre l"),
+        @NamedQuery(name = QueryCatalog.LIVRE_FIND_BY_AUTEUR,
+                query = "SELECT l FROM Livre l WHERE l.auteur.id = :auteurId ORDER BY l.id")
+})
 @NamedEntityGraph(
-        name = "graph.Livre.categoriesEtAuteur",
+        name = QueryCatalog.GRAPH_LIVRE_CATEGORIES_ET_AUTEUR,
         attributeNodes = {
                 @NamedAttributeNode("categories"),
                 @NamedAttributeNode("auteur")
@@ -17,18 +31,27 @@ import java.util.Set;
 public class Livre {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "livre_gen")
+    @SequenceGenerator(name = "livre_gen", sequenceName = "livres_seq", allocationSize = 50) // pooled : permet le batch JDBC
     private Long id;
 
+    // Verrouillage optimiste : chaque UPDATE vérifie puis incrémente la version lue
+    @Version
+    private Long version;
+
     @Column(nullable = false)
     private String titre;
 
     @Column(name = "annee_publication")
     private Integer anneePublication;
 
+    // Clé métier modifiable : Hibernate met à jour la résolution en cache quand elle change
+    @NaturalId(mutable = true)
     @Column(name = "isbn", unique = true)
     private String isbn;
 
+    // Chargé au premier accès (bytecode enrichi) : ni les listes ni la région de cache ne le transportent
+    @Basic(fetch = FetchType.LAZY)
     @Column(length = 2000)
     private String resume;
 
@@ -36,7 +59,11 @@ public class Livre {
     @JoinColumn(name = "auteur_id")
     private Auteur auteur;
 
-    @ManyToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+    // Pas de cascade : les catégories sont des données de référence persistées à part. Une requête
+    // peut renvoyer l'instance du cache par référence, non attachée, qu'un PERSIST refuserait.
+    // Ids des catégories en cache de second niveau, entrée verrouillée au flush et retirée au commit
+    @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JoinTable(
             name = "livre_categorie",
             joinColumns = @JoinColumn(name = "livre_id"),
@@ -61,12 +88,10 @@ public class Livre {
     // Méthodes utilitaires
     public void addCategorie(Categorie categorie) {
         categories.add(categorie);
-        categorie.getLivres().add(this);
     }
 
     public void removeCategorie(Categorie categorie) {
         categories.remove(categorie);
-        categorie.getLivres().remove(this);
     }
 
     // Getters et Setters
@@ -78,6 +103,10 @@ public class Livre {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public String getTitre() {
         return titre;
     }
@@ -0,0 +1,35 @@
+package com.example.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Noms des requêtes nommées (@NamedQuery sur les entités) et des entity graphs.
+ * Les requêtes sont compilées au démarrage de l'EntityManagerFactory : une requête
+ * invalide empêche le démarrage au lieu d'échouer au premier appel, et le plan est
+ * déjà dans le cache de plans quand l'application l'utilise.
+ */
+public final class QueryCatalog {
+
+    public static final String AUTEUR_FIND_ALL = "Auteur.findAll";
+    public static final String AUTEUR_FIND_ALL_WITH_LIVRES = "Auteur.findAllWithLivres";
+    public static final String AUTEUR_FIND_BY_NOM = "Auteur.findByNom";
+    public static final String LIVRE_FIND_ALL = "Livre.findAll";
+    public static final String LIVRE_FIND_BY_AUTEUR = "Livre.findByAuteur";
+    public static final String CATEGORIE_FIND_ALL = "Categorie.findAll";
+    public static final String CATEGORIE_COUNT_LIVRES_BY_AUTEUR = "Categorie.countLivresByAuteur";
+
+    public static final String GRAPH_LIVRE_CATEGORIES_ET_AUTEUR = "graph.Livre.categoriesEtAuteur";
+    public static final String GRAPH_AUTEUR_LIVRES_ET_CATEGORIES = "graph.Auteur.livresEtCategories";
+
+    public static final List<String> NAMED_QUERIES = Collections.unmodifiableList(Arrays.asList(
+            AUTEUR_FIND_ALL, AUTEUR_FIND_ALL_WITH_LIVRES, AUTEUR_FIND_BY_NOM, LIVRE_FIND_ALL, LIVRE_FIND_BY_AUTEUR,
+            CATEGORIE_FIND_ALL, CATEGORIE_COUNT_LIVRES_BY_AUTEUR));
+
+    public static final List<String> ENTITY_GRAPHS = Collections.unmodifiableList(Arrays.asList(
+            GRAPH_LIVRE_CATEGORIES_ET_AUTEUR, GRAPH_AUTEUR_LIVRES_ET_CATEGORIES));
+
+    private QueryCatalog() {
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.monitoring;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Proxys JDBC qui chronomètrent chaque exécution et comptent les lignes
+ * (lignes lues à la fermeture du ResultSet, lignes modifiées au retour de l'update).
+ * Si une SqlTrace est fournie, chaque exécution lui est aussi transmise avec le nombre de
+ * paramètres liés depuis l'exécution précédente.
+ */
+final class JdbcTimingProxies {
+
+    // Permet au provider de retrouver la connexion d'origine à la restitution
+    interface TimedConnection {
+        Connection getTargetConnection();
+    }
+
+    private JdbcTimingProxies() {
+    }
+
+    // trace : null si la trace SQL n'est pas activée
+    static Connection wrap(Connection connection, QueryMetricsRegistry registry, SqlTrace trace) {
+        return (Connection) Proxy.newProxyInstance(JdbcTimingProxies.class.getClassLoader(),
+                new Class<?>[]{Connection.class, TimedConnection.class},
+                new ConnectionHandler(connection, registry, trace));
+    }
+
+    static Connection unwrap(Connection connection) {
+        return connection instanceof TimedConnection
+                ? ((TimedConnection) connection).getTargetConnection()
+                : connection;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+        private final QueryMetricsRegistry registry;
+        private final SqlTrace trace;
+
+        ConnectionHandler(Connection target, QueryMetricsRegistry registry, SqlTrace trace) {
+            this.target = target;
+            this.registry = registry;
+            this.trace = trace;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("getTargetConnection")) {
+                return target;
+            }
+            Object result = JdbcTimingProxies.invoke(target, method, args);
+            if (result instanceof Statement) {
+                String sql = (name.equals("prepareStatement") || name.equals("prepareCall"))
+                        ? (String) args[0] : null;
+                Class<?> type = result instanceof CallableStatement ? CallableStatement.class
+                        : result instanceof PreparedStatement ? PreparedStatement.class
+                        : Statement.class;
+                return Proxy.newProxyInstance(JdbcTimingProxies.class.getClassLoader(),
+                        new Class<?>[]{type}, new StatementHandler((Statement) result, sql, registry, trace));
+            }
+            return result;
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        private final QueryMetricsRegistry registry;
+        private final SqlTrace trace;
+        private final StringBuilder batchSql = new StringBuilder();
+        private int binds;
+
+        StatementHandler(Statement target, String preparedSql, QueryMetricsRegistry registry, SqlTrace trace) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+            this.registry = registry;
+            this.trace = trace;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("addBatch") && args != null && args.length == 1 && batchSql.length() == 0) {
+                batchSql.append((String) args[0]);
+            }
+            if (trace != null && name.startsWith("set") && args != null && args.length >= 2
+                    && args[0] instanceof Integer) {
+                binds++;
+            }
+            if (!name.startsWith("execute")) {
+                Object result = JdbcTimingProxies.invoke(target, method, args);
+                if (name.equals("getResultSet") && result != null) {
+                    return wrapResultSet((ResultSet) result, currentSql(args));
+                }
+                return result;
+            }
+
+            String sql = currentSql(args);
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = JdbcTimingProxies.invoke(target, method, args);
+            } catch (Throwable e) {
+                registry.recordError(sql);
+                throw e;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                registry.record(sql, elapsed);
+                if (trace != null) {
+                    trace.record(sql, binds, elapsed);
+                    binds = 0;
+                }
+            }
+
+            if (result instanceof ResultSet) {
+                return wrapResultSet((ResultSet) result, sql);
+            }
+            if (result instanceof Integer || result instanceof Long) {
+                registry.addRows(sql, ((Number) result).longValue());
+            } else if (result instanceof int[]) {
+                long total = 0;
+                for (int count : (int[]) result) {
+                    total += Math.max(0, count);
+                }
+                registry.addRows(sql, total);
+                batchSql.setLength(0);
+            }
+            return result;
+        }
+
+        private String currentSql(Object[] args) {
+            if (preparedSql != null) {
+                return preparedSql;
+            }
+            if (args != null && args.length > 0 && args[0] instanceof String) {
+                return (String) args[0];
+            }
+            return batchSql.length() > 0 ? batchSql.toString() : null;
+        }
+
+        private ResultSet wrapResultSet(ResultSet resultSet, String sql) {
+            return (ResultSet) Proxy.newProxyInstance(JdbcTimingProxies.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class}, new ResultSetHandler(resultSet, sql, registry));
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+        private final String sql;
+        private final QueryMetricsRegistry registry;
+        private long rows;
+        private boolean reported;
+
+        ResultSetHandler(ResultSet target, String sql, QueryMetricsRegistry registry) {
+            this.target = target;
+            this.sql = sql;
+            this.registry = registry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("close") && !reported) {
+                reported = true;
+                registry.addRows(sql, rows);
+            }
+            Object result = JdbcTimingProxies.invoke(target, method, args);
+            if (name.equals("next") && Boolean.TRUE.equals(result)) {
+                rows++;
+            }
+            return result;
+        }
+    }
+}
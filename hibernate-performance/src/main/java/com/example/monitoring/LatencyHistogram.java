@@ -0,0 +1,129 @@
+package com.example.monitoring;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogramme de latences en nanosecondes, sans verrou.
+ * Seaux log-linéaires : 16 sous-seaux par puissance de 2, soit une erreur
+ * relative inférieure à 6,25 % sur les percentiles.
+ */
+public final class LatencyHistogram {
+
+    static final int SUB_BUCKETS = 16;
+    static final int BUCKETS = (64 - 4) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(index(value));
+        sum.add(value);
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        return new Snapshot(copy, count, sum.sum(), max.get());
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) ((value >>> (msb - 4)) & (SUB_BUCKETS - 1));
+        return (msb - 3) * SUB_BUCKETS + sub;
+    }
+
+    // Borne haute (incluse) des valeurs rangées dans le seau
+    static long upperBound(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int msb = index / SUB_BUCKETS + 3;
+        int sub = index % SUB_BUCKETS;
+        long lower = (long) (SUB_BUCKETS + sub) << (msb - 4);
+        return lower + (1L << (msb - 4)) - 1;
+    }
+
+    /**
+     * Copie figée d'un histogramme. Deux copies successives se soustraient
+     * pour isoler une période sans remettre l'histogramme à zéro ; le maximum de
+     * la période n'est alors pas connu (hasMax() faux).
+     */
+    public static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(new long[BUCKETS], 0, 0, 0);
+
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getSumNanos() {
+            return sum;
+        }
+
+        // Maximum depuis la création de l'histogramme ; -1 pour une différence de copies
+        public long getMaxNanos() {
+            return max;
+        }
+
+        public boolean hasMax() {
+            return max >= 0;
+        }
+
+        public double getMeanNanos() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        public long percentileNanos(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(quantile * count);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= Math.max(1, rank)) {
+                    return hasMax() ? Math.min(upperBound(i), max) : upperBound(i);
+                }
+            }
+            return Math.max(0, max);
+        }
+
+        public Snapshot minus(Snapshot earlier) {
+            long[] diff = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                diff[i] = counts[i] - earlier.counts[i];
+                total += diff[i];
+            }
+            // Le maximum cumulé ne dit rien de la période : il n'est pas reporté
+            return new Snapshot(diff, total, sum - earlier.sum, -1);
+        }
+    }
+}
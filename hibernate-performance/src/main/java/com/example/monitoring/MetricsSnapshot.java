@@ -0,0 +1,236 @@
+package com.example.monitoring;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Photographie des métriques de persistance : requêtes SQL (histogrammes),
+ * chargements par entité, hits/miss par région de cache et compteurs globaux.
+ * minus() isole une période sans appeler Statistics.clear(), ce qui laisse
+ * plusieurs mesures concurrentes lisibles.
+ */
+public final class MetricsSnapshot {
+
+    private final long timestampMillis;
+    private final Map<String, StatementSnapshot> statements;
+    private final Map<String, long[]> entities;
+    private final Map<String, long[]> regions;
+    private final Map<String, Long> counters;
+
+    // entities : {chargements, fetchs} ; regions : {hits, miss, puts}
+    MetricsSnapshot(long timestampMillis, Map<String, StatementSnapshot> statements,
+                    Map<String, long[]> entities, Map<String, long[]> regions, Map<String, Long> counters) {
+        this.timestampMillis = timestampMillis;
+        this.statements = Collections.unmodifiableMap(statements);
+        this.entities = Collections.unmodifiableMap(entities);
+        this.regions = Collections.unmodifiableMap(regions);
+        this.counters = Collections.unmodifiableMap(counters);
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public Map<String, StatementSnapshot> getStatements() {
+        return statements;
+    }
+
+    public long getEntityLoadCount(String entityName) {
+        long[] values = entities.get(entityName);
+        return values == null ? 0 : values[0];
+    }
+
+    public long getEntityFetchCount(String entityName) {
+        long[] values = entities.get(entityName);
+        return values == null ? 0 : values[1];
+    }
+
+    public long getRegionHitCount(String region) {
+        long[] values = regions.get(region);
+        return values == null ? 0 : values[0];
+    }
+
+    public long getRegionMissCount(String region) {
+        long[] values = regions.get(region);
+        return values == null ? 0 : values[1];
+    }
+
+    public Map<String, Long> getCounters() {
+        return counters;
+    }
+
+    public long getCounter(String name) {
+        Long value = counters.get(name);
+        return value == null ? 0 : value;
+    }
+
+    public long getStatementCount() {
+        long total = 0;
+        for (StatementSnapshot statement : statements.values()) {
+            total += statement.getCount();
+        }
+        return total;
+    }
+
+    public MetricsSnapshot minus(MetricsSnapshot earlier) {
+        Map<String, StatementSnapshot> diffStatements = new TreeMap<>();
+        statements.forEach((sql, s) -> {
+            StatementSnapshot diff = s.minus(earlier.statements.get(sql));
+            if (diff.getCount() > 0 || diff.getErrors() > 0) {
+                diffStatements.put(sql, diff);
+            }
+        });
+        Map<String, Long> diffCounters = new TreeMap<>();
+        counters.forEach((name, value) -> diffCounters.put(name, value - earlier.getCounter(name)));
+        return new MetricsSnapshot(timestampMillis, diffStatements,
+                minus(entities, earlier.entities), minus(regions, earlier.regions), diffCounters);
+    }
+
+    private static Map<String, long[]> minus(Map<String, long[]> current, Map<String, long[]> earlier) {
+        Map<String, long[]> diff = new TreeMap<>();
+        current.forEach((name, values) -> {
+            long[] before = earlier.get(name);
+            long[] result = values.clone();
+            if (before != null) {
+                for (int i = 0; i < result.length; i++) {
+                    result[i] -= before[i];
+                }
+            }
+            diff.put(name, result);
+        });
+        return diff;
+    }
+
+    public String toJson() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"timestamp\":").append(timestampMillis);
+        sb.append(",\"counters\":{");
+        appendEntries(sb, counters, (out, value) -> out.append(value));
+        sb.append("},\"statements\":[");
+        boolean first = true;
+        for (StatementSnapshot s : statements.values()) {
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            LatencyHistogram.Snapshot latency = s.getLatency();
+            sb.append("{\"sql\":").append(jsonString(s.getSql()))
+                    .append(",\"count\":").append(s.getCount())
+                    .append(",\"rows\":").append(s.getRows())
+                    .append(",\"errors\":").append(s.getErrors())
+                    .append(",\"meanMs\":").append(millis((long) latency.getMeanNanos()))
+                    .append(",\"p50Ms\":").append(millis(latency.percentileNanos(0.50)))
+                    .append(",\"p95Ms\":").append(millis(latency.percentileNanos(0.95)))
+                    .append(",\"p99Ms\":").append(millis(latency.percentileNanos(0.99)));
+            if (latency.hasMax()) {
+                sb.append(",\"maxMs\":").append(millis(latency.getMaxNanos()));
+            }
+            sb.append('}');
+        }
+        sb.append("],\"entities\":{");
+        appendEntries(sb, entities, (out, v) -> out.append("{\"loads\":").append(v[0])
+                .append(",\"fetches\":").append(v[1]).append('}'));
+        sb.append("},\"cacheRegions\":{");
+        appendEntries(sb, regions, (out, v) -> out.append("{\"hits\":").append(v[0])
+                .append(",\"misses\":").append(v[1]).append(",\"puts\":").append(v[2]).append('}'));
+        return sb.append("}}").toString();
+    }
+
+    // Format texte d'exposition Prometheus
+    public String toPrometheus() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# TYPE hibernate_statement_latency_seconds summary\n");
+        for (StatementSnapshot s : statements.values()) {
+            String label = "sql=\"" + promLabel(s.getSql()) + "\"";
+            LatencyHistogram.Snapshot latency = s.getLatency();
+            for (double q : new double[]{0.5, 0.95, 0.99}) {
+                sb.append("hibernate_statement_latency_seconds{").append(label)
+                        .append(",quantile=\"").append(q).append("\"} ")
+                        .append(seconds(latency.percentileNanos(q))).append('\n');
+            }
+            sb.append("hibernate_statement_latency_seconds_sum{").append(label).append("} ")
+                    .append(seconds(latency.getSumNanos())).append('\n');
+            sb.append("hibernate_statement_latency_seconds_count{").append(label).append("} ")
+                    .append(latency.getCount()).append('\n');
+            if (latency.hasMax()) {
+                sb.append("hibernate_statement_latency_max_seconds{").append(label).append("} ")
+                        .append(seconds(latency.getMaxNanos())).append('\n');
+            }
+            sb.append("hibernate_statement_rows_total{").append(label).append("} ")
+                    .append(s.getRows()).append('\n');
+            sb.append("hibernate_statement_errors_total{").append(label).append("} ")
+                    .append(s.getErrors()).append('\n');
+        }
+        entities.forEach((name, v) -> {
+            String label = "{entity=\"" + promLabel(name) + "\"} ";
+            sb.append("hibernate_entity_loads_total").append(label).append(v[0]).append('\n');
+            sb.append("hibernate_entity_fetches_total").append(label).append(v[1]).append('\n');
+        });
+        regions.forEach((name, v) -> {
+            String label = "{region=\"" + promLabel(name) + "\"} ";
+            sb.append("hibernate_cache_hits_total").append(label).append(v[0]).append('\n');
+            sb.append("hibernate_cache_misses_total").append(label).append(v[1]).append('\n');
+            sb.append("hibernate_cache_puts_total").append(label).append(v[2]).append('\n');
+        });
+        counters.forEach((name, value) ->
+                sb.append("hibernate_").append(name).append(' ').append(value).append('\n'));
+        return sb.toString();
+    }
+
+    public void writeJson(Path file) throws IOException {
+        Files.write(file, toJson().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public void writePrometheus(Path file) throws IOException {
+        Files.write(file, toPrometheus().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private interface ValueWriter<V> {
+        void write(StringBuilder out, V value);
+    }
+
+    private static <V> void appendEntries(StringBuilder sb, Map<String, V> map, ValueWriter<V> writer) {
+        boolean first = true;
+        for (Map.Entry<String, V> entry : map.entrySet()) {
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            sb.append(jsonString(entry.getKey())).append(':');
+            writer.write(sb, entry.getValue());
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+
+    private static String promLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    static String jsonString(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch == '"' || ch == '\\') {
+                sb.append('\\').append(ch);
+            } else if (ch < 0x20) {
+                sb.append(String.format("\\u%04x", (int) ch));
+            } else {
+                sb.append(ch);
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
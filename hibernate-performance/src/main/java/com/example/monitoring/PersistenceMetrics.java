@@ -0,0 +1,126 @@
+package com.example.monitoring;
+
+import com.example.cache.ResultCache;
+import com.example.cache.ResultCacheStatistics;
+import com.example.pool.PoolSnapshot;
+import com.example.pool.PooledConnectionProvider;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Point d'entrée des métriques : combine les histogrammes SQL de
+ * TimedConnectionProvider et les compteurs de Statistics (si generate_statistics).
+ */
+public final class PersistenceMetrics {
+
+    private PersistenceMetrics() {
+    }
+
+    // Registre SQL de l'EntityManagerFactory, null si TimedConnectionProvider n'est pas configuré
+    public static QueryMetricsRegistry registry(EntityManagerFactory emf) {
+        ConnectionProvider provider = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(ConnectionProvider.class);
+        return provider != null && provider.isUnwrappableAs(TimedConnectionProvider.class)
+                ? provider.unwrap(TimedConnectionProvider.class).getRegistry()
+                : null;
+    }
+
+    // État du pool de connexions, null si PooledConnectionProvider n'est pas configuré
+    public static PoolSnapshot pool(EntityManagerFactory emf) {
+        ConnectionProvider provider = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(ConnectionProvider.class);
+        return provider != null && provider.isUnwrappableAs(PooledConnectionProvider.class)
+                ? provider.unwrap(PooledConnectionProvider.class).getMetrics().snapshot()
+                : null;
+    }
+
+    public static MetricsSnapshot snapshot(EntityManagerFactory emf) {
+        QueryMetricsRegistry registry = registry(emf);
+        Map<String, StatementSnapshot> statements = registry != null
+                ? registry.snapshot() : new HashMap<String, StatementSnapshot>();
+
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        Map<String, long[]> entities = new TreeMap<>();
+        Map<String, long[]> regions = new TreeMap<>();
+        Map<String, Long> counters = new TreeMap<>();
+        if (stats.isStatisticsEnabled()) {
+            for (String name : stats.getEntityNames()) {
+                EntityStatistics entity = stats.getEntityStatistics(name);
+                entities.put(name, new long[]{entity.getLoadCount(), entity.getFetchCount()});
+            }
+            for (String name : stats.getSecondLevelCacheRegionNames()) {
+                CacheRegionStatistics region = regionStatistics(stats, name);
+                if (region != null) {
+                    regions.put(name, new long[]{region.getHitCount(), region.getMissCount(), region.getPutCount()});
+                }
+            }
+            counters.put("query_executions_total", stats.getQueryExecutionCount());
+            counters.put("prepared_statements_total", stats.getPrepareStatementCount());
+            counters.put("entity_loads_total", stats.getEntityLoadCount());
+            counters.put("entity_fetches_total", stats.getEntityFetchCount());
+            counters.put("collection_loads_total", stats.getCollectionLoadCount());
+            counters.put("second_level_cache_hits_total", stats.getSecondLevelCacheHitCount());
+            counters.put("second_level_cache_misses_total", stats.getSecondLevelCacheMissCount());
+            counters.put("second_level_cache_puts_total", stats.getSecondLevelCachePutCount());
+            counters.put("natural_id_cache_hits_total", stats.getNaturalIdCacheHitCount());
+            counters.put("natural_id_cache_misses_total", stats.getNaturalIdCacheMissCount());
+            counters.put("natural_id_cache_puts_total", stats.getNaturalIdCachePutCount());
+            counters.put("natural_id_queries_total", stats.getNaturalIdQueryExecutionCount());
+            counters.put("query_cache_hits_total", stats.getQueryCacheHitCount());
+            counters.put("query_cache_misses_total", stats.getQueryCacheMissCount());
+            // Cache de plans HQL : un miss est une analyse et une compilation de la requête
+            counters.put("query_plan_cache_hits_total", stats.getQueryPlanCacheHitCount());
+            counters.put("query_plan_cache_misses_total", stats.getQueryPlanCacheMissCount());
+            long compileMicros = 0;
+            long compiledQueries = 0;
+            for (String query : stats.getQueries()) {
+                QueryStatistics queryStats = stats.getQueryStatistics(query);
+                compileMicros += queryStats.getPlanCompilationTotalMicroseconds();
+                if (queryStats.getPlanCacheMissCount() > 0) {
+                    compiledQueries++;
+                }
+            }
+            counters.put("query_plan_compile_microseconds_total", compileMicros);
+            // Requêtes distinctes compilées : approche la taille du cache de plans tant qu'il n'évince pas
+            counters.put("query_plan_cache_queries", compiledQueries);
+        }
+        PoolSnapshot pool = pool(emf);
+        if (pool != null) {
+            // Compteurs cumulés seulement : l'occupation courante se lit dans pool(emf)
+            counters.put("pool_connections_created_total", pool.getCreated());
+            counters.put("pool_acquire_timeouts_total", pool.getTimeouts());
+            counters.put("pool_acquire_total", pool.getWait().getCount());
+            counters.put("pool_acquire_wait_microseconds_total", pool.getWait().getSumNanos() / 1000);
+        }
+        ResultCache resultCache = ResultCache.find(emf);
+        if (resultCache != null) {
+            ResultCacheStatistics results = resultCache.statistics();
+            counters.put("result_cache_hits_total", results.getHits());
+            counters.put("result_cache_misses_total", results.getMisses());
+            counters.put("result_cache_puts_total", results.getPuts());
+            counters.put("result_cache_rejected_puts_total", results.getRejectedPuts());
+            counters.put("result_cache_invalidations_total", results.getInvalidations());
+            counters.put("result_cache_evictions_total", results.getEvictions());
+        }
+        return new MetricsSnapshot(System.currentTimeMillis(), statements, entities, regions, counters);
+    }
+
+    // La région des timestamps n'a pas de statistiques : Hibernate lève une exception pour elle
+    private static CacheRegionStatistics regionStatistics(Statistics stats, String name) {
+        try {
+            return stats.getCacheRegionStatistics(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
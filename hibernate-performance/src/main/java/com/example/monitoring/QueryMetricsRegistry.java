@@ -0,0 +1,72 @@
+package com.example.monitoring;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+/**
+ * Registre des compteurs par requête SQL normalisée (paramètres et listes IN
+ * repliés), alimenté par TimedConnectionProvider.
+ */
+public class QueryMetricsRegistry {
+
+    // Au-delà, les requêtes sont regroupées pour borner la mémoire (SQL généré dynamiquement)
+    static final int MAX_STATEMENTS = 2000;
+    static final String OVERFLOW_KEY = "<autres requêtes>";
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+
+    private final ConcurrentMap<String, StatementMetrics> statements = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> normalized = new ConcurrentHashMap<>();
+
+    public void record(String sql, long nanos) {
+        metrics(sql).record(nanos);
+    }
+
+    public void addRows(String sql, long rows) {
+        metrics(sql).addRows(rows);
+    }
+
+    public void recordError(String sql) {
+        metrics(sql).recordError();
+    }
+
+    public Map<String, StatementSnapshot> snapshot() {
+        Map<String, StatementSnapshot> copy = new TreeMap<>();
+        statements.forEach((sql, metrics) -> copy.put(sql, metrics.snapshot(sql)));
+        return copy;
+    }
+
+    private StatementMetrics metrics(String sql) {
+        String key = normalized.get(sql);
+        if (key == null) {
+            key = normalize(sql);
+            if (normalized.size() < MAX_STATEMENTS) {
+                normalized.put(sql, key);
+            }
+        }
+        StatementMetrics metrics = statements.get(key);
+        if (metrics == null) {
+            if (statements.size() >= MAX_STATEMENTS) {
+                key = OVERFLOW_KEY;
+            }
+            metrics = statements.computeIfAbsent(key, k -> new StatementMetrics());
+        }
+        return metrics;
+    }
+
+    public static String normalize(String sql) {
+        if (sql == null) {
+            return "<sql inconnu>";
+        }
+        String result = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        result = STRING_LITERAL.matcher(result).replaceAll("?");
+        result = NUMBER_LITERAL.matcher(result).replaceAll("?");
+        return IN_LIST.matcher(result).replaceAll("(?, ...)");
+    }
+}
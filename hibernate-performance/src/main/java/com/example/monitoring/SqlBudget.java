@@ -0,0 +1,107 @@
+package com.example.monitoring;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Budget SQL d'une unité de travail (un EntityManager, de l'ouverture à la fermeture).
+ * Propriétés de l'unité de persistance :
+ * <ul>
+ *     <li>com.example.sqlbudget.mode : off, warn (journalise) ou fail (lève une exception, pour les tests)</li>
+ *     <li>com.example.sqlbudget.max_statements : nombre total d'instructions SQL autorisées</li>
+ *     <li>com.example.sqlbudget.max_repeats : exécutions autorisées d'une même requête à paramètres près (N+1)</li>
+ * </ul>
+ * Un budget par SessionFactory (voir SqlBudgetIntegrator) : deux EntityManagerFactory
+ * de la même JVM gardent chacune leur mode et leurs limites.
+ */
+public final class SqlBudget {
+
+    public enum Mode {
+        OFF, WARN, FAIL
+    }
+
+    public static final String MODE = "com.example.sqlbudget.mode";
+    public static final String MAX_STATEMENTS = "com.example.sqlbudget.max_statements";
+    public static final String MAX_REPEATS = "com.example.sqlbudget.max_repeats";
+
+    static final SqlBudget OFF = new SqlBudget(Mode.OFF, Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+    private static final ConcurrentMap<SessionFactoryImplementor, SqlBudget> BUDGETS = new ConcurrentHashMap<>();
+
+    private final Mode mode;
+    private final int maxStatements;
+    private final int maxRepeats;
+
+    public SqlBudget(Mode mode, int maxStatements, int maxRepeats) {
+        this.mode = mode;
+        this.maxStatements = maxStatements;
+        this.maxRepeats = maxRepeats;
+    }
+
+    // Budget de l'EntityManagerFactory ; mode off si SqlBudgetIntegrator ne l'a pas configurée
+    public static SqlBudget of(EntityManagerFactory emf) {
+        return of(emf.unwrap(SessionFactoryImplementor.class));
+    }
+
+    static SqlBudget of(SessionFactoryImplementor sessionFactory) {
+        SqlBudget budget = BUDGETS.get(sessionFactory);
+        return budget != null ? budget : OFF;
+    }
+
+    static void register(SessionFactoryImplementor sessionFactory, SqlBudget budget) {
+        BUDGETS.put(sessionFactory, budget);
+    }
+
+    static void unregister(SessionFactoryImplementor sessionFactory) {
+        BUDGETS.remove(sessionFactory);
+    }
+
+    // Au moins une SessionFactory surveille ses unités de travail
+    static boolean anyEnabled() {
+        for (SqlBudget budget : BUDGETS.values()) {
+            if (budget.mode != Mode.OFF) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings("rawtypes")
+    static SqlBudget fromProperties(Map properties) {
+        Object mode = properties.get(MODE);
+        return new SqlBudget(
+                mode == null ? Mode.OFF : Mode.valueOf(mode.toString().trim().toUpperCase(Locale.ROOT)),
+                intValue(properties.get(MAX_STATEMENTS), 50),
+                intValue(properties.get(MAX_REPEATS), 5));
+    }
+
+    private static int intValue(Object value, int defaultValue) {
+        return value == null ? defaultValue : Integer.parseInt(value.toString().trim());
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getMaxStatements() {
+        return maxStatements;
+    }
+
+    public int getMaxRepeats() {
+        return maxRepeats;
+    }
+
+    @Override
+    public String toString() {
+        return "SqlBudget{" +
+                "mode=" + mode +
+                ", maxStatements=" + maxStatements +
+                ", maxRepeats=" + maxRepeats +
+                '}';
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.monitoring;
+
+import javax.persistence.PersistenceException;
+
+/**
+ * Levée à la fermeture d'un EntityManager dont l'unité de travail dépasse
+ * son budget SQL, en mode fail.
+ */
+public class SqlBudgetExceededException extends PersistenceException {
+
+    private final transient UnitOfWorkReport report;
+
+    public SqlBudgetExceededException(UnitOfWorkReport report) {
+        super(report.toString());
+        this.report = report;
+    }
+
+    public UnitOfWorkReport getReport() {
+        return report;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Compte chaque instruction SQL préparée dans l'unité de travail du thread courant.
+ * Hibernate crée une instance par SessionFactory ; SqlBudgetIntegrator lui transmet
+ * le budget de cette SessionFactory, rattaché à l'unité de travail à la première instruction.
+ * Activation : hibernate.session_factory.statement_inspector = com.example.monitoring.SqlBudgetInspector
+ */
+public class SqlBudgetInspector implements StatementInspector {
+
+    private volatile SqlBudget budget = SqlBudget.OFF;
+
+    void bind(SqlBudget budget) {
+        this.budget = budget;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        SqlBudget current = budget;
+        if (current.getMode() == SqlBudget.Mode.OFF) {
+            return sql;
+        }
+        UnitOfWork unitOfWork = UnitOfWork.current();
+        if (unitOfWork != null) {
+            unitOfWork.budget(current);
+            unitOfWork.statement(sql);
+        }
+        return sql;
+    }
+}
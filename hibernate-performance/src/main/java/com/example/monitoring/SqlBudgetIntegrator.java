@@ -0,0 +1,73 @@
+package com.example.monitoring;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.bytecode.enhance.spi.interceptor.EnhancementAsProxyLazinessInterceptor;
+import org.hibernate.engine.spi.PersistentAttributeInterceptable;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.LoadEventListener;
+import org.hibernate.event.spi.PreLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Lit la configuration du budget SQL de la SessionFactory, la transmet à son
+ * SqlBudgetInspector et enregistre les écouteurs qui rattachent chaque
+ * initialisation paresseuse (collection ou proxy) à l'unité de travail courante.
+ * Déclaré dans META-INF/services.
+ */
+public class SqlBudgetIntegrator implements Integrator {
+
+    @Override
+    public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                          SessionFactoryServiceRegistry serviceRegistry) {
+        SqlBudget budget = SqlBudget.fromProperties(sessionFactory.getProperties());
+        SqlBudget.register(sessionFactory, budget);
+        StatementInspector inspector = sessionFactory.getSessionFactoryOptions().getStatementInspector();
+        if (inspector instanceof SqlBudgetInspector) {
+            ((SqlBudgetInspector) inspector).bind(budget);
+        }
+        if (budget.getMode() == SqlBudget.Mode.OFF) {
+            return;
+        }
+
+        EventListenerRegistry registry = serviceRegistry.getService(EventListenerRegistry.class);
+        registry.prependListeners(EventType.INIT_COLLECTION, (InitializeCollectionEventListener) event -> {
+            UnitOfWork unitOfWork = UnitOfWork.current();
+            if (unitOfWork != null && !event.getCollection().wasInitialized()) {
+                unitOfWork.budget(budget);
+                unitOfWork.lazyLoad(event.getCollection().getRole());
+            }
+        });
+        registry.prependListeners(EventType.LOAD, (LoadEventListener) (event, loadType) -> {
+            UnitOfWork unitOfWork = UnitOfWork.current();
+            if (unitOfWork != null && loadType == LoadEventListener.IMMEDIATE_LOAD) {
+                unitOfWork.budget(budget);
+                unitOfWork.lazyLoad("proxy " + event.getEntityClassName());
+            }
+        });
+        // Entité améliorée servant de proxy : son initialisation ne passe pas par LOAD, mais son état
+        // est chargé (base ou cache) alors qu'elle porte encore l'intercepteur de proxy
+        registry.prependListeners(EventType.PRE_LOAD, (PreLoadEventListener) event -> {
+            UnitOfWork unitOfWork = UnitOfWork.current();
+            if (unitOfWork != null && isEnhancedProxy(event.getEntity())) {
+                unitOfWork.budget(budget);
+                unitOfWork.lazyLoad("proxy " + event.getPersister().getEntityName());
+            }
+        });
+    }
+
+    private static boolean isEnhancedProxy(Object entity) {
+        return entity instanceof PersistentAttributeInterceptable
+                && ((PersistentAttributeInterceptable) entity).$$_hibernate_getInterceptor()
+                instanceof EnhancementAsProxyLazinessInterceptor;
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        SqlBudget.unregister(sessionFactory);
+    }
+}
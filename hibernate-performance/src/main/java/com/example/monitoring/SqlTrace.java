@@ -0,0 +1,293 @@
+package com.example.monitoring;
+
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Trace SQL structurée, à la place de hibernate.show_sql : chaque exécution chronométrée par
+ * TimedConnectionProvider peut être capturée (SQL, nombre de paramètres liés, durée, scénario
+ * en cours) dans un tampon circulaire borné, qu'un thread dédié écrit dans un fichier, une
+ * ligne JSON par instruction. Le thread applicatif ne formate ni n'écrit rien ; tampon plein,
+ * l'instruction est perdue (et comptée) plutôt que de le ralentir.
+ * <ul>
+ *     <li>com.example.trace.enabled : trace active (false)</li>
+ *     <li>com.example.trace.file : fichier, complété à chaque démarrage (target/sql-trace.jsonl)</li>
+ *     <li>com.example.trace.sample_rate : part des instructions tracées, de 0 à 1 (0.01)</li>
+ *     <li>com.example.trace.slow_threshold_ms : au-delà, l'instruction est toujours tracée (100)</li>
+ *     <li>com.example.trace.buffer_size : capacité du tampon, arrondie à une puissance de 2 (8192)</li>
+ * </ul>
+ */
+public final class SqlTrace implements AutoCloseable {
+
+    public static final String ENABLED = "com.example.trace.enabled";
+    public static final String FILE = "com.example.trace.file";
+    public static final String SAMPLE_RATE = "com.example.trace.sample_rate";
+    public static final String SLOW_THRESHOLD_MS = "com.example.trace.slow_threshold_ms";
+    public static final String BUFFER_SIZE = "com.example.trace.buffer_size";
+
+    private static final ThreadLocal<String> SCENARIO = new ThreadLocal<>();
+    private static final long DRAIN_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final int DRAIN_BATCH = 512;
+
+    private final Path file;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final SqlTraceRing ring;
+    private final Writer writer;
+    private final Thread drainer;
+    private volatile boolean running = true;
+
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private volatile long written;
+
+    SqlTrace(Path file, double sampleRate, long slowThresholdMillis, int bufferSize) {
+        this.file = file;
+        this.sampleRate = Math.max(0, Math.min(1, sampleRate));
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        this.ring = new SqlTraceRing(bufferSize);
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Fichier de trace SQL inaccessible : " + file, e);
+        }
+        this.drainer = new Thread(this::drainLoop, "sql-trace-writer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    // null si la trace n'est pas activée
+    @SuppressWarnings("rawtypes")
+    static SqlTrace fromProperties(Map properties) {
+        Object enabled = properties.get(ENABLED);
+        if (enabled == null || !Boolean.parseBoolean(enabled.toString().trim())) {
+            return null;
+        }
+        Object file = properties.get(FILE);
+        Object sampleRate = properties.get(SAMPLE_RATE);
+        Object slow = properties.get(SLOW_THRESHOLD_MS);
+        Object size = properties.get(BUFFER_SIZE);
+        return new SqlTrace(Paths.get(file == null ? "target/sql-trace.jsonl" : file.toString().trim()),
+                sampleRate == null ? 0.01 : Double.parseDouble(sampleRate.toString().trim()),
+                slow == null ? 100 : Long.parseLong(slow.toString().trim()),
+                size == null ? 8192 : Integer.parseInt(size.toString().trim()));
+    }
+
+    // Trace de l'EntityManagerFactory, null si elle n'est pas activée ou si TimedConnectionProvider
+    // n'est pas configuré
+    public static SqlTrace of(EntityManagerFactory emf) {
+        ConnectionProvider provider = emf.unwrap(SessionFactoryImplementor.class).getServiceRegistry()
+                .getService(ConnectionProvider.class);
+        return provider != null && provider.isUnwrappableAs(TimedConnectionProvider.class)
+                ? provider.unwrap(TimedConnectionProvider.class).getTrace()
+                : null;
+    }
+
+    // Scénario attribué aux instructions exécutées par ce thread jusqu'à la fermeture du Scope
+    public static Scope scenario(String name) {
+        String previous = SCENARIO.get();
+        SCENARIO.set(name);
+        return new Scope(previous);
+    }
+
+    // Sur le chemin de chaque exécution : tirage, puis au plus une allocation et un CAS
+    void record(String sql, int binds, long durationNanos) {
+        boolean slow = durationNanos >= slowThresholdNanos;
+        if (!slow && sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            sampledOut.increment();
+            return;
+        }
+        String scenario = SCENARIO.get();
+        SqlTraceEvent event = new SqlTraceEvent(System.currentTimeMillis(),
+                scenario != null ? scenario : Thread.currentThread().getName(), sql, binds, durationNanos, slow);
+        if (ring.offer(event)) {
+            recorded.increment();
+        } else {
+            dropped.increment();
+        }
+    }
+
+    private void drainLoop() {
+        List<SqlTraceEvent> batch = new ArrayList<>(DRAIN_BATCH);
+        StringBuilder line = new StringBuilder(256);
+        while (running) {
+            if (drain(batch, line) == 0) {
+                flush();
+                LockSupport.parkNanos(this, DRAIN_INTERVAL_NANOS);
+            }
+        }
+    }
+
+    private int drain(List<SqlTraceEvent> batch, StringBuilder line) {
+        int count = ring.drainTo(batch, DRAIN_BATCH);
+        try {
+            for (SqlTraceEvent event : batch) {
+                line.setLength(0);
+                format(event, line);
+                writer.append(line);
+            }
+        } catch (IOException e) {
+            // Disque plein ou fichier supprimé : la trace ne doit pas interrompre l'application
+            dropped.add(count);
+            count = 0;
+        }
+        batch.clear();
+        written += count;
+        return count;
+    }
+
+    private void flush() {
+        try {
+            writer.flush();
+        } catch (IOException ignored) {
+            // même raison que dans drain()
+        }
+    }
+
+    static void format(SqlTraceEvent event, StringBuilder line) {
+        line.append("{\"ts\":\"").append(Instant.ofEpochMilli(event.timestampMillis)).append('"');
+        line.append(",\"scenario\":");
+        appendString(line, event.scenario);
+        line.append(",\"durationUs\":").append(event.durationNanos / 1000);
+        line.append(",\"binds\":").append(event.binds);
+        line.append(",\"slow\":").append(event.slow);
+        line.append(",\"sql\":");
+        appendString(line, event.sql);
+        line.append("}\n");
+    }
+
+    private static void appendString(StringBuilder line, String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    line.append("\\\"");
+                    break;
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+            }
+        }
+        line.append('"');
+    }
+
+    // Arrête le thread d'écriture après avoir vidé le tampon ; appelé à l'arrêt du provider
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<SqlTraceEvent> batch = new ArrayList<>(DRAIN_BATCH);
+        StringBuilder line = new StringBuilder(256);
+        while (drain(batch, line) > 0) {
+            // jusqu'à ce que le tampon soit vide
+        }
+        try {
+            writer.close();
+        } catch (IOException ignored) {
+            // rien à faire de plus à l'arrêt
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public int getCapacity() {
+        return ring.capacity();
+    }
+
+    // Instructions placées dans le tampon
+    public long getRecorded() {
+        return recorded.sum();
+    }
+
+    // Instructions écartées par l'échantillonnage
+    public long getSampledOut() {
+        return sampledOut.sum();
+    }
+
+    // Instructions perdues : tampon plein ou écriture en échec
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getWritten() {
+        return written;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Trace SQL %s : %d instructions tracées, %d écrites, %d écartées par "
+                        + "l'échantillonnage (%.2f), %d perdues", file, getRecorded(), getWritten(),
+                getSampledOut(), sampleRate, getDropped());
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final String previous;
+
+        private Scope(String previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                SCENARIO.remove();
+            } else {
+                SCENARIO.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.monitoring;
+
+/**
+ * Instruction SQL tracée : capturée sur le thread applicatif, formatée par le thread d'écriture.
+ */
+final class SqlTraceEvent {
+
+    final long timestampMillis;
+    final String scenario;
+    final String sql;
+    final int binds;
+    final long durationNanos;
+    final boolean slow;
+
+    SqlTraceEvent(long timestampMillis, String scenario, String sql, int binds, long durationNanos, boolean slow) {
+        this.timestampMillis = timestampMillis;
+        this.scenario = scenario;
+        this.sql = sql;
+        this.binds = binds;
+        this.durationNanos = durationNanos;
+        this.slow = slow;
+    }
+}
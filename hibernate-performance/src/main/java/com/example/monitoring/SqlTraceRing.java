@@ -0,0 +1,63 @@
+package com.example.monitoring;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Tampon circulaire borné, plusieurs producteurs et un seul consommateur. Un producteur
+ * réserve une case par CAS sur la queue puis la publie ; tampon plein, l'événement est
+ * refusé plutôt que d'attendre. Le consommateur vide la case avant d'avancer la tête,
+ * ce qui la rend de nouveau réservable.
+ */
+final class SqlTraceRing {
+
+    private final AtomicReferenceArray<SqlTraceEvent> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // Écrite par le seul consommateur
+    private volatile long head;
+
+    SqlTraceRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    // false si le tampon est plein
+    boolean offer(SqlTraceEvent event) {
+        long slot;
+        do {
+            slot = tail.get();
+            if (slot - head > mask) {
+                return false;
+            }
+        } while (!tail.compareAndSet(slot, slot + 1));
+        slots.lazySet((int) slot & mask, event);
+        return true;
+    }
+
+    // Transfère les événements publiés, dans l'ordre des réservations ; s'arrête sur une case
+    // réservée mais pas encore publiée
+    int drainTo(List<SqlTraceEvent> target, int max) {
+        long position = head;
+        int count = 0;
+        while (count < max) {
+            int index = (int) position & mask;
+            SqlTraceEvent event = slots.get(index);
+            if (event == null) {
+                break;
+            }
+            slots.lazySet(index, null);
+            target.add(event);
+            position++;
+            count++;
+            head = position;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.monitoring;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteurs d'une requête SQL normalisée : latence, lignes et erreurs.
+ */
+final class StatementMetrics {
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    void record(long nanos) {
+        latency.record(nanos);
+    }
+
+    void addRows(long count) {
+        rows.add(count);
+    }
+
+    void recordError() {
+        errors.increment();
+    }
+
+    StatementSnapshot snapshot(String sql) {
+        return new StatementSnapshot(sql, latency.snapshot(), rows.sum(), errors.sum());
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.monitoring;
+
+/**
+ * Copie figée des compteurs d'une requête SQL normalisée.
+ */
+public final class StatementSnapshot {
+
+    private final String sql;
+    private final LatencyHistogram.Snapshot latency;
+    private final long rows;
+    private final long errors;
+
+    StatementSnapshot(String sql, LatencyHistogram.Snapshot latency, long rows, long errors) {
+        this.sql = sql;
+        this.latency = latency;
+        this.rows = rows;
+        this.errors = errors;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public LatencyHistogram.Snapshot getLatency() {
+        return latency;
+    }
+
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    StatementSnapshot minus(StatementSnapshot earlier) {
+        if (earlier == null) {
+            return this;
+        }
+        return new StatementSnapshot(sql, latency.minus(earlier.latency),
+                rows - earlier.rows, errors - earlier.errors);
+    }
+
+    @Override
+    public String toString() {
+        // Pas de maximum pour une période (différence de deux états)
+        String max = latency.hasMax() ? String.format(" max=%.3fms", latency.getMaxNanos() / 1e6) : "";
+        return String.format("%6d x  p50=%.3fms p95=%.3fms p99=%.3fms%s rows=%d  %s",
+                getCount(),
+                latency.percentileNanos(0.50) / 1e6,
+                latency.percentileNanos(0.95) / 1e6,
+                latency.percentileNanos(0.99) / 1e6,
+                max, rows, sql);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.monitoring;
+
+import org.hibernate.HibernateException;
+import org.hibernate.engine.jdbc.connections.internal.DriverManagerConnectionProviderImpl;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.service.UnknownUnwrapTypeException;
+import org.hibernate.service.spi.Configurable;
+import org.hibernate.service.spi.ServiceRegistryAwareService;
+import org.hibernate.service.spi.ServiceRegistryImplementor;
+import org.hibernate.service.spi.Stoppable;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * ConnectionProvider qui enveloppe un provider réel et chronomètre chaque
+ * requête JDBC dans un QueryMetricsRegistry.
+ * Activation : hibernate.connection.provider_class = com.example.monitoring.TimedConnectionProvider
+ * Provider réel : propriété DELEGATE (par défaut, le provider DriverManager de Hibernate).
+ * Trace SQL échantillonnée : voir SqlTrace.
+ */
+public class TimedConnectionProvider implements ConnectionProvider, Configurable, Stoppable,
+        ServiceRegistryAwareService {
+
+    public static final String DELEGATE = "com.example.monitoring.delegate_provider";
+
+    private final QueryMetricsRegistry registry = new QueryMetricsRegistry();
+    private ServiceRegistryImplementor serviceRegistry;
+    private ConnectionProvider delegate;
+    private SqlTrace trace;
+
+    public QueryMetricsRegistry getRegistry() {
+        return registry;
+    }
+
+    public ConnectionProvider getDelegate() {
+        return delegate;
+    }
+
+    // null si la trace SQL n'est pas activée
+    public SqlTrace getTrace() {
+        return trace;
+    }
+
+    @Override
+    public void injectServices(ServiceRegistryImplementor serviceRegistry) {
+        this.serviceRegistry = serviceRegistry;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void configure(Map configurationValues) {
+        Object delegateClass = configurationValues.get(DELEGATE);
+        try {
+            delegate = delegateClass == null
+                    ? new DriverManagerConnectionProviderImpl()
+                    : (ConnectionProvider) Class.forName(delegateClass.toString()).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new HibernateException("Provider de connexions invalide: " + delegateClass, e);
+        }
+        if (delegate instanceof ServiceRegistryAwareService) {
+            ((ServiceRegistryAwareService) delegate).injectServices(serviceRegistry);
+        }
+        if (delegate instanceof Configurable) {
+            ((Configurable) delegate).configure(configurationValues);
+        }
+        trace = SqlTrace.fromProperties(configurationValues);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return JdbcTimingProxies.wrap(delegate.getConnection(), registry, trace);
+    }
+
+    @Override
+    public void closeConnection(Connection connection) throws SQLException {
+        delegate.closeConnection(JdbcTimingProxies.unwrap(connection));
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return delegate.supportsAggressiveRelease();
+    }
+
+    @Override
+    public void stop() {
+        if (delegate instanceof Stoppable) {
+            ((Stoppable) delegate).stop();
+        }
+        if (trace != null) {
+            trace.close();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public boolean isUnwrappableAs(Class unwrapType) {
+        return unwrapType.isInstance(this) || delegate.isUnwrappableAs(unwrapType);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> unwrapType) {
+        if (unwrapType.isInstance(this)) {
+            return (T) this;
+        }
+        if (delegate.isUnwrappableAs(unwrapType)) {
+            return delegate.unwrap(unwrapType);
+        }
+        throw new UnknownUnwrapTypeException(unwrapType);
+    }
+}
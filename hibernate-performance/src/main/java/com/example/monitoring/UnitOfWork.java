@@ -0,0 +1,72 @@
+package com.example.monitoring;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compteurs SQL d'une unité de travail en cours. Un EntityManager étant confiné
+ * à un thread, les unités ouvertes sont empilées par thread (sessions imbriquées).
+ */
+final class UnitOfWork {
+
+    private static final ThreadLocal<Deque<UnitOfWork>> STACK = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final Map<String, Integer> statements = new LinkedHashMap<>();
+    private final Map<String, Integer> lazyLoads = new LinkedHashMap<>();
+    // Dernière association initialisée à la demande, attribuée aux requêtes suivantes
+    private String lastLazyPath;
+    private final Map<String, String> triggers = new LinkedHashMap<>();
+    private int total;
+    // Budget de la SessionFactory, connu à la première instruction ou initialisation paresseuse
+    private SqlBudget budget;
+
+    static UnitOfWork begin() {
+        UnitOfWork unitOfWork = new UnitOfWork();
+        STACK.get().push(unitOfWork);
+        return unitOfWork;
+    }
+
+    static UnitOfWork current() {
+        return STACK.get().peek();
+    }
+
+    void end() {
+        Deque<UnitOfWork> stack = STACK.get();
+        stack.remove(this);
+        if (stack.isEmpty()) {
+            STACK.remove();
+        }
+    }
+
+    void budget(SqlBudget budget) {
+        if (this.budget == null) {
+            this.budget = budget;
+        }
+    }
+
+    // null si la session n'a rien exécuté sous un budget actif
+    SqlBudget budget() {
+        return budget;
+    }
+
+    void statement(String sql) {
+        String key = QueryMetricsRegistry.normalize(sql);
+        statements.merge(key, 1, Integer::sum);
+        if (lastLazyPath != null) {
+            triggers.putIfAbsent(key, lastLazyPath);
+            lastLazyPath = null;
+        }
+        total++;
+    }
+
+    void lazyLoad(String path) {
+        lazyLoads.merge(path, 1, Integer::sum);
+        lastLazyPath = path;
+    }
+
+    UnitOfWorkReport report(SqlBudget budget) {
+        return new UnitOfWorkReport(total, statements, lazyLoads, triggers, budget);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.monitoring;
+
+import org.hibernate.BaseSessionEventListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Ouvre une unité de travail à la création de chaque session et la juge à sa
+ * fermeture, selon le budget de la SessionFactory de la session (transmis par
+ * SqlBudgetInspector et les écouteurs de SqlBudgetIntegrator). Activation : hibernate.session.events.auto = com.example.monitoring.UnitOfWorkListener
+ */
+public class UnitOfWorkListener extends BaseSessionEventListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UnitOfWorkListener.class);
+
+    private static final ThreadLocal<UnitOfWorkReport> LAST_REPORT = new ThreadLocal<>();
+
+    // Aucune SessionFactory sous budget : pas d'unité de travail à tenir
+    private final UnitOfWork unitOfWork = SqlBudget.anyEnabled() ? UnitOfWork.begin() : null;
+
+    // Bilan de la dernière unité de travail fermée sur ce thread
+    public static UnitOfWorkReport lastReport() {
+        return LAST_REPORT.get();
+    }
+
+    @Override
+    public void end() {
+        if (unitOfWork == null) {
+            return;
+        }
+        unitOfWork.end();
+        SqlBudget budget = unitOfWork.budget();
+        if (budget == null) {
+            // Session sans SQL ou d'une SessionFactory hors budget : rien à juger
+            LAST_REPORT.remove();
+            return;
+        }
+        UnitOfWorkReport report = unitOfWork.report(budget);
+        LAST_REPORT.set(report);
+        if (report.isWithinBudget()) {
+            return;
+        }
+        if (budget.getMode() == SqlBudget.Mode.FAIL) {
+            throw new SqlBudgetExceededException(report);
+        }
+        LOGGER.warn("Budget SQL dépassé. {}", report);
+    }
+}
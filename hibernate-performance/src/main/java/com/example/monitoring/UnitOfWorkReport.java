@@ -0,0 +1,74 @@
+package com.example.monitoring;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bilan SQL d'une unité de travail : instructions par requête normalisée,
+ * initialisations paresseuses par association et dépassements du budget.
+ */
+public final class UnitOfWorkReport {
+
+    private final int totalStatements;
+    private final Map<String, Integer> statements;
+    private final Map<String, Integer> lazyLoads;
+    private final Map<String, String> triggers;
+    private final List<String> violations = new ArrayList<>();
+
+    UnitOfWorkReport(int totalStatements, Map<String, Integer> statements, Map<String, Integer> lazyLoads,
+                     Map<String, String> triggers, SqlBudget budget) {
+        this.totalStatements = totalStatements;
+        this.statements = Collections.unmodifiableMap(new LinkedHashMap<>(statements));
+        this.lazyLoads = Collections.unmodifiableMap(new LinkedHashMap<>(lazyLoads));
+        this.triggers = Collections.unmodifiableMap(new LinkedHashMap<>(triggers));
+
+        if (totalStatements > budget.getMaxStatements()) {
+            violations.add(totalStatements + " instructions SQL pour un budget de " + budget.getMaxStatements());
+        }
+        statements.forEach((sql, count) -> {
+            if (count > budget.getMaxRepeats()) {
+                String trigger = triggers.get(sql);
+                violations.add("N+1 probable : " + count + " exécutions"
+                        + (trigger != null ? " déclenchées par " + trigger : "")
+                        + " de [" + sql + "]");
+            }
+        });
+    }
+
+    public int getTotalStatements() {
+        return totalStatements;
+    }
+
+    public Map<String, Integer> getStatements() {
+        return statements;
+    }
+
+    // Initialisations paresseuses par chemin d'association (ex. com.example.model.Auteur.livres)
+    public Map<String, Integer> getLazyLoads() {
+        return lazyLoads;
+    }
+
+    public List<String> getViolations() {
+        return Collections.unmodifiableList(violations);
+    }
+
+    public boolean isWithinBudget() {
+        return violations.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Unité de travail : ")
+                .append(totalStatements).append(" instructions SQL");
+        if (!lazyLoads.isEmpty()) {
+            sb.append(", chargements paresseux ").append(lazyLoads);
+        }
+        for (String violation : violations) {
+            sb.append("\n  - ").append(violation);
+        }
+        return sb.toString();
+    }
+}
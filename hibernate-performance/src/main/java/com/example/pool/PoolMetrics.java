@@ -0,0 +1,58 @@
+package com.example.pool;
+
+import com.example.monitoring.LatencyHistogram;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métriques du pool alimentées par HikariCP : temps d'attente d'une connexion
+ * (histogramme), durée d'emprunt, créations et délais d'acquisition dépassés.
+ * Les compteurs instantanés (actives, inactives, threads en attente) viennent de PoolStats.
+ */
+public class PoolMetrics implements MetricsTrackerFactory, IMetricsTracker {
+
+    private final LatencyHistogram wait = new LatencyHistogram();
+    private final LatencyHistogram usage = new LatencyHistogram();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private volatile PoolStats poolStats;
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolStats = poolStats;
+        return this;
+    }
+
+    @Override
+    public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+        created.increment();
+    }
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        wait.record(elapsedAcquiredNanos);
+    }
+
+    @Override
+    public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+        usage.record(TimeUnit.MILLISECONDS.toNanos(elapsedBorrowedMillis));
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+        timeouts.increment();
+    }
+
+    public PoolSnapshot snapshot() {
+        PoolStats stats = poolStats;
+        return new PoolSnapshot(wait.snapshot(), usage.snapshot(), created.sum(), timeouts.sum(),
+                stats == null ? 0 : stats.getActiveConnections(),
+                stats == null ? 0 : stats.getIdleConnections(),
+                stats == null ? 0 : stats.getPendingThreads(),
+                stats == null ? 0 : stats.getMaxConnections());
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.pool;
+
+import com.example.monitoring.LatencyHistogram;
+
+/**
+ * État du pool à un instant : histogrammes cumulés d'attente et d'emprunt,
+ * compteurs cumulés, et occupation courante.
+ */
+public class PoolSnapshot {
+
+    private final LatencyHistogram.Snapshot wait;
+    private final LatencyHistogram.Snapshot usage;
+    private final long created;
+    private final long timeouts;
+    private final int active;
+    private final int idle;
+    private final int pending;
+    private final int max;
+
+    PoolSnapshot(LatencyHistogram.Snapshot wait, LatencyHistogram.Snapshot usage, long created, long timeouts,
+                 int active, int idle, int pending, int max) {
+        this.wait = wait;
+        this.usage = usage;
+        this.created = created;
+        this.timeouts = timeouts;
+        this.active = active;
+        this.idle = idle;
+        this.pending = pending;
+        this.max = max;
+    }
+
+    // Attente avant d'obtenir une connexion, une mesure par acquisition réussie
+    public LatencyHistogram.Snapshot getWait() {
+        return wait;
+    }
+
+    // Durée pendant laquelle une connexion est empruntée (précision milliseconde)
+    public LatencyHistogram.Snapshot getUsage() {
+        return usage;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public int getIdle() {
+        return idle;
+    }
+
+    public int getPending() {
+        return pending;
+    }
+
+    public int getMax() {
+        return max;
+    }
+
+    // Écart avec un état antérieur : histogrammes et compteurs cumulés, occupation courante conservée
+    public PoolSnapshot minus(PoolSnapshot earlier) {
+        return new PoolSnapshot(wait.minus(earlier.wait), usage.minus(earlier.usage), created - earlier.created,
+                timeouts - earlier.timeouts, active, idle, pending, max);
+    }
+
+    @Override
+    public String toString() {
+        String maxAttente = wait.hasMax() ? String.format(" max=%.3fms", wait.getMaxNanos() / 1e6) : "";
+        return String.format("pool actives=%d inactives=%d en attente=%d max=%d créées=%d timeouts=%d "
+                        + "attente n=%d p50=%.3fms p99=%.3fms%s",
+                active, idle, pending, max, created, timeouts, wait.getCount(),
+                wait.percentileNanos(0.50) / 1e6, wait.percentileNanos(0.99) / 1e6, maxAttente);
+    }
+}
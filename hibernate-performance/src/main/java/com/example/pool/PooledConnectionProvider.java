@@ -0,0 +1,139 @@
+package com.example.pool;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.HibernateException;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.service.UnknownUnwrapTypeException;
+import org.hibernate.service.spi.Configurable;
+import org.hibernate.service.spi.Stoppable;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * ConnectionProvider adossé à un pool HikariCP, avec métriques d'attente et d'occupation (PoolMetrics).
+ * Activation directe (hibernate.connection.provider_class) ou comme provider réel de
+ * TimedConnectionProvider (com.example.monitoring.delegate_provider).
+ * Connexion : javax.persistence.jdbc.* ou hibernate.connection.*.
+ */
+public class PooledConnectionProvider implements ConnectionProvider, Configurable, Stoppable {
+
+    public static final String MIN_IDLE = "com.example.pool.min_idle";
+    public static final String MAX_SIZE = "com.example.pool.max_size";
+    public static final String ACQUIRE_TIMEOUT_MS = "com.example.pool.acquire_timeout_ms";
+    public static final String STATEMENT_CACHE_SIZE = "com.example.pool.statement_cache_size";
+    public static final String STATEMENT_CACHE_DRIVER_PROPERTY = "com.example.pool.statement_cache_driver_property";
+
+    // Hikari ne met pas les PreparedStatement en cache : la taille est transmise au pilote JDBC
+    private static final String H2_STATEMENT_CACHE = "QUERY_CACHE_SIZE";
+
+    private final PoolMetrics metrics = new PoolMetrics();
+    private HikariDataSource dataSource;
+
+    public PoolMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void configure(Map configurationValues) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("hibernate-performance");
+        String driver = setting(configurationValues, AvailableSettings.DRIVER, AvailableSettings.JPA_JDBC_DRIVER);
+        if (driver != null) {
+            config.setDriverClassName(driver);
+        }
+        String url = setting(configurationValues, AvailableSettings.URL, AvailableSettings.JPA_JDBC_URL);
+        if (url == null) {
+            throw new HibernateException("URL JDBC absente : " + AvailableSettings.JPA_JDBC_URL);
+        }
+        config.setJdbcUrl(url);
+        config.setUsername(setting(configurationValues, AvailableSettings.USER, AvailableSettings.JPA_JDBC_USER));
+        config.setPassword(setting(configurationValues, AvailableSettings.PASS, AvailableSettings.JPA_JDBC_PASSWORD));
+
+        int maxSize = intSetting(configurationValues, MAX_SIZE, 10);
+        config.setMaximumPoolSize(maxSize);
+        config.setMinimumIdle(Math.min(intSetting(configurationValues, MIN_IDLE, 2), maxSize));
+        config.setConnectionTimeout(intSetting(configurationValues, ACQUIRE_TIMEOUT_MS, 30000));
+        // Hibernate gère lui-même l'auto-commit des transactions
+        config.setAutoCommit(false);
+
+        int statementCache = intSetting(configurationValues, STATEMENT_CACHE_SIZE, 0);
+        if (statementCache > 0) {
+            Object property = configurationValues.get(STATEMENT_CACHE_DRIVER_PROPERTY);
+            config.addDataSourceProperty(property == null ? H2_STATEMENT_CACHE : property.toString(),
+                    String.valueOf(statementCache));
+        }
+        config.setMetricsTrackerFactory(metrics);
+        try {
+            dataSource = new HikariDataSource(config);
+        } catch (RuntimeException e) {
+            throw new HibernateException("Démarrage du pool de connexions impossible: " + url, e);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return dataSource.getConnection();
+    }
+
+    @Override
+    public void closeConnection(Connection connection) throws SQLException {
+        connection.close();
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return false;
+    }
+
+    @Override
+    public void stop() {
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public boolean isUnwrappableAs(Class unwrapType) {
+        return unwrapType.isInstance(this) || ((Class<?>) unwrapType).isAssignableFrom(HikariDataSource.class);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> unwrapType) {
+        if (unwrapType.isInstance(this)) {
+            return (T) this;
+        }
+        if (unwrapType.isAssignableFrom(HikariDataSource.class)) {
+            return (T) dataSource;
+        }
+        throw new UnknownUnwrapTypeException(unwrapType);
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static String setting(Map values, String hibernateName, String jpaName) {
+        Object value = values.get(hibernateName);
+        if (value == null) {
+            value = values.get(jpaName);
+        }
+        return value == null ? null : value.toString();
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static int intSetting(Map values, String name, int defaultValue) {
+        Object value = values.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.toString().trim());
+        } catch (NumberFormatException e) {
+            throw new HibernateException("Valeur entière attendue pour " + name + ": " + value, e);
+        }
+    }
+}
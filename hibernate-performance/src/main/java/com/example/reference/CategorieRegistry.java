@@ -0,0 +1,159 @@
+package com.example.reference;
+
+import com.example.model.Categorie;
+import com.example.model.QueryCatalog;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Catégories en mémoire, indexées par id et par nom : chargées au premier accès par
+ * l'application, rechargées uniquement sur l'événement explicite categoriesChanged().
+ * Les lectures ne prennent aucun verrou : elles lisent un instantané immuable
+ * remplacé d'un bloc. Les instances sont partagées et ne doivent pas être modifiées.
+ */
+public final class CategorieRegistry {
+
+    private static final ConcurrentMap<SessionFactoryImplementor, CategorieRegistry> REGISTRIES =
+            new ConcurrentHashMap<>();
+
+    private final SessionFactoryImplementor sessionFactory;
+    private volatile Snapshot snapshot;
+
+    CategorieRegistry(SessionFactoryImplementor sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    public static CategorieRegistry of(EntityManagerFactory emf) {
+        CategorieRegistry registry = REGISTRIES.get(emf.unwrap(SessionFactoryImplementor.class));
+        if (registry == null) {
+            throw new IllegalStateException("Registre des catégories désactivé (" + ReferenceDataIntegrator.ENABLED + ")");
+        }
+        return registry;
+    }
+
+    static void register(SessionFactoryImplementor sessionFactory, CategorieRegistry registry) {
+        REGISTRIES.put(sessionFactory, registry);
+    }
+
+    static void unregister(SessionFactoryImplementor sessionFactory) {
+        REGISTRIES.remove(sessionFactory);
+    }
+
+    // null si aucune catégorie ne porte cet id (ou si elle a été créée depuis le dernier rechargement)
+    public Categorie byId(Long id) {
+        return snapshot().byId.get(id);
+    }
+
+    public Categorie byNom(String nom) {
+        return snapshot().byNom.get(nom);
+    }
+
+    // Instance attachée à em (servie par le registre, sans SQL) : à utiliser pour lier une catégorie
+    // à un livre persisté, car persist refuse l'instance détachée renvoyée par byNom
+    public Categorie attach(EntityManager em, String nom) {
+        Categorie categorie = byNom(nom);
+        return categorie == null ? null : em.find(Categorie.class, categorie.getId());
+    }
+
+    // Triées par nom
+    public List<Categorie> all() {
+        return snapshot().all;
+    }
+
+    public int size() {
+        return snapshot().all.size();
+    }
+
+    // Nombre de chargements depuis le démarrage
+    public long version() {
+        Snapshot current = snapshot;
+        return current == null ? 0 : current.version;
+    }
+
+    /**
+     * Événement de changement : à publier après tout commit qui insère ou supprime une
+     * catégorie, ou après une modification SQL de la table categories. Vide la région de
+     * cache Categorie puis recharge le registre.
+     */
+    public void categoriesChanged() {
+        sessionFactory.getCache().evictEntityData(Categorie.class);
+        synchronized (this) {
+            snapshot = load(snapshot == null ? 1 : snapshot.version + 1);
+        }
+    }
+
+    // Publie l'événement si le registre est actif, sinon vide seulement la région de cache Categorie
+    public static void categoriesChanged(EntityManagerFactory emf) {
+        CategorieRegistry registry = REGISTRIES.get(emf.unwrap(SessionFactoryImplementor.class));
+        if (registry != null) {
+            registry.categoriesChanged();
+        } else {
+            emf.getCache().evict(Categorie.class);
+        }
+    }
+
+    // Instantané courant, sans chargement : null tant que personne ne l'a demandé
+    Snapshot current() {
+        return snapshot;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = load(1);
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Snapshot load(long version) {
+        // Session dédiée sans passer par le registre : les instances lues deviennent les instances partagées
+        Session session = sessionFactory.withOptions().openSession();
+        try {
+            session.setDefaultReadOnly(true);
+            List<Categorie> categories = session.createNamedQuery(QueryCatalog.CATEGORIE_FIND_ALL, Categorie.class)
+                    .getResultList();
+            return new Snapshot(categories, version);
+        } finally {
+            session.close();
+        }
+    }
+
+    static final class Snapshot {
+
+        final Map<Long, Categorie> byId;
+        final Map<String, Categorie> byNom;
+        final List<Categorie> all;
+        final long version;
+
+        Snapshot(List<Categorie> categories, long version) {
+            Map<Long, Categorie> ids = new HashMap<>();
+            Map<String, Categorie> noms = new HashMap<>();
+            List<Categorie> sorted = new ArrayList<>(categories);
+            sorted.sort((a, b) -> a.getNom().compareTo(b.getNom()));
+            for (Categorie categorie : sorted) {
+                ids.put(categorie.getId(), categorie);
+                noms.put(categorie.getNom(), categorie);
+            }
+            this.byId = Collections.unmodifiableMap(ids);
+            this.byNom = Collections.unmodifiableMap(noms);
+            this.all = Collections.unmodifiableList(sorted);
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.reference;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.internal.DefaultLoadEventListener;
+import org.hibernate.event.service.spi.DuplicationStrategy;
+import org.hibernate.event.service.spi.EventListenerGroup;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.LoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Crée le registre des catégories de la SessionFactory et remplace l'écouteur de
+ * chargement standard (DefaultLoadEventListener) par RegistryLoadEventListener, à sa place
+ * dans le groupe. Désactivable par com.example.reference.enabled=false.
+ * Déclaré dans META-INF/services.
+ */
+public class ReferenceDataIntegrator implements Integrator {
+
+    public static final String ENABLED = "com.example.reference.enabled";
+
+    @Override
+    public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                          SessionFactoryServiceRegistry serviceRegistry) {
+        Object enabled = sessionFactory.getProperties().get(ENABLED);
+        if (enabled != null && !Boolean.parseBoolean(enabled.toString().trim())) {
+            return;
+        }
+        CategorieRegistry registry = new CategorieRegistry(sessionFactory);
+        CategorieRegistry.register(sessionFactory, registry);
+        // setListeners viderait le groupe : les autres écouteurs de chargement (SqlBudgetIntegrator) restent
+        EventListenerGroup<LoadEventListener> group = serviceRegistry.getService(EventListenerRegistry.class)
+                .getEventListenerGroup(EventType.LOAD);
+        group.addDuplicationStrategy(new DuplicationStrategy() {
+            @Override
+            public boolean areMatch(Object listener, Object original) {
+                return listener instanceof RegistryLoadEventListener
+                        && original.getClass() == DefaultLoadEventListener.class;
+            }
+
+            @Override
+            public Action getAction() {
+                return Action.REPLACE_ORIGINAL;
+            }
+        });
+        group.appendListener(new RegistryLoadEventListener(registry));
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        CategorieRegistry.unregister(sessionFactory);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.reference;
+
+import com.example.model.Categorie;
+import org.hibernate.HibernateException;
+import org.hibernate.LockMode;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.Status;
+import org.hibernate.event.internal.DefaultLoadEventListener;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.LoadEvent;
+import org.hibernate.persister.entity.EntityPersister;
+
+/**
+ * Chargement des entités avec un raccourci pour Categorie : l'instance vient du
+ * CategorieRegistry et entre dans le contexte de persistance en lecture seule, sans SQL
+ * ni lecture de région de cache (comme une entrée de cache par référence).
+ * Tout le reste (autres entités, verrous, registre pas encore chargé, catégorie inconnue)
+ * suit le chemin standard.
+ */
+class RegistryLoadEventListener extends DefaultLoadEventListener {
+
+    private static final String CATEGORIE = Categorie.class.getName();
+
+    private final CategorieRegistry registry;
+
+    RegistryLoadEventListener(CategorieRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void onLoad(LoadEvent event, LoadType loadType) throws HibernateException {
+        if (CATEGORIE.equals(event.getEntityClassName())
+                && event.getInstanceToLoad() == null
+                && event.getLockMode() == LockMode.NONE
+                && event.getEntityId() instanceof Long) {
+            Object categorie = fromRegistry(event);
+            if (categorie != null) {
+                event.setResult(categorie);
+                return;
+            }
+        }
+        super.onLoad(event, loadType);
+    }
+
+    private Object fromRegistry(LoadEvent event) {
+        EventSource session = event.getSession();
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(CATEGORIE);
+        EntityKey key = session.generateEntityKey(event.getEntityId(), persister);
+        PersistenceContext persistenceContext = session.getPersistenceContextInternal();
+        if (persistenceContext.getEntry(persistenceContext.getEntity(key)) != null) {
+            // Déjà dans la session (éventuellement supprimée) : le chemin standard sait gérer chaque état
+            return null;
+        }
+        // Pas de chargement du registre ici : la session courante peut contenir des catégories non validées
+        CategorieRegistry.Snapshot snapshot = registry.current();
+        Categorie categorie = snapshot == null ? null : snapshot.byId.get((Long) event.getEntityId());
+        if (categorie == null) {
+            return null;
+        }
+        persistenceContext.addEntity(categorie, Status.READ_ONLY, null, key, null, LockMode.NONE, true, persister, false);
+        return categorie;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.reporting;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.SessionFactoryObserver;
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Active les tables de synthèse des rapports si com.example.reporting.summary.enabled=true :
+ * tables créées (et calculées) au démarrage, puis tenues à jour par SummaryMaintenanceListener.
+ * Déclaré dans META-INF/services.
+ */
+public class ReportingIntegrator implements Integrator {
+
+    public static final String SUMMARY_ENABLED = "com.example.reporting.summary.enabled";
+
+    @Override
+    public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                          SessionFactoryServiceRegistry serviceRegistry) {
+        Object enabled = sessionFactory.getProperties().get(SUMMARY_ENABLED);
+        if (enabled == null || !Boolean.parseBoolean(enabled.toString().trim())) {
+            return;
+        }
+        SummaryTables.register(sessionFactory);
+
+        SummaryMaintenanceListener listener = new SummaryMaintenanceListener();
+        EventListenerRegistry registry = serviceRegistry.getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+        registry.appendListeners(EventType.POST_COLLECTION_RECREATE, listener);
+        registry.appendListeners(EventType.PRE_COLLECTION_UPDATE, listener);
+        registry.appendListeners(EventType.PRE_COLLECTION_REMOVE, listener);
+
+        // Après l'export du schéma : les tables de livres existent
+        sessionFactory.addObserver(new SessionFactoryObserver() {
+            @Override
+            public void sessionFactoryCreated(SessionFactory factory) {
+                SummaryTables.initialize((SessionFactoryImplementor) factory);
+            }
+        });
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        SummaryTables.unregister(sessionFactory);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.reporting;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Variations des tables de synthèse accumulées pendant une transaction : une entrée
+ * par clé touchée, quel que soit le nombre de livres modifiés. Appliquées en une fois
+ * avant le commit (SummaryTables.apply), ou abandonnées sur rollback.
+ */
+class SummaryDeltas {
+
+    // Clé (catégorie, décennie) -> variation du nombre de livres
+    private final Map<CategorieDecennie, Long> categories = new HashMap<>();
+    // Auteur -> variation du nombre de livres
+    private final Map<Long, Long> auteurs = new HashMap<>();
+    // Ancien état inconnu (update d'une entité détachée) : seul un recalcul complet est sûr
+    private boolean rebuildRequired;
+
+    void categorie(Long categorieId, Integer annee, long delta) {
+        if (categorieId != null && annee != null && delta != 0) {
+            categories.merge(new CategorieDecennie(categorieId, SummaryTables.decennie(annee)), delta, Long::sum);
+        }
+    }
+
+    void auteur(Long auteurId, long delta) {
+        if (auteurId != null && delta != 0) {
+            auteurs.merge(auteurId, delta, Long::sum);
+        }
+    }
+
+    void requireRebuild() {
+        rebuildRequired = true;
+    }
+
+    boolean isRebuildRequired() {
+        return rebuildRequired;
+    }
+
+    Map<CategorieDecennie, Long> getCategories() {
+        return categories;
+    }
+
+    Map<Long, Long> getAuteurs() {
+        return auteurs;
+    }
+
+    boolean isEmpty() {
+        return !rebuildRequired && categories.isEmpty() && auteurs.isEmpty();
+    }
+
+    static final class CategorieDecennie {
+
+        final long categorieId;
+        final int decennie;
+
+        CategorieDecennie(long categorieId, int decennie) {
+            this.categorieId = categorieId;
+            this.decennie = decennie;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CategorieDecennie)) {
+                return false;
+            }
+            CategorieDecennie other = (CategorieDecennie) o;
+            return categorieId == other.categorieId && decennie == other.decennie;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(categorieId) + decennie;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.reporting;
+
+import com.example.model.Auteur;
+import com.example.model.Categorie;
+import com.example.model.Livre;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.collection.spi.PersistentCollection;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.event.spi.PreCollectionRemoveEvent;
+import org.hibernate.event.spi.PreCollectionRemoveEventListener;
+import org.hibernate.event.spi.PreCollectionUpdateEvent;
+import org.hibernate.event.spi.PreCollectionUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Traduit les écritures de Livre en variations des tables de synthèse, pendant le flush,
+ * et les applique avant le commit dans la même transaction (rollback : rien n'est appliqué).
+ * <ul>
+ * <li>livres par auteur : insertion, suppression et changement d'auteur (événements d'entité) ;</li>
+ * <li>livres par catégorie et décennie : les lignes de livre_categorie suivent les événements
+ * de la collection Livre.categories, un changement d'année déplace les catégories en base.</li>
+ * </ul>
+ * Hibernate exécute les mises à jour d'entités avant les actions sur les collections : quand
+ * ces dernières arrivent, l'année en base du livre (loadedState) est déjà la nouvelle.
+ */
+class SummaryMaintenanceListener implements PostInsertEventListener, PostUpdateEventListener,
+        PostDeleteEventListener, PostCollectionRecreateEventListener, PreCollectionUpdateEventListener,
+        PreCollectionRemoveEventListener {
+
+    private static final String ROLE_CATEGORIES = Livre.class.getName() + ".categories";
+
+    // Variations en attente, par session ; retirées à la fin de la transaction
+    private final ConcurrentMap<SessionImplementor, SummaryDeltas> pending = new ConcurrentHashMap<>();
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Livre) {
+            Object auteur = event.getState()[index(event.getPersister(), "auteur")];
+            deltas(event.getSession()).auteur(auteurId(auteur), 1);
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Livre)) {
+            return;
+        }
+        Object[] oldState = event.getOldState();
+        if (oldState == null) {
+            // update() d'une instance détachée sans snapshot : ancien auteur et ancienne année inconnus
+            deltas(event.getSession()).requireRebuild();
+            return;
+        }
+        Object[] state = event.getState();
+        SummaryDeltas deltas = deltas(event.getSession());
+
+        int auteurIndex = index(event.getPersister(), "auteur");
+        Long ancienAuteur = auteurId(oldState[auteurIndex]);
+        Long nouvelAuteur = auteurId(state[auteurIndex]);
+        if (!Objects.equals(ancienAuteur, nouvelAuteur)) {
+            deltas.auteur(ancienAuteur, -1);
+            deltas.auteur(nouvelAuteur, 1);
+        }
+
+        int anneeIndex = index(event.getPersister(), "anneePublication");
+        Integer ancienneAnnee = (Integer) oldState[anneeIndex];
+        Integer nouvelleAnnee = (Integer) state[anneeIndex];
+        if (!Objects.equals(decennie(ancienneAnnee), decennie(nouvelleAnnee))) {
+            // Les lignes de livre_categorie n'ont pas encore été modifiées par ce flush
+            for (Long categorieId : categoriesEnBase(event.getSession(), (Long) event.getId()).keySet()) {
+                deltas.categorie(categorieId, ancienneAnnee, -1);
+                deltas.categorie(categorieId, nouvelleAnnee, 1);
+            }
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Livre) {
+            Object auteur = event.getDeletedState()[index(event.getPersister(), "auteur")];
+            deltas(event.getSession()).auteur(auteurId(auteur), -1);
+        }
+    }
+
+    // Nouvelle collection (livre inséré ou ensemble remplacé) : toutes ses catégories sont ajoutées
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        if (!isCategories(event.getCollection(), event.getAffectedOwnerOrNull())) {
+            return;
+        }
+        Integer annee = anneeEnBase(event.getSession(), event.getAffectedOwnerOrNull());
+        SummaryDeltas deltas = deltas(event.getSession());
+        for (Long categorieId : ids((Set<?>) event.getCollection())) {
+            deltas.categorie(categorieId, annee, 1);
+        }
+    }
+
+    // Avant les DELETE / INSERT de lignes : le snapshot est l'état en base, la collection le nouvel état
+    @Override
+    public void onPreUpdateCollection(PreCollectionUpdateEvent event) {
+        PersistentCollection collection = event.getCollection();
+        if (!isCategories(collection, event.getAffectedOwnerOrNull()) || !collection.wasInitialized()) {
+            return;
+        }
+        Integer annee = anneeEnBase(event.getSession(), event.getAffectedOwnerOrNull());
+        Set<Long> avant = ids(((Map<?, ?>) collection.getStoredSnapshot()).keySet());
+        Set<Long> apres = ids((Set<?>) collection);
+        SummaryDeltas deltas = deltas(event.getSession());
+        for (Long categorieId : avant) {
+            if (!apres.contains(categorieId)) {
+                deltas.categorie(categorieId, annee, -1);
+            }
+        }
+        for (Long categorieId : apres) {
+            if (!avant.contains(categorieId)) {
+                deltas.categorie(categorieId, annee, 1);
+            }
+        }
+    }
+
+    // Livre supprimé ou ensemble remplacé ; une collection non chargée est relue en base
+    @Override
+    public void onPreRemoveCollection(PreCollectionRemoveEvent event) {
+        PersistentCollection collection = event.getCollection();
+        Object owner = event.getAffectedOwnerOrNull();
+        if (!isCategories(collection, owner)) {
+            return;
+        }
+        SummaryDeltas deltas = deltas(event.getSession());
+        if (collection != null && collection.wasInitialized() && collection.getStoredSnapshot() != null) {
+            Integer annee = anneeEnBase(event.getSession(), owner);
+            for (Long categorieId : ids(((Map<?, ?>) collection.getStoredSnapshot()).keySet())) {
+                deltas.categorie(categorieId, annee, -1);
+            }
+        } else if (event.getAffectedOwnerIdOrNull() != null) {
+            Long livreId = (Long) event.getAffectedOwnerIdOrNull();
+            for (Map.Entry<Long, Integer> e : categoriesEnBase(event.getSession(), livreId).entrySet()) {
+                deltas.categorie(e.getKey(), e.getValue(), -1);
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("deprecation") // méthode abstraite de Hibernate 5, remplacée par requiresPostCommitHandling
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private SummaryDeltas deltas(EventSource session) {
+        SummaryDeltas deltas = pending.get(session);
+        if (deltas == null) {
+            SummaryDeltas created = new SummaryDeltas();
+            pending.put(session, created);
+            session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) s -> {
+                SummaryDeltas toApply = pending.remove(s);
+                if (toApply != null && !toApply.isEmpty()) {
+                    s.doWork(c -> SummaryTables.apply(c, toApply));
+                }
+            });
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, s) ->
+                    pending.remove(s));
+            deltas = created;
+        }
+        return deltas;
+    }
+
+    // Livre n'a qu'une collection ; sans instance de collection (suppression non chargée), le propriétaire suffit
+    private static boolean isCategories(PersistentCollection collection, Object owner) {
+        if (collection != null && collection.getRole() != null) {
+            return ROLE_CATEGORIES.equals(collection.getRole());
+        }
+        return owner instanceof Livre;
+    }
+
+    // Année telle qu'en base : l'état chargé, mis à jour après chaque UPDATE du flush
+    private static Integer anneeEnBase(EventSource session, Object owner) {
+        EntityEntry entry = session.getPersistenceContextInternal().getEntry(owner);
+        if (entry != null && entry.getLoadedState() != null) {
+            return (Integer) entry.getLoadedState()[index(entry.getPersister(), "anneePublication")];
+        }
+        return owner instanceof Livre ? ((Livre) owner).getAnneePublication() : null;
+    }
+
+    private static Map<Long, Integer> categoriesEnBase(EventSource session, Long livreId) {
+        return session.doReturningWork(c -> SummaryTables.categoriesEnBase(c, livreId));
+    }
+
+    private static Integer decennie(Integer annee) {
+        return annee == null ? null : SummaryTables.decennie(annee);
+    }
+
+    private static int index(EntityPersister persister, String property) {
+        return persister.getEntityMetamodel().getPropertyIndex(property);
+    }
+
+    private static Long auteurId(Object auteur) {
+        if (auteur instanceof HibernateProxy) {
+            return (Long) ((HibernateProxy) auteur).getHibernateLazyInitializer().getIdentifier();
+        }
+        return auteur instanceof Auteur ? ((Auteur) auteur).getId() : null;
+    }
+
+    private static Set<Long> ids(Iterable<?> categories) {
+        Set<Long> ids = new HashSet<>();
+        for (Object categorie : categories) {
+            if (categorie instanceof HibernateProxy) {
+                ids.add((Long) ((HibernateProxy) categorie).getHibernateLazyInitializer().getIdentifier());
+            } else if (categorie instanceof Categorie && ((Categorie) categorie).getId() != null) {
+                ids.add(((Categorie) categorie).getId());
+            }
+        }
+        return ids;
+    }
+}
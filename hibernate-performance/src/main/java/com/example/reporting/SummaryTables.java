@@ -0,0 +1,281 @@
+package com.example.reporting;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tables de synthèse des rapports, hors modèle JPA :
+ * resume_categorie_decennie (livres par catégorie et par décennie de publication) et
+ * resume_auteur (livres par auteur). Tenues à jour par SummaryMaintenanceListener dans
+ * la transaction qui modifie les livres ; les livres sans année de publication n'y
+ * figurent pas. Activées par com.example.reporting.summary.enabled (ReportingIntegrator).
+ * <p>
+ * Les mises à jour en SQL natif ne déclenchent pas les écouteurs : elles appellent
+ * recomputeCategories / recomputeAuteurs pour les clés touchées, ou rebuild.
+ */
+public final class SummaryTables {
+
+    public static final String CATEGORIE_DECENNIE = "resume_categorie_decennie";
+    public static final String AUTEUR = "resume_auteur";
+
+    // SQLSTATE de violation d'unicité (clé primaire des tables de synthèse)
+    private static final String DUPLICATE_KEY = "23505";
+
+    private static final Set<SessionFactoryImplementor> ENABLED = ConcurrentHashMap.newKeySet();
+
+    // Insertions reprises en mise à jour après une clé dupliquée
+    private static final AtomicLong DUPLICATE_KEY_RETRIES = new AtomicLong();
+
+    private static final String SELECT_CATEGORIE_DECENNIE =
+            "SELECT lc.categorie_id, (l.annee_publication / 10) * 10, COUNT(*) "
+                    + "FROM livre_categorie lc JOIN livres l ON l.id = lc.livre_id "
+                    + "WHERE l.annee_publication IS NOT NULL";
+    private static final String GROUP_CATEGORIE_DECENNIE =
+            " GROUP BY lc.categorie_id, (l.annee_publication / 10) * 10";
+    private static final String SELECT_AUTEUR =
+            "SELECT auteur_id, COUNT(*) FROM livres WHERE auteur_id IS NOT NULL";
+
+    private SummaryTables() {
+    }
+
+    public static boolean isEnabled(EntityManagerFactory emf) {
+        return ENABLED.contains(emf.unwrap(SessionFactoryImplementor.class));
+    }
+
+    static void register(SessionFactoryImplementor sessionFactory) {
+        ENABLED.add(sessionFactory);
+    }
+
+    static void unregister(SessionFactoryImplementor sessionFactory) {
+        ENABLED.remove(sessionFactory);
+    }
+
+    static long duplicateKeyRetries() {
+        return DUPLICATE_KEY_RETRIES.get();
+    }
+
+    // Même arrondi que le SQL : division entière tronquée
+    public static int decennie(int annee) {
+        return (annee / 10) * 10;
+    }
+
+    // Recalcul complet dans la transaction courante de l'EntityManager
+    public static void rebuild(EntityManager em) {
+        if (enabled(em)) {
+            em.unwrap(Session.class).doWork(SummaryTables::rebuild);
+        }
+    }
+
+    // Recalcule les lignes de ces catégories, après un UPDATE ensembliste de livre_categorie
+    public static void recomputeCategories(EntityManager em, Collection<Long> categorieIds) {
+        if (enabled(em) && !categorieIds.isEmpty()) {
+            em.unwrap(Session.class).doWork(c -> recompute(c, CATEGORIE_DECENNIE, "categorie_id",
+                    SELECT_CATEGORIE_DECENNIE + " AND lc.categorie_id IN " + placeholders(categorieIds.size())
+                            + GROUP_CATEGORIE_DECENNIE,
+                    "categorie_id, decennie, nb_livres", categorieIds));
+        }
+    }
+
+    // Recalcule les lignes de ces auteurs, après un UPDATE ensembliste de livres.auteur_id
+    public static void recomputeAuteurs(EntityManager em, Collection<Long> auteurIds) {
+        if (enabled(em) && !auteurIds.isEmpty()) {
+            em.unwrap(Session.class).doWork(c -> recompute(c, AUTEUR, "auteur_id",
+                    SELECT_AUTEUR + " AND auteur_id IN " + placeholders(auteurIds.size()) + " GROUP BY auteur_id",
+                    "auteur_id, nb_livres", auteurIds));
+        }
+    }
+
+    private static boolean enabled(EntityManager em) {
+        return isEnabled(em.getEntityManagerFactory());
+    }
+
+    // Au démarrage : crée les tables absentes et les recalcule si elles sont neuves ou si le schéma vient d'être (re)créé
+    static void initialize(SessionFactoryImplementor sessionFactory) {
+        boolean schemaRecreated = isCreateAction(sessionFactory.getProperties().get(AvailableSettings.HBM2DDL_AUTO))
+                || isCreateAction(sessionFactory.getProperties().get(AvailableSettings.HBM2DDL_DATABASE_ACTION));
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.doWork(c -> {
+                if (create(c) || schemaRecreated) {
+                    rebuild(c);
+                }
+            });
+            tx.commit();
+        }
+    }
+
+    private static boolean isCreateAction(Object action) {
+        return action != null && action.toString().trim().toLowerCase().contains("create");
+    }
+
+    // Renvoie true si au moins une table a été créée
+    static boolean create(Connection c) throws SQLException {
+        boolean created = false;
+        try (Statement st = c.createStatement()) {
+            if (!exists(c, CATEGORIE_DECENNIE)) {
+                st.executeUpdate("CREATE TABLE " + CATEGORIE_DECENNIE + " (categorie_id BIGINT NOT NULL, "
+                        + "decennie INTEGER NOT NULL, nb_livres BIGINT NOT NULL, PRIMARY KEY (categorie_id, decennie))");
+                created = true;
+            }
+            if (!exists(c, AUTEUR)) {
+                st.executeUpdate("CREATE TABLE " + AUTEUR + " (auteur_id BIGINT NOT NULL, "
+                        + "nb_livres BIGINT NOT NULL, PRIMARY KEY (auteur_id))");
+                created = true;
+            }
+        }
+        return created;
+    }
+
+    private static boolean exists(Connection c, String table) throws SQLException {
+        DatabaseMetaData metaData = c.getMetaData();
+        for (String name : new String[]{table, table.toUpperCase(), table.toLowerCase()}) {
+            try (ResultSet rs = metaData.getTables(null, null, name, new String[]{"TABLE"})) {
+                if (rs.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    static void rebuild(Connection c) throws SQLException {
+        try (Statement st = c.createStatement()) {
+            st.executeUpdate("DELETE FROM " + CATEGORIE_DECENNIE);
+            st.executeUpdate("INSERT INTO " + CATEGORIE_DECENNIE + " (categorie_id, decennie, nb_livres) "
+                    + SELECT_CATEGORIE_DECENNIE + GROUP_CATEGORIE_DECENNIE);
+            st.executeUpdate("DELETE FROM " + AUTEUR);
+            st.executeUpdate("INSERT INTO " + AUTEUR + " (auteur_id, nb_livres) " + SELECT_AUTEUR + " GROUP BY auteur_id");
+        }
+    }
+
+    private static void recompute(Connection c, String table, String keyColumn, String select, String columns,
+                                  Collection<Long> ids) throws SQLException {
+        List<Long> keys = new ArrayList<>(ids);
+        try (PreparedStatement delete = c.prepareStatement(
+                "DELETE FROM " + table + " WHERE " + keyColumn + " IN " + placeholders(keys.size()));
+             PreparedStatement insert = c.prepareStatement("INSERT INTO " + table + " (" + columns + ") " + select)) {
+            for (int i = 0; i < keys.size(); i++) {
+                delete.setLong(i + 1, keys.get(i));
+                insert.setLong(i + 1, keys.get(i));
+            }
+            delete.executeUpdate();
+            insert.executeUpdate();
+        }
+    }
+
+    private static String placeholders(int count) {
+        return "(" + String.join(", ", Collections.nCopies(count, "?")) + ")";
+    }
+
+    // Une mise à jour par clé ; insertion des clés encore absentes de la table
+    static void apply(Connection c, SummaryDeltas deltas) throws SQLException {
+        if (deltas.isRebuildRequired()) {
+            rebuild(c);
+            return;
+        }
+        applyDeltas(c, CATEGORIE_DECENNIE, "categorie_id = ? AND decennie = ?", "categorie_id, decennie", 2,
+                deltas.getCategories(), (st, i, key) -> {
+                    st.setLong(i, key.categorieId);
+                    st.setInt(i + 1, key.decennie);
+                });
+        applyDeltas(c, AUTEUR, "auteur_id = ?", "auteur_id", 1,
+                deltas.getAuteurs(), (st, i, auteurId) -> st.setLong(i, auteurId));
+    }
+
+    private static <K> void applyDeltas(Connection c, String table, String keyCondition, String keyColumns,
+                                        int keyCount, Map<K, Long> deltas, KeyBinder<K> binder) throws SQLException {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<K> keys = new ArrayList<>(deltas.keySet());
+        List<K> absentes = new ArrayList<>();
+        try (PreparedStatement update = c.prepareStatement(
+                "UPDATE " + table + " SET nb_livres = nb_livres + ? WHERE " + keyCondition)) {
+            for (K key : keys) {
+                update.setLong(1, deltas.get(key));
+                binder.bind(update, 2, key);
+                update.addBatch();
+            }
+            int[] counts = update.executeBatch();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    absentes.add(keys.get(i));
+                }
+            }
+            if (absentes.isEmpty()) {
+                return;
+            }
+            try (PreparedStatement insert = c.prepareStatement("INSERT INTO " + table + " (" + keyColumns
+                    + ", nb_livres) VALUES " + placeholders(keyCount + 1))) {
+                for (K key : absentes) {
+                    binder.bind(insert, 1, key);
+                    insert.setLong(keyCount + 1, deltas.get(key));
+                    insert(c, insert, update, key, deltas.get(key), binder);
+                }
+            }
+        }
+    }
+
+    // Une transaction concurrente a pu créer la clé depuis la mise à jour : la ligne insérée par
+    // l'autre transaction reçoit alors le delta, au lieu d'annuler la modification des livres
+    private static <K> void insert(Connection c, PreparedStatement insert, PreparedStatement update, K key,
+                                   long delta, KeyBinder<K> binder) throws SQLException {
+        Savepoint savepoint = c.setSavepoint();
+        try {
+            insert.executeUpdate();
+            c.releaseSavepoint(savepoint);
+        } catch (SQLException e) {
+            if (!DUPLICATE_KEY.equals(e.getSQLState())) {
+                throw e;
+            }
+            c.rollback(savepoint);
+            update.setLong(1, delta);
+            binder.bind(update, 2, key);
+            if (update.executeUpdate() == 0) {
+                throw e;
+            }
+            DUPLICATE_KEY_RETRIES.incrementAndGet();
+        }
+    }
+
+    private interface KeyBinder<K> {
+        void bind(PreparedStatement st, int index, K key) throws SQLException;
+    }
+
+    // Catégories d'un livre telles qu'en base, avec son année ; null si le livre n'a pas d'année
+    static Map<Long, Integer> categoriesEnBase(Connection c, Long livreId) throws SQLException {
+        Map<Long, Integer> categories = new HashMap<>();
+        try (PreparedStatement st = c.prepareStatement("SELECT lc.categorie_id, l.annee_publication "
+                + "FROM livre_categorie lc JOIN livres l ON l.id = lc.livre_id WHERE lc.livre_id = ?")) {
+            st.setLong(1, livreId);
+            try (ResultSet rs = st.executeQuery()) {
+                while (rs.next()) {
+                    int annee = rs.getInt(2);
+                    categories.put(rs.getLong(1), rs.wasNull() ? null : annee);
+                }
+            }
+        }
+        return categories;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.repository;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Exécution des accès asynchrones : pool de threads plateforme borné ou un thread
+ * virtuel par tâche (JDK 21+). Un sémaphore borne les tâches en cours : au-delà,
+ * l'appelant attend jusqu'à acquire_timeout_ms puis la tâche est rejetée.
+ * Avec des threads virtuels, c'est ce plafond qui protège le pool de connexions.
+ */
+public final class AsyncExecutor implements AutoCloseable {
+
+    public enum Mode {
+        PLATFORM, VIRTUAL
+    }
+
+    public static final String MODE = "com.example.async.mode";
+    public static final String THREADS = "com.example.async.threads";
+    public static final String MAX_IN_FLIGHT = "com.example.async.max_in_flight";
+    public static final String ACQUIRE_TIMEOUT_MS = "com.example.async.acquire_timeout_ms";
+
+    private final Mode mode;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int maxInFlight;
+    private final long acquireTimeoutMillis;
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public AsyncExecutor(Mode mode, int threads, int maxInFlight, long acquireTimeoutMillis) {
+        if (threads <= 0 || maxInFlight <= 0) {
+            throw new IllegalArgumentException("threads et max_in_flight doivent être positifs");
+        }
+        this.mode = mode;
+        this.executor = mode == Mode.VIRTUAL ? newVirtualThreadPerTaskExecutor() : newPlatformExecutor(threads);
+        this.permits = new Semaphore(maxInFlight);
+        this.maxInFlight = maxInFlight;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    // Réglages com.example.async.* (par exemple emf.getProperties()) ; threads par défaut : 8
+    public static AsyncExecutor fromProperties(Map<String, Object> properties) {
+        Object mode = properties.get(MODE);
+        int threads = intValue(properties, THREADS, 8);
+        return new AsyncExecutor(
+                mode == null ? Mode.PLATFORM : Mode.valueOf(mode.toString().trim().toUpperCase(Locale.ROOT)),
+                threads,
+                intValue(properties, MAX_IN_FLIGHT, 4 * threads),
+                intValue(properties, ACQUIRE_TIMEOUT_MS, 1000));
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        submitted.increment();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return rejectedFuture("Attente d'une place interrompue");
+        }
+        if (!acquired) {
+            return rejectedFuture("Trop de requêtes asynchrones en cours (" + maxInFlight + ")");
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return task.get();
+                } finally {
+                    permits.release();
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            // Exécuteur arrêté : la tâche ne s'exécutera jamais, on rend la place
+            permits.release();
+            rejected.increment();
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getInFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+
+    public long getSubmitted() {
+        return submitted.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> CompletableFuture<T> rejectedFuture(String message) {
+        rejected.increment();
+        CompletableFuture<T> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new RejectedExecutionException(message));
+        return failed;
+    }
+
+    private static ExecutorService newPlatformExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "async-repository-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        // File non bornée : le sémaphore limite déjà le nombre de tâches soumises
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), factory);
+    }
+
+    // Un thread virtuel par tâche, obtenu par réflexion pour rester compilable en Java 8
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Threads virtuels indisponibles (JDK 21 requis): "
+                    + System.getProperty("java.version"), e);
+        }
+    }
+
+    private static int intValue(Map<String, Object> properties, String name, int defaultValue) {
+        Object value = properties.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value.toString().trim());
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.repository;
+
+import com.example.model.Auteur;
+import com.example.model.Categorie;
+import com.example.model.Livre;
+import com.example.model.QueryCatalog;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Accès asynchrones à Auteur, Livre et Categorie : chaque appel s'exécute sur
+ * l'AsyncExecutor avec son propre EntityManager, fermé avant que le futur se termine.
+ * Les entités renvoyées sont détachées : seules les associations chargées par la
+ * requête (entity graph) sont utilisables ensuite.
+ * <pre>
+ * CompletableFuture&lt;Auteur&gt; auteur = repository.findAuteur(id);
+ * CompletableFuture&lt;Map&lt;String, Long&gt;&gt; parCategorie = repository.countLivresParCategorie(id);
+ * auteur.thenCombine(parCategorie, Page::new);
+ * </pre>
+ */
+public class AsyncRepository implements AutoCloseable {
+
+    private final EntityManagerFactory emf;
+    private final AsyncExecutor executor;
+    private final boolean ownsExecutor;
+
+    public AsyncRepository(EntityManagerFactory emf, AsyncExecutor executor) {
+        this(emf, executor, false);
+    }
+
+    // Exécuteur configuré par les propriétés com.example.async.* de l'unité de persistance
+    public AsyncRepository(EntityManagerFactory emf) {
+        this(emf, AsyncExecutor.fromProperties(emf.getProperties()), true);
+    }
+
+    private AsyncRepository(EntityManagerFactory emf, AsyncExecutor executor, boolean ownsExecutor) {
+        this.emf = emf;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    public AsyncExecutor getExecutor() {
+        return executor;
+    }
+
+    // Point d'extension : une unité de travail en lecture sur un EntityManager dédié
+    public <T> CompletableFuture<T> read(Function<EntityManager, T> work) {
+        return executor.submit(() -> {
+            EntityManager em = emf.createEntityManager();
+            try {
+                return work.apply(em);
+            } finally {
+                em.close();
+            }
+        });
+    }
+
+    // Auteur
+
+    public CompletableFuture<Auteur> findAuteur(Long id) {
+        return read(em -> em.find(Auteur.class, id));
+    }
+
+    // Auteur avec ses livres et leurs catégories, utilisables une fois détachés
+    public CompletableFuture<Auteur> findAuteurAvecLivres(Long id) {
+        return read(em -> em.find(Auteur.class, id, Collections.<String, Object>singletonMap(
+                "javax.persistence.fetchgraph", em.getEntityGraph(QueryCatalog.GRAPH_AUTEUR_LIVRES_ET_CATEGORIES))));
+    }
+
+    public CompletableFuture<List<Auteur>> findAuteursByNom(String nom) {
+        return read(em -> em.createNamedQuery(QueryCatalog.AUTEUR_FIND_BY_NOM, Auteur.class)
+                .setParameter("nom", nom)
+                .getResultList());
+    }
+
+    // Livre
+
+    public CompletableFuture<Livre> findLivre(Long id) {
+        return read(em -> em.find(Livre.class, id));
+    }
+
+    public CompletableFuture<List<Livre>> findLivresByAuteur(Long auteurId) {
+        return read(em -> em.createNamedQuery(QueryCatalog.LIVRE_FIND_BY_AUTEUR, Livre.class)
+                .setParameter("auteurId", auteurId)
+                .getResultList());
+    }
+
+    // Categorie
+
+    public CompletableFuture<Categorie> findCategorie(Long id) {
+        return read(em -> em.find(Categorie.class, id));
+    }
+
+    public CompletableFuture<List<Categorie>> findAllCategories() {
+        return read(em -> em.createNamedQuery(QueryCatalog.CATEGORIE_FIND_ALL, Categorie.class).getResultList());
+    }
+
+    // Nombre de livres de l'auteur par nom de catégorie, dans l'ordre des noms
+    public CompletableFuture<Map<String, Long>> countLivresParCategorie(Long auteurId) {
+        return read(em -> {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            for (Object[] row : em.createNamedQuery(QueryCatalog.CATEGORIE_COUNT_LIVRES_BY_AUTEUR, Object[].class)
+                    .setParameter("auteurId", auteurId)
+                    .getResultList()) {
+                counts.put((String) row[0], (Long) row[1]);
+            }
+            return counts;
+        });
+    }
+
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.close();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.search;
+
+import com.example.model.Livre;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+
+/**
+ * Reporte dans l'index les insertions, modifications et suppressions de Livre une
+ * fois la transaction validée : un rollback ne laisse rien dans l'index. Les mises à
+ * jour en masse (JPQL ou SQL natif) ne passent pas par ces événements et imposent
+ * une reconstruction (LivreSearchService.rebuildIndex()).
+ */
+class LivreIndexListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    private final LivreSearchIndex index;
+
+    LivreIndexListener(LivreSearchIndex index) {
+        this.index = index;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Livre) {
+            Livre livre = (Livre) event.getEntity();
+            index.index((Long) event.getId(), livre.getTitre(), livre.getResume());
+        }
+    }
+
+    // Seul un changement de titre ou de résumé touche l'index : les autres mises à jour
+    // n'ont pas à relire le résumé, chargé à la demande
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Livre && touchesText(event)) {
+            Livre livre = (Livre) event.getEntity();
+            index.index((Long) event.getId(), livre.getTitre(), livre.getResume());
+        }
+    }
+
+    private static boolean touchesText(PostUpdateEvent event) {
+        int[] dirty = event.getDirtyProperties();
+        if (dirty == null) {
+            return true;
+        }
+        String[] names = event.getPersister().getPropertyNames();
+        for (int i : dirty) {
+            if ("titre".equals(names[i]) || "resume".equals(names[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Livre) {
+            index.remove((Long) event.getId());
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    // Seulement pour décider si l'action doit être rappelée après commit : les méthodes
+    // ci-dessus reçoivent aussi les autres entités de la session, d'où les instanceof
+    @Override
+    @SuppressWarnings("deprecation") // méthode abstraite de Hibernate 5, remplacée par requiresPostCommitHandling
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return persister.getMappedClass() == Livre.class;
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return requiresPostCommitHanding(persister);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.search;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+
+/**
+ * Reconstruit un index de recherche depuis la table des livres, lue en flux par une
+ * session sans état. Appelé au démarrage (LivreSearchIntegrator) et par
+ * LivreSearchService.rebuildIndex().
+ */
+public final class LivreIndexLoader {
+
+    private static final String REBUILD_QUERY = "SELECT l.id, l.titre, l.resume FROM Livre l";
+    private static final int FETCH_SIZE = 1000;
+
+    private LivreIndexLoader() {
+    }
+
+    // Nombre de livres indexés ; les recherches restent servies par l'ancien index pendant la lecture
+    public static int rebuild(SessionFactory sessionFactory, LivreSearchIndex index) {
+        long start = System.nanoTime();
+        LivreSearchIndex.Rebuild rebuild = index.beginRebuild();
+        StatelessSession session = sessionFactory.openStatelessSession();
+        try {
+            session.getTransaction().begin();
+            ScrollableResults rows = session.createQuery(REBUILD_QUERY)
+                    .setFetchSize(FETCH_SIZE)
+                    .setReadOnly(true)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+            try {
+                while (rows.next()) {
+                    Object[] row = rows.get();
+                    rebuild.add((Long) row[0], (String) row[1], (String) row[2]);
+                }
+            } finally {
+                rows.close();
+            }
+            session.getTransaction().commit();
+        } catch (RuntimeException e) {
+            rebuild.abort();
+            throw e;
+        } finally {
+            if (session.getTransaction().isActive()) {
+                session.getTransaction().rollback();
+            }
+            session.close();
+        }
+        int count = rebuild.commit();
+        System.out.printf("Index de recherche reconstruit : %d livres, %d termes en %d ms%n",
+                count, index.termCount(), (System.nanoTime() - start) / 1_000_000);
+        return count;
+    }
+}
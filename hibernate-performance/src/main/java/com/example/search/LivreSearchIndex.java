@@ -0,0 +1,402 @@
+package com.example.search;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index inversé en mémoire sur Livre.titre et Livre.resume, une instance par
+ * SessionFactory (voir LivreSearchIntegrator). Chaque livre reçoit un numéro de
+ * document croissant ; les listes de postings restent donc triées et s'intersectent
+ * par fusion. Un livre supprimé ou modifié est seulement marqué supprimé, l'index
+ * est compacté quand plus d'un quart des documents sont morts.
+ * <p>
+ * Recherche : tous les termes doivent apparaître (ET), score = somme sur les termes de
+ * idf × tf saturé, un terme du titre comptant triple.
+ */
+public class LivreSearchIndex {
+
+    private static final ConcurrentMap<SessionFactoryImplementor, LivreSearchIndex> INDEXES = new ConcurrentHashMap<>();
+
+    static final int TITLE_WEIGHT = 3;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private IndexData data = new IndexData();
+    // Non nul pendant une reconstruction : modifications à rejouer sur le nouvel index
+    private List<Change> journal;
+
+    public static LivreSearchIndex of(EntityManagerFactory emf) {
+        LivreSearchIndex index = INDEXES.get(emf.unwrap(SessionFactoryImplementor.class));
+        if (index == null) {
+            throw new IllegalStateException("Index de recherche désactivé (" + LivreSearchIntegrator.ENABLED + ")");
+        }
+        return index;
+    }
+
+    static void register(SessionFactoryImplementor sessionFactory, LivreSearchIndex index) {
+        INDEXES.put(sessionFactory, index);
+    }
+
+    static void unregister(SessionFactoryImplementor sessionFactory) {
+        INDEXES.remove(sessionFactory);
+    }
+
+    // Ajoute ou remplace le livre
+    public void index(long livreId, String titre, String resume) {
+        apply(new Change(livreId, analyze(titre, resume)));
+    }
+
+    public void remove(long livreId) {
+        apply(new Change(livreId, Collections.<String, Integer>emptyMap(), true));
+    }
+
+    private void apply(Change change) {
+        lock.writeLock().lock();
+        try {
+            data.apply(change);
+            if (journal != null) {
+                journal.add(change);
+            }
+            if (data.needsCompaction()) {
+                data = data.compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public SearchResult search(String query, int page, int size) {
+        if (page < 0 || size <= 0) {
+            throw new IllegalArgumentException("page >= 0 et size > 0 attendus");
+        }
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(TextAnalyzer.tokens(query)));
+        lock.readLock().lock();
+        try {
+            return data.search(terms, page, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Démarre une reconstruction : les livres passés à {@link Rebuild#add} forment un
+     * nouvel index, l'ancien reste interrogeable jusqu'à {@link Rebuild#commit()}, qui
+     * rejoue les modifications survenues entre-temps puis remplace l'index.
+     */
+    public Rebuild beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            if (journal != null) {
+                throw new IllegalStateException("Reconstruction déjà en cours");
+            }
+            journal = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return new Rebuild();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return data.docByLivre.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return data.postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public class Rebuild {
+
+        private final IndexData rebuilt = new IndexData();
+        private boolean done;
+
+        public void add(long livreId, String titre, String resume) {
+            rebuilt.apply(new Change(livreId, analyze(titre, resume)));
+        }
+
+        public int commit() {
+            lock.writeLock().lock();
+            try {
+                checkOpen();
+                for (Change change : journal) {
+                    rebuilt.apply(change);
+                }
+                data = rebuilt.needsCompaction() ? rebuilt.compact() : rebuilt;
+                return data.docByLivre.size();
+            } finally {
+                finish();
+                lock.writeLock().unlock();
+            }
+        }
+
+        public void abort() {
+            lock.writeLock().lock();
+            try {
+                if (!done) {
+                    finish();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void checkOpen() {
+            if (done) {
+                throw new IllegalStateException("Reconstruction terminée");
+            }
+        }
+
+        private void finish() {
+            done = true;
+            journal = null;
+        }
+    }
+
+    // Termes et poids (occurrences, titre pondéré) d'un livre, calculés hors verrou
+    private static Map<String, Integer> analyze(String titre, String resume) {
+        Map<String, Integer> terms = new HashMap<>();
+        for (String token : TextAnalyzer.tokens(titre)) {
+            terms.merge(token, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String token : TextAnalyzer.tokens(resume)) {
+            terms.merge(token, 1, Integer::sum);
+        }
+        return terms;
+    }
+
+    private static final class Change {
+        final long livreId;
+        final Map<String, Integer> terms;
+        final boolean removed;
+
+        Change(long livreId, Map<String, Integer> terms) {
+            this(livreId, terms, false);
+        }
+
+        Change(long livreId, Map<String, Integer> terms, boolean removed) {
+            this.livreId = livreId;
+            this.terms = terms;
+            this.removed = removed;
+        }
+    }
+
+    private static final class Postings {
+        // Instance partagée par l'index direct de tous les documents qui contiennent le terme
+        final String term;
+        int[] docs = new int[4];
+        int[] weights = new int[4];
+        int size;
+
+        Postings(String term) {
+            this.term = term;
+        }
+
+        void add(int doc, int weight) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            docs[size] = doc;
+            weights[size] = weight;
+            size++;
+        }
+
+        // Première position >= from dont le document est >= doc (recherche exponentielle puis dichotomique)
+        int advance(int from, int doc) {
+            int step = 1;
+            int low = from;
+            int high = from;
+            while (high < size && docs[high] < doc) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            high = Math.min(high, size);
+            int i = Arrays.binarySearch(docs, low, high, doc);
+            return i >= 0 ? i : -i - 1;
+        }
+    }
+
+    private static final class Hit {
+        final long livreId;
+        final double score;
+
+        Hit(long livreId, double score) {
+            this.livreId = livreId;
+            this.score = score;
+        }
+    }
+
+    // Meilleur en tête : score décroissant puis id croissant
+    private static final Comparator<Hit> RANKING = Comparator.<Hit>comparingDouble(h -> -h.score)
+            .thenComparingLong(h -> h.livreId);
+
+    private static final class IndexData {
+        final Map<String, Postings> postings = new HashMap<>();
+        final Map<Long, Integer> docByLivre = new HashMap<>();
+        long[] livreByDoc = new long[1024];
+        // Index direct (termes et poids par document) pour la compaction
+        String[][] termsByDoc = new String[1024][];
+        int[][] weightsByDoc = new int[1024][];
+        final BitSet deleted = new BitSet();
+        int deletedCount;
+        int nextDoc;
+
+        void apply(Change change) {
+            Integer previous = change.removed
+                    ? docByLivre.remove(change.livreId)
+                    : docByLivre.get(change.livreId);
+            if (previous != null) {
+                deleted.set(previous);
+                termsByDoc[previous] = null;
+                weightsByDoc[previous] = null;
+                deletedCount++;
+            }
+            if (!change.removed) {
+                add(change.livreId, change.terms);
+            }
+        }
+
+        private void add(long livreId, Map<String, Integer> terms) {
+            int doc = nextDoc++;
+            if (doc == livreByDoc.length) {
+                livreByDoc = Arrays.copyOf(livreByDoc, doc * 2);
+                termsByDoc = Arrays.copyOf(termsByDoc, doc * 2);
+                weightsByDoc = Arrays.copyOf(weightsByDoc, doc * 2);
+            }
+            livreByDoc[doc] = livreId;
+            docByLivre.put(livreId, doc);
+            String[] docTerms = new String[terms.size()];
+            int[] docWeights = new int[terms.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : terms.entrySet()) {
+                Postings list = postings.get(entry.getKey());
+                if (list == null) {
+                    list = new Postings(entry.getKey());
+                    postings.put(entry.getKey(), list);
+                }
+                docTerms[i] = list.term;
+                list.add(doc, entry.getValue());
+                docWeights[i] = entry.getValue();
+                i++;
+            }
+            termsByDoc[doc] = docTerms;
+            weightsByDoc[doc] = docWeights;
+        }
+
+        boolean needsCompaction() {
+            return deletedCount > 1024 && deletedCount * 4 > nextDoc;
+        }
+
+        IndexData compact() {
+            IndexData compacted = new IndexData();
+            for (int doc = 0; doc < nextDoc; doc++) {
+                if (!deleted.get(doc)) {
+                    Map<String, Integer> terms = new HashMap<>();
+                    for (int i = 0; i < termsByDoc[doc].length; i++) {
+                        terms.put(termsByDoc[doc][i], weightsByDoc[doc][i]);
+                    }
+                    compacted.add(livreByDoc[doc], terms);
+                }
+            }
+            return compacted;
+        }
+
+        SearchResult search(List<String> terms, int page, int size) {
+            if (terms.isEmpty()) {
+                return new SearchResult(Collections.<Long>emptyList(), page, size, 0);
+            }
+            Postings[] lists = new Postings[terms.size()];
+            double[] idf = new double[terms.size()];
+            int live = nextDoc - deletedCount;
+            for (int t = 0; t < lists.length; t++) {
+                lists[t] = postings.get(terms.get(t));
+                if (lists[t] == null) {
+                    return new SearchResult(Collections.<Long>emptyList(), page, size, 0);
+                }
+            }
+            // La liste la plus courte mène l'intersection
+            Integer[] order = new Integer[lists.length];
+            for (int t = 0; t < order.length; t++) {
+                order[t] = t;
+            }
+            Arrays.sort(order, Comparator.comparingInt(t -> lists[t].size));
+            for (int t = 0; t < lists.length; t++) {
+                idf[t] = Math.log(1 + (double) live / lists[t].size);
+            }
+
+            int keep = (page + 1) * size;
+            PriorityQueue<Hit> top = new PriorityQueue<>(keep + 1, RANKING.reversed());
+            int[] cursors = new int[lists.length];
+            int total = 0;
+            Postings lead = lists[order[0]];
+            candidates:
+            for (int i = 0; i < lead.size; i++) {
+                int doc = lead.docs[i];
+                if (deleted.get(doc)) {
+                    continue;
+                }
+                double score = idf[order[0]] * saturate(lead.weights[i]);
+                for (int o = 1; o < order.length; o++) {
+                    int t = order[o];
+                    cursors[t] = lists[t].advance(cursors[t], doc);
+                    if (cursors[t] == lists[t].size) {
+                        break candidates;
+                    }
+                    if (lists[t].docs[cursors[t]] != doc) {
+                        continue candidates;
+                    }
+                    score += idf[t] * saturate(lists[t].weights[cursors[t]]);
+                }
+                total++;
+                long livreId = livreByDoc[doc];
+                if (top.size() < keep) {
+                    top.add(new Hit(livreId, score));
+                } else if (beats(score, livreId, top.peek())) {
+                    top.poll();
+                    top.add(new Hit(livreId, score));
+                }
+            }
+
+            List<Hit> ranked = new ArrayList<>(top);
+            ranked.sort(RANKING);
+            List<Long> ids = new ArrayList<>(size);
+            for (int i = page * size; i < ranked.size(); i++) {
+                ids.add(ranked.get(i).livreId);
+            }
+            return new SearchResult(ids, page, size, total);
+        }
+
+        // Évite d'allouer un Hit pour chaque candidat qui n'entre pas dans la page
+        private static boolean beats(double score, long livreId, Hit worst) {
+            return score > worst.score || (score == worst.score && livreId < worst.livreId);
+        }
+
+        private static double saturate(int weight) {
+            return weight * 2.2 / (weight + 1.2);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.search;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.SessionFactoryObserver;
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Crée l'index de recherche de la SessionFactory et enregistre l'écouteur qui le
+ * tient à jour après chaque commit. Désactivable par com.example.search.enabled=false.
+ * L'index est reconstruit depuis la base une fois la SessionFactory créée, sauf si
+ * com.example.search.rebuild_on_startup=false.
+ * Déclaré dans META-INF/services.
+ */
+public class LivreSearchIntegrator implements Integrator {
+
+    public static final String ENABLED = "com.example.search.enabled";
+    public static final String REBUILD_ON_STARTUP = "com.example.search.rebuild_on_startup";
+
+    @Override
+    public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                          SessionFactoryServiceRegistry serviceRegistry) {
+        Object enabled = sessionFactory.getProperties().get(ENABLED);
+        if (enabled != null && !Boolean.parseBoolean(enabled.toString().trim())) {
+            return;
+        }
+        LivreSearchIndex index = new LivreSearchIndex();
+        LivreSearchIndex.register(sessionFactory, index);
+
+        LivreIndexListener listener = new LivreIndexListener(index);
+        EventListenerRegistry registry = serviceRegistry.getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+
+        Object rebuild = sessionFactory.getProperties().get(REBUILD_ON_STARTUP);
+        if (rebuild == null || Boolean.parseBoolean(rebuild.toString().trim())) {
+            // Après l'export ou la validation du schéma : base déjà peuplée (image du démarrage rapide)
+            sessionFactory.addObserver(new SessionFactoryObserver() {
+                @Override
+                public void sessionFactoryCreated(SessionFactory factory) {
+                    LivreIndexLoader.rebuild(factory, index);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        LivreSearchIndex.unregister(sessionFactory);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.search;
+
+import java.util.List;
+
+/**
+ * Une page de résultats : identifiants de livres classés par pertinence décroissante
+ * (à égalité, par id croissant) et nombre total de livres correspondants.
+ */
+public class SearchResult {
+
+    private final List<Long> ids;
+    private final int page;
+    private final int size;
+    private final int totalHits;
+
+    SearchResult(List<Long> ids, int page, int size, int totalHits) {
+        this.ids = ids;
+        this.page = page;
+        this.size = size;
+        this.totalHits = totalHits;
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getTotalHits() {
+        return totalHits;
+    }
+
+    public boolean hasNext() {
+        return (long) (page + 1) * size < totalHits;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchResult{page=" + page + ", totalHits=" + totalHits + ", ids=" + ids + '}';
+    }
+}
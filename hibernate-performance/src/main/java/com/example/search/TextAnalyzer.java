@@ -0,0 +1,66 @@
+package com.example.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Découpage d'un texte en termes indexables : minuscules, accents retirés
+ * ("Misérables" → "miserables"), séparation sur tout ce qui n'est ni lettre ni
+ * chiffre (les élisions "l'histoire" donnent "histoire"), mots vides français ignorés.
+ */
+public final class TextAnalyzer {
+
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+            "au", "aux", "avec", "ce", "ces", "dans", "de", "des", "du", "elle", "en", "est", "et",
+            "il", "la", "le", "les", "leur", "mais", "ne", "ou", "par", "pas", "pour", "qu", "que",
+            "qui", "sa", "se", "ses", "son", "sur", "un", "une"));
+
+    private TextAnalyzer() {
+    }
+
+    public static List<String> tokens(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String folded = fold(text);
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean word = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                String token = folded.substring(start, i);
+                if (token.length() > 1 && !STOP_WORDS.contains(token)) {
+                    tokens.add(token);
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    // Décomposition NFD puis suppression des diacritiques (œ et æ n'ont pas de décomposition)
+    static String fold(String text) {
+        String lower = text.toLowerCase(Locale.ROOT).replace("œ", "oe").replace("æ", "ae");
+        if (isAscii(lower)) {
+            return lower;
+        }
+        return Normalizer.normalize(lower, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 127) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
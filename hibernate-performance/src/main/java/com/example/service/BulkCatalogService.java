@@ -0,0 +1,161 @@
+package com.example.service;
+
+import com.example.cache.ScopedInvalidation;
+import com.example.model.Livre;
+import com.example.reporting.SummaryTables;
+import org.hibernate.query.NativeQuery;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityNotFoundException;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Modifications ensemblistes du catalogue : une instruction SQL par opération au lieu
+ * de charger chaque livre et de le mettre à jour ligne à ligne.
+ * Le cache de second niveau n'est invalidé que pour les lignes touchées (ScopedInvalidation) :
+ * leurs ids sont lus, et verrouillés quand c'est possible, dans la même transaction avant la mise à jour.
+ * Les EntityManager ouverts ailleurs gardent leur état : comme pour tout UPDATE ensembliste,
+ * les entités déjà chargées ne sont pas rafraîchies. Les écouteurs Hibernate ne voient pas ces
+ * instructions : les lignes concernées des tables de synthèse sont recalculées dans la transaction.
+ */
+public class BulkCatalogService {
+
+    public static final String ROLE_AUTEUR_LIVRES = "com.example.model.Auteur.livres";
+    public static final String ROLE_LIVRE_CATEGORIES = "com.example.model.Livre.categories";
+
+    private final EntityManagerFactory emf;
+
+    public BulkCatalogService(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    // Tous les livres d'un auteur passent à un autre auteur ; la version incrémentée fait échouer
+    // les modifications concurrentes de ces livres (verrouillage optimiste)
+    public BulkUpdateReport deplacerLivres(Long auteurSource, Long auteurCible) {
+        return inTransaction("deplacerLivres", (em, invalidation) -> {
+            List<Long> livres = ids(em, "SELECT id FROM livres WHERE auteur_id = ?1 FOR UPDATE", auteurSource);
+            long rows = update(em, "UPDATE livres SET auteur_id = ?2, version = version + 1 WHERE auteur_id = ?1", auteurSource, auteurCible);
+            invalidation.entities(Livre.class, livres)
+                    .collections(ROLE_AUTEUR_LIVRES, Arrays.asList(auteurSource, auteurCible))
+                    .attribute(Livre.class, "auteur", Arrays.asList(auteurSource, auteurCible))
+                    .tables("livres");
+            SummaryTables.recomputeAuteurs(em, Arrays.asList(auteurSource, auteurCible));
+            return rows;
+        });
+    }
+
+    // Chaque livre de la catégorie source passe dans la catégorie cible (sans doublon)
+    public BulkUpdateReport remplacerCategorie(Long categorieSource, Long categorieCible) {
+        // Source = cible : l'UPDATE ne trouverait rien et le DELETE retirerait tous les liens
+        if (Objects.equals(categorieSource, categorieCible)) {
+            throw new IllegalArgumentException("Catégories source et cible identiques : " + categorieSource);
+        }
+        return inTransaction("remplacerCategorie", (em, invalidation) -> {
+            // Verrouillées jusqu'au commit : aucune ne peut être supprimée pendant le transfert
+            List<Long> categories = ids(em, "SELECT id FROM categories WHERE id IN (?1, ?2) FOR UPDATE",
+                    categorieSource, categorieCible);
+            for (Long id : Arrays.asList(categorieSource, categorieCible)) {
+                if (!categories.contains(id)) {
+                    throw new EntityNotFoundException("Categorie introuvable : " + id);
+                }
+            }
+            List<Long> livres = ids(em,
+                    "SELECT livre_id FROM livre_categorie WHERE categorie_id = ?1 FOR UPDATE", categorieSource);
+            long rows = update(em, "UPDATE livre_categorie SET categorie_id = ?2 WHERE categorie_id = ?1 "
+                    + "AND livre_id NOT IN (SELECT livre_id FROM livre_categorie WHERE categorie_id = ?2)",
+                    categorieSource, categorieCible);
+            // Livres déjà classés dans la cible : il ne reste que le lien vers la source à supprimer
+            rows += update(em, "DELETE FROM livre_categorie WHERE categorie_id = ?1", categorieSource);
+            invalidation.collections(ROLE_LIVRE_CATEGORIES, livres)
+                    .tables("livre_categorie");
+            SummaryTables.recomputeCategories(em, Arrays.asList(categorieSource, categorieCible));
+            return rows;
+        });
+    }
+
+    // Ajoute une catégorie à tous les livres d'un auteur qui ne l'ont pas encore
+    public BulkUpdateReport ajouterCategorie(Long auteurId, Long categorieId) {
+        return inTransaction("ajouterCategorie", (em, invalidation) -> {
+            // Livres de l'auteur verrouillés avant la lecture : la liste invalidée est celle que l'INSERT complète
+            ids(em, "SELECT id FROM livres WHERE auteur_id = ?1 FOR UPDATE", auteurId);
+            String livresSansCategorie = "FROM livres l WHERE l.auteur_id = ?1 AND NOT EXISTS "
+                    + "(SELECT 1 FROM livre_categorie lc WHERE lc.livre_id = l.id AND lc.categorie_id = ?2)";
+            List<Long> livres = ids(em, "SELECT l.id " + livresSansCategorie, auteurId, categorieId);
+            long rows = update(em, "INSERT INTO livre_categorie (livre_id, categorie_id) SELECT l.id, ?2 "
+                    + livresSansCategorie, auteurId, categorieId);
+            invalidation.collections(ROLE_LIVRE_CATEGORIES, livres)
+                    .tables("livre_categorie");
+            SummaryTables.recomputeCategories(em, Collections.singletonList(categorieId));
+            return rows;
+        });
+    }
+
+    // Retire une catégorie de tous les livres d'un auteur
+    public BulkUpdateReport retirerCategorie(Long auteurId, Long categorieId) {
+        return inTransaction("retirerCategorie", (em, invalidation) -> {
+            List<Long> livres = ids(em, "SELECT lc.livre_id FROM livre_categorie lc "
+                    + "JOIN livres l ON l.id = lc.livre_id WHERE l.auteur_id = ?1 AND lc.categorie_id = ?2",
+                    auteurId, categorieId);
+            long rows = update(em, "DELETE FROM livre_categorie WHERE categorie_id = ?2 "
+                    + "AND livre_id IN (SELECT id FROM livres WHERE auteur_id = ?1)", auteurId, categorieId);
+            invalidation.collections(ROLE_LIVRE_CATEGORIES, livres)
+                    .tables("livre_categorie");
+            SummaryTables.recomputeCategories(em, Collections.singletonList(categorieId));
+            return rows;
+        });
+    }
+
+    private BulkUpdateReport inTransaction(String operation, BulkOperation work) {
+        long start = System.nanoTime();
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            ScopedInvalidation invalidation = ScopedInvalidation.of(em);
+            long rows = work.execute(em, invalidation);
+            invalidation.apply();
+            em.getTransaction().commit();
+            return new BulkUpdateReport(operation, rows, invalidation.getEntityCount(),
+                    invalidation.getCollectionCount(), System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+    private static List<Long> ids(EntityManager em, String sql, Object... params) {
+        Query query = em.createNativeQuery(sql);
+        for (int i = 0; i < params.length; i++) {
+            query.setParameter(i + 1, params[i]);
+        }
+        List<Long> ids = new ArrayList<>();
+        for (Object id : query.getResultList()) {
+            ids.add(((Number) id).longValue());
+        }
+        return ids;
+    }
+
+    // Espace de requête neutre : l'invalidation des régions est laissée à ScopedInvalidation
+    private static long update(EntityManager em, String sql, Object... params) {
+        NativeQuery<?> query = em.createNativeQuery(sql).unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(ScopedInvalidation.NO_SPACE);
+        for (int i = 0; i < params.length; i++) {
+            query.setParameter(i + 1, params[i]);
+        }
+        return query.executeUpdate();
+    }
+
+    // Exécute les instructions et déclare les entrées de cache touchées ; renvoie le nombre de lignes
+    private interface BulkOperation {
+        long execute(EntityManager em, ScopedInvalidation invalidation);
+    }
+}
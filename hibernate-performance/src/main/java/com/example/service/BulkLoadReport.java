@@ -0,0 +1,62 @@
+package com.example.service;
+
+/**
+ * Résultat d'un chargement massif : nombre de lignes insérées et débit.
+ */
+public class BulkLoadReport {
+
+    private final long auteurs;
+    private final long categories;
+    private final long livres;
+    private final long liensCategories;
+    private final long durationMs;
+
+    public BulkLoadReport(long auteurs, long categories, long livres, long liensCategories, long durationMs) {
+        this.auteurs = auteurs;
+        this.categories = categories;
+        this.livres = livres;
+        this.liensCategories = liensCategories;
+        this.durationMs = durationMs;
+    }
+
+    public long getAuteurs() {
+        return auteurs;
+    }
+
+    public long getCategories() {
+        return categories;
+    }
+
+    public long getLivres() {
+        return livres;
+    }
+
+    public long getLiensCategories() {
+        return liensCategories;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    // Lignes de toutes les tables, y compris la table de jointure livre_categorie
+    public long getRows() {
+        return auteurs + categories + livres + liensCategories;
+    }
+
+    public double getRowsPerSecond() {
+        return durationMs > 0 ? getRows() * 1000.0 / durationMs : getRows();
+    }
+
+    @Override
+    public String toString() {
+        return "BulkLoadReport{" +
+                "auteurs=" + auteurs +
+                ", categories=" + categories +
+                ", livres=" + livres +
+                ", liensCategories=" + liensCategories +
+                ", durationMs=" + durationMs +
+                ", rowsPerSecond=" + String.format("%.0f", getRowsPerSecond()) +
+                '}';
+    }
+}
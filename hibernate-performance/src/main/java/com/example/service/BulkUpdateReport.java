@@ -0,0 +1,61 @@
+package com.example.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Résultat d'une mise à jour ensembliste : lignes touchées, entrées de cache retirées et débit.
+ */
+public class BulkUpdateReport {
+
+    private final String operation;
+    private final long rows;
+    private final int evictedEntities;
+    private final int evictedCollections;
+    private final long durationNanos;
+
+    public BulkUpdateReport(String operation, long rows, int evictedEntities, int evictedCollections,
+                            long durationNanos) {
+        this.operation = operation;
+        this.rows = rows;
+        this.evictedEntities = evictedEntities;
+        this.evictedCollections = evictedCollections;
+        this.durationNanos = durationNanos;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    // Lignes modifiées, insérées ou supprimées, toutes instructions confondues
+    public long getRows() {
+        return rows;
+    }
+
+    public int getEvictedEntities() {
+        return evictedEntities;
+    }
+
+    public int getEvictedCollections() {
+        return evictedCollections;
+    }
+
+    public double getDurationMs() {
+        return durationNanos / 1e6;
+    }
+
+    public double getRowsPerSecond() {
+        return durationNanos > 0 ? rows * (double) TimeUnit.SECONDS.toNanos(1) / durationNanos : rows;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkUpdateReport{" +
+                "operation='" + operation + '\'' +
+                ", rows=" + rows +
+                ", evictedEntities=" + evictedEntities +
+                ", evictedCollections=" + evictedCollections +
+                ", durationMs=" + String.format("%.1f", getDurationMs()) +
+                ", rowsPerSecond=" + String.format("%.0f", getRowsPerSecond()) +
+                '}';
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.service;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Export du catalogue des livres (avec auteur et catégories) en flux continu.
+ * Une StatelessSession et un curseur FORWARD_ONLY remplacent getResultList() :
+ * aucune entité n'est gérée, seul le livre en cours est gardé en mémoire.
+ */
+public class CatalogExportService {
+
+    public enum Format {
+        CSV, JSON_LINES
+    }
+
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+
+    // Une ligne par couple (livre, catégorie), triées par livre pour regrouper les catégories à la volée
+    private static final String EXPORT_QUERY =
+            "SELECT l.id, l.titre, l.anneePublication, l.isbn, a.nom, a.prenom, c.nom " +
+                    "FROM Livre l LEFT JOIN l.auteur a LEFT JOIN l.categories c " +
+                    "ORDER BY l.id";
+
+    private static final String CSV_HEADER = "id,titre,annee_publication,isbn,auteur,categories";
+
+    private final EntityManagerFactory emf;
+    private final int fetchSize;
+
+    public CatalogExportService(EntityManagerFactory emf) {
+        this(emf, DEFAULT_FETCH_SIZE);
+    }
+
+    public CatalogExportService(EntityManagerFactory emf, int fetchSize) {
+        this.emf = emf;
+        this.fetchSize = fetchSize;
+    }
+
+    public long export(Path file, Format format) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            return export(out, format);
+        }
+    }
+
+    // Écrit le catalogue dans le flux (qui n'est pas fermé) et retourne le nombre de livres exportés
+    public long export(OutputStream out, Format format) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        long count = 0;
+        StatelessSession session = emf.unwrap(SessionFactory.class).openStatelessSession();
+        try {
+            session.getTransaction().begin();
+            ScrollableResults rows = session.createQuery(EXPORT_QUERY)
+                    .setFetchSize(fetchSize)
+                    .setReadOnly(true)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+            try {
+                Object[] current = null;
+                List<String> categories = new ArrayList<>();
+                while (rows.next()) {
+                    Object[] row = rows.get();
+                    if (current != null && !current[0].equals(row[0])) {
+                        writeLivre(writer, format, current, categories);
+                        count++;
+                        categories.clear();
+                    }
+                    current = row;
+                    if (row[6] != null) {
+                        categories.add((String) row[6]);
+                    }
+                }
+                if (current != null) {
+                    writeLivre(writer, format, current, categories);
+                    count++;
+                }
+            } finally {
+                rows.close();
+            }
+            session.getTransaction().commit();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            if (session.getTransaction().isActive()) {
+                session.getTransaction().rollback();
+            }
+            session.close();
+        }
+
+        writer.flush();
+        return count;
+    }
+
+    private static void writeLivre(Writer writer, Format format, Object[] row, List<String> categories) {
+        String auteur = row[4] == null ? null : row[5] + " " + row[4];
+        try {
+            if (format == Format.CSV) {
+                writer.write(row[0].toString());
+                writer.write(',');
+                writer.write(csv((String) row[1]));
+                writer.write(',');
+                writer.write(row[2] == null ? "" : row[2].toString());
+                writer.write(',');
+                writer.write(csv((String) row[3]));
+                writer.write(',');
+                writer.write(csv(auteur));
+                writer.write(',');
+                writer.write(csv(String.join("|", categories)));
+            } else {
+                writer.write("{\"id\":");
+                writer.write(row[0].toString());
+                writer.write(",\"titre\":");
+                writer.write(json((String) row[1]));
+                writer.write(",\"anneePublication\":");
+                writer.write(row[2] == null ? "null" : row[2].toString());
+                writer.write(",\"isbn\":");
+                writer.write(json((String) row[3]));
+                writer.write(",\"auteur\":");
+                writer.write(json(auteur));
+                writer.write(",\"categories\":[");
+                for (int i = 0; i < categories.size(); i++) {
+                    if (i > 0) {
+                        writer.write(',');
+                    }
+                    writer.write(json(categories.get(i)));
+                }
+                writer.write("]}");
+            }
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String json(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            switch (ch) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (ch < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) ch));
+                    } else {
+                        sb.append(ch);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.service;
+
+import com.example.model.Categorie;
+import com.example.model.Livre;
+import org.hibernate.PessimisticLockException;
+import org.hibernate.StaleStateException;
+import org.hibernate.exception.LockAcquisitionException;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityNotFoundException;
+import javax.persistence.LockModeType;
+import javax.persistence.LockTimeoutException;
+import javax.persistence.OptimisticLockException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Mises à jour unitaires du catalogue, une transaction par modification.
+ * <ul>
+ * <li>OPTIMISTE : lecture sans verrou, l'UPDATE vérifie la version (@Version) ; si un autre
+ * écrivain est passé entre-temps, la transaction est annulée et la modification rejouée sur
+ * l'état relu, selon la RetryPolicy.</li>
+ * <li>PESSIMISTE : SELECT ... FOR UPDATE, les écrivains d'une même ligne passent l'un après
+ * l'autre ; seul un délai de verrou dépassé ou un interblocage est rejoué.</li>
+ * </ul>
+ * La modification peut donc s'exécuter plusieurs fois : elle doit seulement décrire le nouvel
+ * état à partir de l'entité reçue. Tentatives épuisées, la dernière exception remonte.
+ */
+public class CatalogUpdateService {
+
+    public enum Verrouillage {
+        OPTIMISTE, PESSIMISTE
+    }
+
+    private final EntityManagerFactory emf;
+    private final RetryPolicy retryPolicy;
+    private final Verrouillage verrouillage;
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    // Politique com.example.retry.* de l'EntityManagerFactory, verrouillage optimiste
+    public CatalogUpdateService(EntityManagerFactory emf) {
+        this(emf, RetryPolicy.fromProperties(emf.getProperties()), Verrouillage.OPTIMISTE);
+    }
+
+    public CatalogUpdateService(EntityManagerFactory emf, RetryPolicy retryPolicy, Verrouillage verrouillage) {
+        this.emf = emf;
+        this.retryPolicy = retryPolicy;
+        this.verrouillage = verrouillage;
+    }
+
+    public UpdateReport changerTitre(Long livreId, String titre) {
+        return modifier(Livre.class, livreId, livre -> livre.setTitre(titre));
+    }
+
+    public UpdateReport changerAnnee(Long livreId, Integer annee) {
+        return modifier(Livre.class, livreId, livre -> livre.setAnneePublication(annee));
+    }
+
+    // La collection Livre.categories fait partie de l'état versionné du livre
+    public UpdateReport ajouterCategorie(Long livreId, Long categorieId) {
+        return modifier(Livre.class, livreId, (em, livre) -> livre.addCategorie(em.find(Categorie.class, categorieId)));
+    }
+
+    public <T> UpdateReport modifier(Class<T> type, Object id, Consumer<? super T> modification) {
+        return modifier(type, id, (em, entity) -> modification.accept(entity));
+    }
+
+    private <T> UpdateReport modifier(Class<T> type, Object id, Modification<T> modification) {
+        long start = System.nanoTime();
+        for (int attempt = 1; ; attempt++) {
+            EntityManager em = emf.createEntityManager();
+            try {
+                em.getTransaction().begin();
+                T entity = verrouillage == Verrouillage.PESSIMISTE
+                        ? em.find(type, id, LockModeType.PESSIMISTIC_WRITE)
+                        : em.find(type, id);
+                if (entity == null) {
+                    throw new EntityNotFoundException(type.getSimpleName() + " introuvable : " + id);
+                }
+                modification.apply(em, entity);
+                em.getTransaction().commit();
+                commits.increment();
+                return new UpdateReport(verrouillage, attempt, System.nanoTime() - start);
+            } catch (RuntimeException e) {
+                if (em.getTransaction().isActive()) {
+                    em.getTransaction().rollback();
+                }
+                if (!isConflict(e)) {
+                    throw e;
+                }
+                conflicts.increment();
+                if (attempt >= retryPolicy.getMaxAttempts() || !pause(retryPolicy.backoffNanos(attempt))) {
+                    failures.increment();
+                    throw e;
+                }
+            } finally {
+                em.close();
+            }
+        }
+    }
+
+    // Conflit de version, verrou non obtenu à temps ou interblocage : la transaction peut être rejouée
+    public static boolean isConflict(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof OptimisticLockException || cause instanceof StaleStateException
+                    || cause instanceof LockTimeoutException || cause instanceof javax.persistence.PessimisticLockException
+                    || cause instanceof PessimisticLockException || cause instanceof LockAcquisitionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // false si le thread est interrompu pendant l'attente
+    private static boolean pause(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public Verrouillage getVerrouillage() {
+        return verrouillage;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    // Modifications validées
+    public long getCommits() {
+        return commits.sum();
+    }
+
+    // Tentatives annulées sur conflit, y compris la dernière d'une modification abandonnée
+    public long getConflicts() {
+        return conflicts.sum();
+    }
+
+    // Modifications abandonnées, tentatives épuisées
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    private interface Modification<T> {
+        void apply(EntityManager em, T entity);
+    }
+}
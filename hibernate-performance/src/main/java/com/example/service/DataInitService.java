@@ -0,0 +1,233 @@
+package com.example.service;
+
+import com.example.model.Auteur;
+import com.example.model.Categorie;
+import com.example.model.Livre;
+import com.example.model.QueryCatalog;
+import com.example.reference.CategorieRegistry;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class DataInitService {
+
+    private static final int DEFAULT_BATCH_SIZE = 50;
+
+    // Nombre de lots JDBC envoyés avant chaque commit intermédiaire
+    private static final int BATCHES_PER_TRANSACTION = 20;
+
+    private final EntityManagerFactory emf;
+
+    public DataInitService(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    public void initData() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+
+            // Création des catégories
+            Categorie roman = new Categorie("Roman", "Œuvres de fiction narrative");
+            Categorie scienceFiction = new Categorie("Science-Fiction", "Œuvres spéculatives basées sur des innovations scientifiques");
+            Categorie fantasy = new Categorie("Fantasy", "Œuvres mettant en scène un univers imaginaire");
+            Categorie policier = new Categorie("Policier", "Œuvres centrées sur la résolution d'une enquête");
+            Categorie biographie = new Categorie("Biographie", "Récits de vie de personnalités");
+
+            em.persist(roman);
+            em.persist(scienceFiction);
+            em.persist(fantasy);
+            em.persist(policier);
+            em.persist(biographie);
+
+            // Création des auteurs et de leurs livres
+            Auteur auteur1 = new Auteur("Hugo", "Victor", "victor.hugo@example.com");
+            Livre livre1 = new Livre("Les Misérables", 1862, "9782253096344");
+            livre1.setResume("L'histoire de Jean Valjean, un ancien forçat qui tente de se racheter.");
+            livre1.addCategorie(roman);
+
+            Livre livre2 = new Livre("Notre-Dame de Paris", 1831, "9782253096337");
+            livre2.setResume("L'histoire de Quasimodo, le sonneur de cloches bossu de Notre-Dame.");
+            livre2.addCategorie(roman);
+
+            auteur1.addLivre(livre1);
+            auteur1.addLivre(livre2);
+
+            Auteur auteur2 = new Auteur("Asimov", "Isaac", "isaac.asimov@example.com");
+            Livre livre3 = new Livre("Fondation", 1951, "9782070415700");
+            livre3.setResume("L'histoire de la Fondation, créée pour préserver la civilisation galactique.");
+            livre3.addCategorie(scienceFiction);
+
+            Livre livre4 = new Livre("Les Robots", 1950, "9782290055120");
+            livre4.setResume("Recueil de nouvelles sur les robots et les Trois Lois de la robotique.");
+            livre4.addCategorie(scienceFiction);
+
+            auteur2.addLivre(livre3);
+            auteur2.addLivre(livre4);
+
+            Auteur auteur3 = new Auteur("Tolkien", "J.R.R.", "jrr.tolkien@example.com");
+            Livre livre5 = new Livre("Le Seigneur des Anneaux", 1954, "9782070612888");
+            livre5.setResume("L'épopée de Frodon Sacquet pour détruire l'Anneau Unique.");
+            livre5.addCategorie(fantasy);
+
+            Livre livre6 = new Livre("Le Hobbit", 1937, "9782075134156");
+            livre6.setResume("Les aventures de Bilbon Sacquet, recruté par le magicien Gandalf.");
+            livre6.addCategorie(fantasy);
+
+            auteur3.addLivre(livre5);
+            auteur3.addLivre(livre6);
+
+            Auteur auteur4 = new Auteur("Christie", "Agatha", "agatha.christie@example.com");
+            for (int i = 1; i <= 20; i++) {
+                Livre livre = new Livre("Mystère " + i, 1920 + i, "978020000000" + i);
+                livre.setResume("Un mystère à résoudre par Hercule Poirot ou Miss Marple.");
+                livre.addCategorie(policier);
+                auteur4.addLivre(livre);
+            }
+
+            em.persist(auteur1);
+            em.persist(auteur2);
+            em.persist(auteur3);
+            em.persist(auteur4);
+
+            em.getTransaction().commit();
+            CategorieRegistry.categoriesChanged(emf);
+            System.out.println("Données initialisées avec succès !");
+
+        } catch (Exception e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            e.printStackTrace();
+        } finally {
+            em.close();
+        }
+    }
+
+    // Chargement massif d'un catalogue généré (ex. 10 000 auteurs, 1 000 000 livres, 50 catégories).
+    // Insertions en batch JDBC, flush/clear périodique pour garder le contexte de persistance petit.
+    public BulkLoadReport initBulkData(int nbAuteurs, int nbLivres, int nbCategories) {
+        return initBulkData(nbAuteurs, nbLivres, nbCategories, 3, 42L);
+    }
+
+    public BulkLoadReport initBulkData(int nbAuteurs, int nbLivres, int nbCategories,
+                                       int maxCategoriesParLivre, long seed) {
+        if (nbAuteurs <= 0 || nbCategories <= 0 || nbLivres < 0 || maxCategoriesParLivre <= 0) {
+            throw new IllegalArgumentException("Volumes invalides: auteurs=" + nbAuteurs
+                    + ", livres=" + nbLivres + ", categories=" + nbCategories);
+        }
+        int batchSize = getBatchSize();
+        Random random = new Random(seed);
+        long liens = 0;
+        long startTime = System.currentTimeMillis();
+
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+
+            List<Long> categorieIds = new ArrayList<>(nbCategories);
+            for (int i = 0; i < nbCategories; i++) {
+                Categorie categorie = new Categorie("Catégorie " + i, "Catégorie générée n°" + i);
+                em.persist(categorie);
+                categorieIds.add(categorie.getId());
+                flushPeriodically(em, i + 1, batchSize);
+            }
+            flushAndClear(em);
+            // Catégories validées avant d'être référencées : Hibernate traite le chargement d'une entité
+            // insérée dans la transaction en cours comme une mise à jour du cache, refusée en READ_ONLY
+            em.getTransaction().commit();
+            em.getTransaction().begin();
+
+            List<Long> auteurIds = new ArrayList<>(nbAuteurs);
+            for (int i = 0; i < nbAuteurs; i++) {
+                Auteur auteur = new Auteur("Nom" + i, "Prénom" + i, "auteur" + i + "@bulk.example.com");
+                em.persist(auteur);
+                auteurIds.add(auteur.getId());
+                flushPeriodically(em, i + 1, batchSize);
+            }
+            flushAndClear(em);
+
+            for (int i = 0; i < nbLivres; i++) {
+                Livre livre = new Livre("Livre " + i, 1800 + random.nextInt(225), String.format("B%012d", i));
+                livre.setResume("Résumé généré du livre " + i + ".");
+                // Côté propriétaire uniquement : la collection inverse Auteur.livres n'est pas
+                // chargée, sinon la mémoire grossit avec le catalogue
+                livre.setAuteur(em.getReference(Auteur.class, auteurIds.get(skewed(random, nbAuteurs))));
+                int nbLiens = 1 + random.nextInt(Math.min(maxCategoriesParLivre, nbCategories));
+                while (livre.getCategories().size() < nbLiens) {
+                    livre.getCategories().add(
+                            em.getReference(Categorie.class, categorieIds.get(skewed(random, nbCategories))));
+                }
+                liens += nbLiens;
+                em.persist(livre);
+
+                if ((i + 1) % batchSize == 0) {
+                    flushAndClear(em);
+                    if ((i + 1) % (batchSize * BATCHES_PER_TRANSACTION) == 0) {
+                        em.getTransaction().commit();
+                        em.getTransaction().begin();
+                    }
+                }
+            }
+
+            em.getTransaction().commit();
+        } catch (RuntimeException e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+        CategorieRegistry.categoriesChanged(emf);
+
+        BulkLoadReport report = new BulkLoadReport(nbAuteurs, nbCategories, nbLivres, liens,
+                System.currentTimeMillis() - startTime);
+        System.out.println("Chargement massif terminé : " + report);
+        return report;
+    }
+
+    private int getBatchSize() {
+        Object value = emf.getProperties().get("hibernate.jdbc.batch_size");
+        return value != null ? Math.max(1, Integer.parseInt(value.toString())) : DEFAULT_BATCH_SIZE;
+    }
+
+    private static void flushPeriodically(EntityManager em, int count, int batchSize) {
+        if (count % batchSize == 0) {
+            flushAndClear(em);
+        }
+    }
+
+    private static void flushAndClear(EntityManager em) {
+        em.flush();
+        em.clear();
+    }
+
+    // Distribution biaisée vers les premiers indices : quelques auteurs et catégories très fournis
+    private static int skewed(Random random, int bound) {
+        double r = random.nextDouble();
+        return (int) (bound * r * r);
+    }
+
+    public List<Auteur> getAuteurs() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createNamedQuery(QueryCatalog.AUTEUR_FIND_ALL, Auteur.class).getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    public List<Categorie> getCategories() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createNamedQuery(QueryCatalog.CATEGORIE_FIND_ALL, Categorie.class).getResultList();
+        } finally {
+            em.close();
+        }
+    }
+}
\ No newline at end of file
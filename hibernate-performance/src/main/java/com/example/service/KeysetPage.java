@@ -0,0 +1,39 @@
+package com.example.service;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Page d'une pagination par clé : le contenu et l'indication d'une page suivante.
+ * La page suivante se demande avec la clé du dernier élément du contenu.
+ */
+public class KeysetPage<T> {
+
+    private final List<T> content;
+    private final boolean hasNext;
+
+    public KeysetPage(List<T> content, boolean hasNext) {
+        this.content = Collections.unmodifiableList(content);
+        this.hasNext = hasNext;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    public T getLast() {
+        return content.isEmpty() ? null : content.get(content.size() - 1);
+    }
+
+    @Override
+    public String toString() {
+        return "KeysetPage{" +
+                "size=" + content.size() +
+                ", hasNext=" + hasNext +
+                '}';
+    }
+}
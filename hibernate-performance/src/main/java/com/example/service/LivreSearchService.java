@@ -0,0 +1,101 @@
+package com.example.service;
+
+import com.example.model.Livre;
+import com.example.search.LivreIndexLoader;
+import com.example.search.LivreSearchIndex;
+import com.example.search.SearchResult;
+import org.hibernate.SessionFactory;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Recherche de livres par mots du titre ou du résumé. L'index en mémoire
+ * (com.example.search) évite le LIKE '%mot%' qui parcourt toute la table ;
+ * la base ne sert plus qu'à charger la page de livres trouvée.
+ */
+public class LivreSearchService {
+
+    private final EntityManagerFactory emf;
+    private final LivreSearchIndex index;
+
+    public LivreSearchService(EntityManagerFactory emf) {
+        this.emf = emf;
+        this.index = LivreSearchIndex.of(emf);
+    }
+
+    // Identifiants classés par pertinence, page numérotée à partir de 0
+    public SearchResult search(String query, int page, int size) {
+        return index.search(query, page, size);
+    }
+
+    // Livres de la page, dans l'ordre du classement
+    public List<Livre> findLivres(String query, int page, int size) {
+        SearchResult result = index.search(query, page, size);
+        if (result.getIds().isEmpty()) {
+            return Collections.emptyList();
+        }
+        EntityManager em = emf.createEntityManager();
+        try {
+            Map<Long, Livre> byId = new HashMap<>();
+            for (Livre livre : em.createQuery("SELECT l FROM Livre l WHERE l.id IN :ids", Livre.class)
+                    .setParameter("ids", result.getIds())
+                    .getResultList()) {
+                byId.put(livre.getId(), livre);
+            }
+            List<Livre> livres = new ArrayList<>(result.getIds().size());
+            for (Long id : result.getIds()) {
+                Livre livre = byId.get(id);
+                if (livre != null) { // supprimé depuis la recherche
+                    livres.add(livre);
+                }
+            }
+            return livres;
+        } finally {
+            em.close();
+        }
+    }
+
+    // Recherche historique, conservée comme référence : chaque mot en LIKE '%mot%' sur
+    // le titre ou le résumé, combinés par ET. Parcours complet de la table, accents non repliés
+    public List<Long> searchWithLike(String query, int page, int size) {
+        String[] words = query.trim().toLowerCase(Locale.ROOT).split("\\s+");
+        StringBuilder jpql = new StringBuilder("SELECT l.id FROM Livre l WHERE ");
+        for (int i = 0; i < words.length; i++) {
+            if (i > 0) {
+                jpql.append(" AND ");
+            }
+            jpql.append("(lower(l.titre) LIKE :p").append(i).append(" OR lower(l.resume) LIKE :p").append(i).append(')');
+        }
+        jpql.append(" ORDER BY l.id");
+
+        EntityManager em = emf.createEntityManager();
+        try {
+            TypedQuery<Long> typed = em.createQuery(jpql.toString(), Long.class);
+            for (int i = 0; i < words.length; i++) {
+                typed.setParameter("p" + i, "%" + words[i] + "%");
+            }
+            return typed.setFirstResult(page * size)
+                    .setMaxResults(size)
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Reconstruit l'index depuis la base, après des mises à jour en masse qui contournent
+     * les écouteurs (au démarrage, LivreSearchIntegrator s'en charge). Les recherches restent
+     * servies par l'ancien index pendant la lecture. Retourne le nombre de livres indexés.
+     */
+    public int rebuildIndex() {
+        return LivreIndexLoader.rebuild(emf.unwrap(SessionFactory.class), index);
+    }
+}
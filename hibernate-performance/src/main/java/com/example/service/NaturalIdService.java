@@ -0,0 +1,93 @@
+package com.example.service;
+
+import com.example.model.Auteur;
+import com.example.model.Livre;
+import org.hibernate.Session;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityNotFoundException;
+
+/**
+ * Recherche par clé métier (Livre.isbn, Auteur.email) via l'API natural-id de Hibernate :
+ * la résolution clé -> id vient du cache natural-id, puis l'entité du cache de second niveau.
+ * Une seconde recherche sur la même clé n'exécute donc aucune requête SQL.
+ * Un changement de clé par une mise à jour d'entité remplace l'ancienne résolution au commit.
+ */
+public class NaturalIdService {
+
+    private final EntityManagerFactory emf;
+
+    public NaturalIdService(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    // null si aucun livre ne porte cet ISBN
+    public Livre findLivreByIsbn(String isbn) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return findLivreByIsbn(em, isbn);
+        } finally {
+            em.close();
+        }
+    }
+
+    public Auteur findAuteurByEmail(String email) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return findAuteurByEmail(em, email);
+        } finally {
+            em.close();
+        }
+    }
+
+    // Variantes dans un EntityManager fourni par l'appelant
+    public static Livre findLivreByIsbn(EntityManager em, String isbn) {
+        return em.unwrap(Session.class).bySimpleNaturalId(Livre.class).load(isbn);
+    }
+
+    public static Auteur findAuteurByEmail(EntityManager em, String email) {
+        return em.unwrap(Session.class).bySimpleNaturalId(Auteur.class).load(email);
+    }
+
+    // Le flush met à jour la ligne ; le commit remplace la résolution de l'ancien ISBN par le nouveau
+    public void changerIsbn(Long livreId, String nouvelIsbn) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            find(em, Livre.class, livreId).setIsbn(nouvelIsbn);
+            em.getTransaction().commit();
+        } catch (RuntimeException e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+    public void changerEmail(Long auteurId, String nouvelEmail) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            find(em, Auteur.class, auteurId).setEmail(nouvelEmail);
+            em.getTransaction().commit();
+        } catch (RuntimeException e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+    private static <T> T find(EntityManager em, Class<T> type, Long id) {
+        T entity = em.find(type, id);
+        if (entity == null) {
+            throw new EntityNotFoundException(type.getSimpleName() + " introuvable : " + id);
+        }
+        return entity;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.service;
+
+import com.example.model.Auteur;
+import com.example.model.Livre;
+import com.example.model.QueryCatalog;
+
+import javax.persistence.EntityGraph;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pagination par clé (seek) : la page suivante reprend après la clé du dernier
+ * élément au lieu de sauter N lignes avec OFFSET, le coût reste donc le même
+ * quelle que soit la profondeur. Passer des clés nulles pour la première page.
+ */
+public class PaginationService {
+
+    private static final Comparator<Livre> ORDRE_LIVRES = Comparator
+            .comparing(Livre::getAnneePublication)
+            .thenComparing(Livre::getId);
+
+    private final EntityManagerFactory emf;
+
+    public PaginationService(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    // Livres triés par (anneePublication, id) ; les livres sans année ne sont pas paginés
+    public KeysetPage<Livre> getLivres(Integer lastAnnee, Long lastId, int size) {
+        requireKey("lastAnnee", lastAnnee, lastId);
+        EntityManager em = emf.createEntityManager();
+        try {
+            return toPage(livresQuery(em, "SELECT l FROM Livre l", Livre.class, lastAnnee, lastId, size)
+                    .getResultList(), size);
+        } finally {
+            em.close();
+        }
+    }
+
+    // Même pagination, auteur et catégories chargés avec l'entity graph "graph.Livre.categoriesEtAuteur".
+    // Les clés de la page sont d'abord lues par index, puis les livres sont chargés avec le graphe
+    // en une seule requête : setMaxResults sur un fetch de collection serait appliqué en mémoire.
+    public KeysetPage<Livre> getLivresWithGraph(Integer lastAnnee, Long lastId, int size) {
+        requireKey("lastAnnee", lastAnnee, lastId);
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<Long> ids = livresQuery(em, "SELECT l.id FROM Livre l", Long.class,
+                    lastAnnee, lastId, size).getResultList();
+            boolean hasNext = ids.size() > size;
+            if (hasNext) {
+                ids = ids.subList(0, size);
+            }
+            if (ids.isEmpty()) {
+                return new KeysetPage<>(Collections.<Livre>emptyList(), false);
+            }
+
+            EntityGraph<?> graph = em.getEntityGraph(QueryCatalog.GRAPH_LIVRE_CATEGORIES_ET_AUTEUR);
+            List<Livre> livres = new ArrayList<>(em.createQuery(
+                            "SELECT DISTINCT l FROM Livre l WHERE l.id IN :ids", Livre.class)
+                    .setParameter("ids", ids)
+                    .setHint("javax.persistence.fetchgraph", graph)
+                    .getResultList());
+            livres.sort(ORDRE_LIVRES);
+            return new KeysetPage<>(livres, hasNext);
+        } finally {
+            em.close();
+        }
+    }
+
+    // Auteurs triés par (nom, id)
+    public KeysetPage<Auteur> getAuteurs(String lastNom, Long lastId, int size) {
+        requireKey("lastNom", lastNom, lastId);
+        EntityManager em = emf.createEntityManager();
+        try {
+            TypedQuery<Auteur> query;
+            if (lastNom == null) {
+                query = em.createQuery("SELECT a FROM Auteur a ORDER BY a.nom, a.id", Auteur.class);
+            } else {
+                query = em.createQuery(
+                                "SELECT a FROM Auteur a " +
+                                        "WHERE a.nom > :nom OR (a.nom = :nom AND a.id > :id) " +
+                                        "ORDER BY a.nom, a.id", Auteur.class)
+                        .setParameter("nom", lastNom)
+                        .setParameter("id", lastId);
+            }
+            return toPage(query.setMaxResults(size + 1).getResultList(), size);
+        } finally {
+            em.close();
+        }
+    }
+
+    private static <T> TypedQuery<T> livresQuery(EntityManager em, String select, Class<T> type,
+                                                 Integer lastAnnee, Long lastId, int size) {
+        Map<String, Object> params = new HashMap<>();
+        String where = " WHERE l.anneePublication IS NOT NULL";
+        if (lastAnnee != null) {
+            where = " WHERE l.anneePublication > :annee OR (l.anneePublication = :annee AND l.id > :id)";
+            params.put("annee", lastAnnee);
+            params.put("id", lastId);
+        }
+        TypedQuery<T> query = em.createQuery(select + where + " ORDER BY l.anneePublication, l.id", type);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(size + 1);
+    }
+
+    // Clé de reprise complète ou absente : une moitié seule reprendrait au mauvais endroit
+    private static void requireKey(String name, Object last, Long lastId) {
+        if ((last == null) != (lastId == null)) {
+            throw new IllegalArgumentException("Clé de page incomplète : " + name + "=" + last + ", lastId=" + lastId);
+        }
+    }
+
+    // Une ligne de plus que la taille demandée indique l'existence d'une page suivante
+    private static <T> KeysetPage<T> toPage(List<T> rows, int size) {
+        boolean hasNext = rows.size() > size;
+        return new KeysetPage<>(hasNext ? rows.subList(0, size) : rows, hasNext);
+    }
+}
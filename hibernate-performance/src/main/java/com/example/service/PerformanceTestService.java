@@ -0,0 +1,429 @@
+package com.example.service;
+
+import com.example.dto.CategorieDecennieCount;
+import com.example.model.Auteur;
+import com.example.model.Categorie;
+import com.example.model.Livre;
+import com.example.model.QueryCatalog;
+import com.example.monitoring.MetricsSnapshot;
+import com.example.monitoring.PersistenceMetrics;
+import com.example.monitoring.StatementSnapshot;
+import com.example.monitoring.UnitOfWorkListener;
+import com.example.monitoring.UnitOfWorkReport;
+import com.example.reference.CategorieRegistry;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+import javax.persistence.*;
+import java.util.List;
+
+public class PerformanceTestService {
+
+    private final EntityManagerFactory emf;
+
+    public PerformanceTestService(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    // Point de départ de la mesure en cours ; les statistiques globales ne sont plus remises à zéro
+    private MetricsSnapshot debut;
+
+    public void resetStatistics() {
+        debut = PersistenceMetrics.snapshot(emf);
+    }
+
+    public void printStatistics(String testName) {
+        MetricsSnapshot stats = PersistenceMetrics.snapshot(emf).minus(debut);
+        long hits = stats.getCounter("second_level_cache_hits_total");
+        long miss = stats.getCounter("second_level_cache_misses_total");
+
+        System.out.println("\n=== Statistiques pour " + testName + " ===");
+        System.out.println("Requêtes exécutées: " + stats.getCounter("query_executions_total"));
+        System.out.println("Instructions SQL exécutées: " + stats.getStatementCount());
+        for (StatementSnapshot statement : stats.getStatements().values()) {
+            System.out.println("  " + statement);
+        }
+        System.out.println("Entités chargées: " + stats.getCounter("entity_loads_total"));
+        System.out.println("Cache de plans HQL: " + stats.getCounter("query_plan_cache_hits_total") + " hits, "
+                + stats.getCounter("query_plan_cache_misses_total") + " miss, compilation "
+                + stats.getCounter("query_plan_compile_microseconds_total") + " µs");
+        System.out.println("Pool de connexions: " + stats.getCounter("pool_acquire_total") + " acquisitions, attente "
+                + stats.getCounter("pool_acquire_wait_microseconds_total") + " µs, "
+                + stats.getCounter("pool_acquire_timeouts_total") + " timeouts");
+        System.out.println("Cache natural-id: " + stats.getCounter("natural_id_cache_hits_total") + " hits, "
+                + stats.getCounter("natural_id_cache_misses_total") + " miss, "
+                + stats.getCounter("natural_id_queries_total") + " résolutions SQL");
+        System.out.println("Cache de requêtes: " + stats.getCounter("query_cache_hits_total") + " hits, "
+                + stats.getCounter("query_cache_misses_total") + " miss");
+        System.out.println("Cache de résultats: " + stats.getCounter("result_cache_hits_total") + " hits, "
+                + stats.getCounter("result_cache_misses_total") + " miss, "
+                + stats.getCounter("result_cache_invalidations_total") + " invalidations");
+        System.out.println("Hits du cache de second niveau: " + hits);
+        System.out.println("Miss du cache de second niveau: " + miss);
+        System.out.println("Ratio de hit du cache: " + (hits + miss > 0 ? (double) hits / (hits + miss) : 0));
+
+        // Bilan du dernier EntityManager fermé du scénario (détecteur N+1)
+        UnitOfWorkReport report = UnitOfWorkListener.lastReport();
+        if (report != null) {
+            System.out.println("Budget SQL: " + (report.isWithinBudget() ? "respecté" : "dépassé " + report.getViolations()));
+        }
+    }
+
+    // Test 1: Problème N+1 sans optimisation
+    public void testN1Problem() {
+        resetStatistics();
+        long startTime = System.currentTimeMillis();
+
+        EntityManager em = emf.createEntityManager();
+        try {
+            // Récupération de tous les auteurs
+            List<Auteur> auteurs = em.createNamedQuery(QueryCatalog.AUTEUR_FIND_ALL, Auteur.class)
+                    .getResultList();
+
+            // Pour chaque auteur, accès à ses livres (génère des requêtes N+1)
+            for (Auteur auteur : auteurs) {
+                System.out.println("Auteur: " + auteur.getNom() + " " + auteur.getPrenom());
+                System.out.println("Nombre de livres: " + auteur.getLivres().size());
+
+                // Accès aux détails des livres
+                for (Livre livre : auteur.getLivres()) {
+                    System.out.println("  - " + livre.getTitre() + " (" + livre.getAnneePublication() + ")");
+                    // Accès aux catégories (génère encore plus de requêtes)
+                    System.out.println("    Catégories: " + livre.getCategories().size());
+                }
+            }
+
+        } finally {
+            em.close();
+        }
+
+        long endTime = System.currentTimeMillis();
+        System.out.println("Temps d'exécution: " + (endTime - startTime) + "ms");
+        printStatistics("Problème N+1 sans optimisation");
+    }
+
+    // Test 2: Résolution du problème N+1 avec JOIN FETCH
+    public void testJoinFetch() {
+        resetStatistics();
+        long startTime = System.currentTimeMillis();
+
+        EntityManager em = emf.createEntityManager();
+        try {
+            // Récupération des auteurs avec leurs livres en une seule requête
+            List<Auteur> auteurs = em.createNamedQuery(QueryCatalog.AUTEUR_FIND_ALL_WITH_LIVRES, Auteur.class)
+                    .getResultList();
+
+            // Pour chaque auteur, accès à ses livres (déjà chargés)
+            for (Auteur auteur : auteurs) {
+                System.out.println("Auteur: " + auteur.getNom() + " " + auteur.getPrenom());
+                System.out.println("Nombre de livres: " + auteur.getLivres().size());
+
+                // Accès aux détails des livres
+                for (Livre livre : auteur.getLivres()) {
+                    System.out.println("  - " + livre.getTitre() + " (" + livre.getAnneePublication() + ")");
+                    // Accès aux catégories (génère encore des requêtes N+1)
+                    System.out.println("    Catégories: " + livre.getCategories().size());
+                }
+            }
+
+        } finally {
+            em.close();
+        }
+
+        long endTime = System.currentTimeMillis();
+        System.out.println("Temps d'exécution: " + (endTime - startTime) + "ms");
+        printStatistics("Résolution avec JOIN FETCH");
+    }
+
+    // Test 3: Résolution du problème N+1 avec Entity Graphs
+    public void testEntityGraph() {
+        resetStatistics();
+        long startTime = System.currentTimeMillis();
+
+        EntityManager em = emf.createEntityManager();
+        try {
+            // Utilisation d'un entity graph nommé
+            EntityGraph<?> graph = em.getEntityGraph(QueryCatalog.GRAPH_LIVRE_CATEGORIES_ET_AUTEUR);
+
+            // Récupération des livres avec leurs catégories et auteurs en une seule requête
+            List<Livre> livres = em.createNamedQuery(QueryCatalog.LIVRE_FIND_ALL, Livre.class)
+                    .setHint("javax.persistence.fetchgraph", graph)
+                    .getResultList();
+
+            // Accès aux détails des livres
+            for (Livre livre : livres) {
+                System.out.println("Livre: " + livre.getTitre() + " (" + livre.getAnneePublication() + ")");
+                System.out.println("  Auteur: " + livre.getAuteur().getNom() + " " + livre.getAuteur().getPrenom());
+                System.out.println("  Catégories: " + livre.getCategories().size());
+            }
+
+        } finally {
+            em.close();
+        }
+
+        long endTime = System.currentTimeMillis();
+        System.out.println("Temps d'exécution: " + (endTime - startTime) + "ms");
+        printStatistics("Résolution avec Entity Graphs");
+    }
+
+    // Test 4: Test du cache de second niveau
+    public void testSecondLevelCache() {
+        System.out.println("\n=== Test du cache de second niveau ===");
+
+        // Premier accès (miss du cache)
+        resetStatistics();
+        System.out.println("\nPremier accès (miss du cache):");
+        EntityManager em1 = emf.createEntityManager();
+        try {
+            Auteur auteur = em1.find(Auteur.class, 1L);
+            System.out.println("Auteur trouvé: " + auteur.getNom() + " " + auteur.getPrenom());
+        } finally {
+            em1.close();
+        }
+        printStatistics("Premier accès");
+
+        // Deuxième accès (hit du cache)
+        resetStatistics();
+        System.out.println("\nDeuxième accès (hit du cache):");
+        EntityManager em2 = emf.createEntityManager();
+        try {
+            Auteur auteur = em2.find(Auteur.class, 1L);
+            System.out.println("Auteur trouvé: " + auteur.getNom() + " " + auteur.getPrenom());
+        } finally {
+            em2.close();
+        }
+        printStatistics("Deuxième accès");
+
+        // Test avec une requête cachée
+        System.out.println("\nTest avec une requête cachée:");
+
+        // Premier accès à la requête
+        resetStatistics();
+        System.out.println("\nPremier accès à la requête:");
+        EntityManager em3 = emf.createEntityManager();
+        try {
+            TypedQuery<Auteur> query = em3.createNamedQuery(QueryCatalog.AUTEUR_FIND_BY_NOM, Auteur.class)
+                    .setParameter("nom", "Hugo")
+                    .setHint("org.hibernate.cacheable", "true");
+
+            List<Auteur> auteurs = query.getResultList();
+            for (Auteur auteur : auteurs) {
+                System.out.println("Auteur trouvé: " + auteur.getNom() + " " + auteur.getPrenom());
+            }
+        } finally {
+            em3.close();
+        }
+        printStatistics("Premier accès à la requête");
+
+        // Deuxième accès à la requête
+        resetStatistics();
+        System.out.println("\nDeuxième accès à la requête:");
+        EntityManager em4 = emf.createEntityManager();
+        try {
+            TypedQuery<Auteur> query = em4.createNamedQuery(QueryCatalog.AUTEUR_FIND_BY_NOM, Auteur.class)
+                    .setParameter("nom", "Hugo")
+                    .setHint("org.hibernate.cacheable", "true");
+
+            List<Auteur> auteurs = query.getResultList();
+            for (Auteur auteur : auteurs) {
+                System.out.println("Auteur trouvé: " + auteur.getNom() + " " + auteur.getPrenom());
+            }
+        } finally {
+            em4.close();
+        }
+        printStatistics("Deuxième accès à la requête");
+    }
+
+    // Test 5: Comparaison des performances avec et sans cache
+    public void testPerformanceComparison() {
+        System.out.println("\n=== Comparaison des performances avec et sans cache ===");
+
+        // Test sans cache (désactivé temporairement)
+        EntityManager em = emf.createEntityManager();
+        try {
+            // Désactiver le cache pour ce test
+            em.unwrap(Session.class).getSessionFactory().getCache().evictAllRegions();
+
+            System.out.println("\nTest sans cache:");
+            long startTime = System.currentTimeMillis();
+
+            for (int i = 0; i < 100; i++) {
+                Auteur auteur = em.find(Auteur.class, (i % 4) + 1L);
+                // Forcer le chargement des livres
+                auteur.getLivres().size();
+            }
+
+            long endTime = System.currentTimeMillis();
+            System.out.println("Temps d'exécution sans cache: " + (endTime - startTime) + "ms");
+
+        } finally {
+            em.close();
+        }
+
+        // Test avec cache
+        System.out.println("\nTest avec cache:");
+        resetStatistics();
+        long startTime = System.currentTimeMillis();
+
+        for (int i = 0; i < 100; i++) {
+            EntityManager em2 = emf.createEntityManager();
+            try {
+                Auteur auteur = em2.find(Auteur.class, (i % 4) + 1L);
+                // Forcer le chargement des livres
+                auteur.getLivres().size();
+            } finally {
+                em2.close();
+            }
+        }
+
+        long endTime = System.currentTimeMillis();
+        System.out.println("Temps d'exécution avec cache: " + (endTime - startTime) + "ms");
+        printStatistics("Test avec cache");
+    }
+
+    // Test 6: Recherche par clé métier (natural id) et invalidation au changement d'ISBN
+    public void testNaturalIdCache() {
+        System.out.println("\n=== Recherche par ISBN (natural id) ===");
+        NaturalIdService naturalIds = new NaturalIdService(emf);
+        String isbn = "9782253096344";
+        // persist a déjà placé la résolution en cache : on la retire pour observer le premier accès
+        emf.unwrap(SessionFactory.class).getCache().evictNaturalIdData(Livre.class);
+
+        resetStatistics();
+        Livre livre = naturalIds.findLivreByIsbn(isbn);
+        System.out.println("Livre trouvé: " + livre.getTitre());
+        printStatistics("Premier accès par ISBN");
+
+        // Résolution ISBN -> id et entité servies par le cache : aucune requête SQL
+        resetStatistics();
+        livre = naturalIds.findLivreByIsbn(isbn);
+        System.out.println("Livre trouvé: " + livre.getTitre());
+        printStatistics("Deuxième accès par ISBN");
+
+        String nouvelIsbn = isbn + "-2";
+        naturalIds.changerIsbn(livre.getId(), nouvelIsbn);
+        resetStatistics();
+        System.out.println("Ancien ISBN: " + naturalIds.findLivreByIsbn(isbn)
+                + ", nouvel ISBN: " + naturalIds.findLivreByIsbn(nouvelIsbn).getTitre());
+        printStatistics("Après changement d'ISBN");
+        naturalIds.changerIsbn(livre.getId(), isbn);
+    }
+
+    // Test 7: Rapports par agrégation directe et par tables de synthèse, avant et après modifications
+    public void testReporting() {
+        ReportingService reporting = new ReportingService(emf);
+        resetStatistics();
+        List<CategorieDecennieCount> enDirect = reporting.getLivresParCategorieEtDecennieEnDirect();
+        enDirect.forEach(System.out::println);
+        printStatistics("Livres par catégorie et décennie (GROUP BY)");
+        if (!reporting.isSummaryEnabled()) {
+            System.out.println("Tables de synthèse désactivées");
+            return;
+        }
+
+        resetStatistics();
+        System.out.println("Synthèse cohérente: " + coherent(reporting));
+        printStatistics("Livres par catégorie et décennie (tables de synthèse)");
+
+        // Changement d'année et de catégories, nouveau livre : les variations sont appliquées au commit
+        CategorieRegistry categories = CategorieRegistry.of(emf);
+        EntityManager em = emf.createEntityManager();
+        Long nouveauLivre;
+        try {
+            em.getTransaction().begin();
+            Livre hobbit = NaturalIdService.findLivreByIsbn(em, "9782075134156");
+            hobbit.setAnneePublication(1962);
+            Categorie roman = categories.attach(em, "Roman");
+            hobbit.addCategorie(roman);
+            Livre livre = new Livre("Le Silmarillion", 1977, "9782266121026");
+            livre.setAuteur(hobbit.getAuteur());
+            livre.addCategorie(roman);
+            em.persist(livre);
+            em.getTransaction().commit();
+            nouveauLivre = livre.getId();
+        } finally {
+            em.close();
+        }
+        System.out.println("Après modifications, synthèse cohérente: " + coherent(reporting));
+
+        em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            Livre hobbit = NaturalIdService.findLivreByIsbn(em, "9782075134156");
+            hobbit.setAnneePublication(1937);
+            hobbit.removeCategorie(categories.attach(em, "Roman"));
+            em.remove(em.find(Livre.class, nouveauLivre));
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+        System.out.println("Après retour à l'état initial, synthèse cohérente: " + coherent(reporting));
+    }
+
+    // Test 8: Cache de résultats applicatif face au cache de requêtes sous modifications
+    public void testResultCache() {
+        ResultCacheService results = new ResultCacheService(emf);
+        CatalogUpdateService updates = new CatalogUpdateService(emf);
+        rechercherHugo(results);
+        resetStatistics();
+        rechercherHugo(results);
+        printStatistics("Recherche par nom, deuxième accès");
+
+        // Toute modification d'un auteur invalide le cache de requêtes ; le cache de résultats
+        // ne retire que les recherches sur un nom changé
+        Long tolkien = new NaturalIdService(emf).findAuteurByEmail("jrr.tolkien@example.com").getId();
+        updates.modifier(Auteur.class, tolkien, auteur -> auteur.setPrenom("John Ronald Reuel"));
+        resetStatistics();
+        rechercherHugo(results);
+        printStatistics("Après modification d'un autre auteur");
+
+        // Un nouvel auteur du même nom change le résultat : l'entrée est retirée au commit
+        EntityManager em = emf.createEntityManager();
+        Long adele;
+        try {
+            em.getTransaction().begin();
+            Auteur auteur = new Auteur("Hugo", "Adèle", "adele.hugo@example.com");
+            em.persist(auteur);
+            em.getTransaction().commit();
+            adele = auteur.getId();
+        } finally {
+            em.close();
+        }
+        resetStatistics();
+        rechercherHugo(results);
+        printStatistics("Après ajout d'un auteur du même nom");
+
+        em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            em.remove(em.find(Auteur.class, adele));
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+        updates.modifier(Auteur.class, tolkien, auteur -> auteur.setPrenom("J.R.R."));
+        System.out.println(results.getCache().statistics());
+    }
+
+    private void rechercherHugo(ResultCacheService results) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            int parCacheDeRequetes = em.createNamedQuery(QueryCatalog.AUTEUR_FIND_BY_NOM, Auteur.class)
+                    .setParameter("nom", "Hugo")
+                    .setHint("org.hibernate.cacheable", "true")
+                    .getResultList().size();
+            int parCacheDeResultats = results.findAuteursByNom(em, "Hugo").size();
+            System.out.println("Auteurs nommés Hugo: " + parCacheDeRequetes + " (cache de requêtes), "
+                    + parCacheDeResultats + " (cache de résultats)");
+        } finally {
+            em.close();
+        }
+    }
+
+    private static boolean coherent(ReportingService reporting) {
+        return reporting.getLivresParCategorieEtDecennieDepuisResume().toString()
+                .equals(reporting.getLivresParCategorieEtDecennieEnDirect().toString())
+                && reporting.getLivresParAuteurDepuisResume().toString()
+                .equals(reporting.getLivresParAuteurEnDirect().toString());
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.service;
+
+import com.example.dto.AuteurLivresCount;
+import com.example.dto.LivreCategories;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Tuple;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Requêtes de lecture pour les écrans de liste : projections immuables au lieu
+ * d'entités gérées (pas d'hydratation, de snapshot ni de dirty checking).
+ */
+public class ProjectionQueryService {
+
+    private final EntityManagerFactory emf;
+
+    public ProjectionQueryService(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    // Nom de l'auteur et nombre de livres, agrégé par la base
+    public List<AuteurLivresCount> getAuteursAvecNombreLivres() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery(
+                            "SELECT NEW com.example.dto.AuteurLivresCount(a.id, a.nom, a.prenom, COUNT(l)) " +
+                                    "FROM Auteur a LEFT JOIN a.livres l " +
+                                    "GROUP BY a.id, a.nom, a.prenom " +
+                                    "ORDER BY a.nom, a.id", AuteurLivresCount.class)
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    // Titre et noms des catégories : une ligne par couple (livre, catégorie), regroupées dans l'ordre des ids
+    public List<LivreCategories> getLivresAvecCategories() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<Tuple> rows = em.createQuery(
+                            "SELECT l.id AS id, l.titre AS titre, c.nom AS categorie " +
+                                    "FROM Livre l LEFT JOIN l.categories c " +
+                                    "ORDER BY l.id", Tuple.class)
+                    .getResultList();
+
+            List<LivreCategories> livres = new ArrayList<>();
+            Long currentId = null;
+            String currentTitre = null;
+            List<String> categories = new ArrayList<>();
+            for (Tuple row : rows) {
+                Long id = row.get("id", Long.class);
+                if (currentId != null && !currentId.equals(id)) {
+                    livres.add(new LivreCategories(currentId, currentTitre, categories));
+                    categories = new ArrayList<>();
+                }
+                currentId = id;
+                currentTitre = row.get("titre", String.class);
+                String categorie = row.get("categorie", String.class);
+                if (categorie != null) {
+                    categories.add(categorie);
+                }
+            }
+            if (currentId != null) {
+                livres.add(new LivreCategories(currentId, currentTitre, categories));
+            }
+            return livres;
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.service;
+
+import com.example.dto.AuteurLivresCount;
+import com.example.dto.CategorieDecennieCount;
+import com.example.reporting.ReportingIntegrator;
+import com.example.reporting.SummaryTables;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rapports du catalogue : livres par catégorie et décennie de publication, livres par auteur.
+ * Deux sources : agrégation GROUP BY à la demande sur les tables de livres, ou lecture des
+ * tables de synthèse (SummaryTables) quand com.example.reporting.summary.enabled=true.
+ * Les livres sans année de publication ne sont pas comptés par décennie.
+ */
+public class ReportingService {
+
+    private final EntityManagerFactory emf;
+
+    public ReportingService(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    public boolean isSummaryEnabled() {
+        return SummaryTables.isEnabled(emf);
+    }
+
+    // Tables de synthèse si elles sont actives, agrégation à la demande sinon
+    public List<CategorieDecennieCount> getLivresParCategorieEtDecennie() {
+        return isSummaryEnabled() ? getLivresParCategorieEtDecennieDepuisResume() : getLivresParCategorieEtDecennieEnDirect();
+    }
+
+    public List<AuteurLivresCount> getLivresParAuteur() {
+        return isSummaryEnabled() ? getLivresParAuteurDepuisResume() : getLivresParAuteurEnDirect();
+    }
+
+    // Un passage sur livre_categorie x livres à chaque appel
+    public List<CategorieDecennieCount> getLivresParCategorieEtDecennieEnDirect() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery(
+                            "SELECT NEW com.example.dto.CategorieDecennieCount(c.id, c.nom, " +
+                                    "(l.anneePublication / 10) * 10, COUNT(l)) " +
+                                    "FROM Livre l JOIN l.categories c " +
+                                    "WHERE l.anneePublication IS NOT NULL " +
+                                    "GROUP BY c.id, c.nom, (l.anneePublication / 10) * 10 " +
+                                    "ORDER BY c.nom, (l.anneePublication / 10) * 10", CategorieDecennieCount.class)
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    public List<AuteurLivresCount> getLivresParAuteurEnDirect() {
+        return new ProjectionQueryService(emf).getAuteursAvecNombreLivres();
+    }
+
+    // Une ligne lue par (catégorie, décennie), quel que soit le nombre de livres
+    public List<CategorieDecennieCount> getLivresParCategorieEtDecennieDepuisResume() {
+        requireSummary();
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<?> rows = em.createNativeQuery(
+                            "SELECT r.categorie_id, c.nom, r.decennie, r.nb_livres " +
+                                    "FROM " + SummaryTables.CATEGORIE_DECENNIE + " r " +
+                                    "JOIN categories c ON c.id = r.categorie_id " +
+                                    "WHERE r.nb_livres > 0 " +
+                                    "ORDER BY c.nom, r.decennie")
+                    .getResultList();
+            List<CategorieDecennieCount> result = new ArrayList<>(rows.size());
+            for (Object row : rows) {
+                Object[] values = (Object[]) row;
+                result.add(new CategorieDecennieCount(((Number) values[0]).longValue(), (String) values[1],
+                        ((Number) values[2]).intValue(), ((Number) values[3]).longValue()));
+            }
+            return result;
+        } finally {
+            em.close();
+        }
+    }
+
+    // Les auteurs sans livre n'ont pas de ligne de synthèse : jointure externe, comme en direct
+    public List<AuteurLivresCount> getLivresParAuteurDepuisResume() {
+        requireSummary();
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<?> rows = em.createNativeQuery(
+                            "SELECT a.id, a.nom, a.prenom, COALESCE(r.nb_livres, 0) " +
+                                    "FROM auteurs a LEFT JOIN " + SummaryTables.AUTEUR + " r ON r.auteur_id = a.id " +
+                                    "ORDER BY a.nom, a.id")
+                    .getResultList();
+            List<AuteurLivresCount> result = new ArrayList<>(rows.size());
+            for (Object row : rows) {
+                Object[] values = (Object[]) row;
+                result.add(new AuteurLivresCount(((Number) values[0]).longValue(), (String) values[1],
+                        (String) values[2], ((Number) values[3]).longValue()));
+            }
+            return result;
+        } finally {
+            em.close();
+        }
+    }
+
+    // Recalcul complet, après des écritures qui ont contourné Hibernate
+    public void rebuildSummary() {
+        requireSummary();
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            SummaryTables.rebuild(em);
+            em.getTransaction().commit();
+        } catch (RuntimeException e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+    private void requireSummary() {
+        if (!isSummaryEnabled()) {
+            throw new IllegalStateException("Tables de synthèse désactivées (" + ReportingIntegrator.SUMMARY_ENABLED + ")");
+        }
+    }
+}
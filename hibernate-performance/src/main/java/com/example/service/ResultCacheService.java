@@ -0,0 +1,95 @@
+package com.example.service;
+
+import com.example.cache.ResultCache;
+import com.example.model.Auteur;
+import com.example.model.Livre;
+import com.example.model.QueryCatalog;
+import org.hibernate.engine.spi.SessionImplementor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Requêtes paramétrées servies par le cache de résultats (com.example.cache.ResultCache) :
+ * seuls les ids sont en cache, les entités sont ensuite lues par find, donc depuis le cache
+ * de second niveau. Contrairement au cache de requêtes Hibernate, modifier un auteur
+ * n'invalide que les recherches sur son ancien et son nouveau nom.
+ * <p>
+ * Dans une transaction qui a des modifications en attente ou déjà flushées, la requête
+ * est exécutée sans passer par le cache : elle lirait un état non validé.
+ */
+public class ResultCacheService {
+
+    private final ResultCache cache;
+
+    public ResultCacheService(EntityManagerFactory emf) {
+        this.cache = ResultCache.of(emf);
+    }
+
+    // Requête Auteur.findByNom ; dépend de Auteur.nom = nom
+    public List<Auteur> findAuteursByNom(EntityManager em, String nom) {
+        List<Long> ids = cached(em, ResultCache.Key.of(QueryCatalog.AUTEUR_FIND_BY_NOM, nom),
+                Collections.singletonList(ResultCache.Dependency.attribute(Auteur.class, "nom", nom)),
+                () -> ids(em.createNamedQuery(QueryCatalog.AUTEUR_FIND_BY_NOM, Auteur.class)
+                        .setParameter("nom", nom)
+                        .getResultList(), Auteur::getId));
+        return find(em, Auteur.class, ids);
+    }
+
+    // Requête Livre.findByAuteur, triée par id ; dépend de Livre.auteur = auteurId
+    public List<Livre> findLivresByAuteur(EntityManager em, Long auteurId) {
+        List<Long> ids = cached(em, ResultCache.Key.of(QueryCatalog.LIVRE_FIND_BY_AUTEUR, auteurId),
+                Collections.singletonList(ResultCache.Dependency.attribute(Livre.class, "auteur", auteurId)),
+                () -> ids(em.createNamedQuery(QueryCatalog.LIVRE_FIND_BY_AUTEUR, Livre.class)
+                        .setParameter("auteurId", auteurId)
+                        .getResultList(), Livre::getId));
+        return find(em, Livre.class, ids);
+    }
+
+    public ResultCache getCache() {
+        return cache;
+    }
+
+    private <T> List<T> cached(EntityManager em, ResultCache.Key key, List<ResultCache.Dependency> dependencies,
+                               Supplier<List<T>> loader) {
+        if (uncommitted(em)) {
+            return loader.get();
+        }
+        return cache.get(key, dependencies, loader);
+    }
+
+    // Actions exécutées en attente de fin de transaction : inscrites pour tout flush, ResultCacheListener
+    // demandant le traitement après commit de toutes les entités
+    private static boolean uncommitted(EntityManager em) {
+        if (!em.getTransaction().isActive()) {
+            return false;
+        }
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        return session.getActionQueue().hasAfterTransactionActions() || session.isDirty();
+    }
+
+    private static <T> List<Long> ids(List<T> entities, Function<T, Long> id) {
+        List<Long> ids = new ArrayList<>(entities.size());
+        for (T entity : entities) {
+            ids.add(id.apply(entity));
+        }
+        return ids;
+    }
+
+    // Au miss, les entités sont déjà dans l'EntityManager ; une entité supprimée entre-temps est ignorée
+    private static <T> List<T> find(EntityManager em, Class<T> type, List<Long> ids) {
+        List<T> entities = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T entity = em.find(type, id);
+            if (entity != null) {
+                entities.add(entity);
+            }
+        }
+        return entities;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.service;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nouvelles tentatives après un conflit de mise à jour : au plus max_attempts tentatives, attente
+ * exponentielle entre deux (initial_backoff_ms, multipliée par multiplier, plafonnée à
+ * max_backoff_ms) et tirée au hasard entre la moitié et la totalité de ce délai, pour que les
+ * écrivains en conflit ne repartent pas ensemble.
+ * <ul>
+ *     <li>com.example.retry.max_attempts : tentatives, la première comprise (5)</li>
+ *     <li>com.example.retry.initial_backoff_ms : attente avant la deuxième tentative (2)</li>
+ *     <li>com.example.retry.max_backoff_ms : attente maximale (100)</li>
+ *     <li>com.example.retry.multiplier : facteur entre deux attentes (2)</li>
+ * </ul>
+ */
+public final class RetryPolicy {
+
+    public static final String MAX_ATTEMPTS = "com.example.retry.max_attempts";
+    public static final String INITIAL_BACKOFF_MS = "com.example.retry.initial_backoff_ms";
+    public static final String MAX_BACKOFF_MS = "com.example.retry.max_backoff_ms";
+    public static final String MULTIPLIER = "com.example.retry.multiplier";
+
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final double multiplier;
+
+    public RetryPolicy(int maxAttempts, long initialBackoffMillis, long maxBackoffMillis, double multiplier) {
+        if (maxAttempts <= 0 || initialBackoffMillis < 0 || maxBackoffMillis < initialBackoffMillis || multiplier < 1) {
+            throw new IllegalArgumentException("Politique de nouvelles tentatives invalide");
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffNanos = TimeUnit.MILLISECONDS.toNanos(initialBackoffMillis);
+        this.maxBackoffNanos = TimeUnit.MILLISECONDS.toNanos(maxBackoffMillis);
+        this.multiplier = multiplier;
+    }
+
+    // Une seule tentative : le conflit remonte tout de suite à l'appelant
+    public static RetryPolicy none() {
+        return new RetryPolicy(1, 0, 0, 1);
+    }
+
+    // Réglages com.example.retry.* (par exemple emf.getProperties())
+    public static RetryPolicy fromProperties(Map<String, Object> properties) {
+        Object multiplier = properties.get(MULTIPLIER);
+        return new RetryPolicy(
+                (int) longValue(properties, MAX_ATTEMPTS, 5),
+                longValue(properties, INITIAL_BACKOFF_MS, 2),
+                longValue(properties, MAX_BACKOFF_MS, 100),
+                multiplier == null ? 2 : Double.parseDouble(multiplier.toString().trim()));
+    }
+
+    private static long longValue(Map<String, Object> properties, String key, long defaultValue) {
+        Object value = properties.get(key);
+        return value == null ? defaultValue : Long.parseLong(value.toString().trim());
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    // Attente avant la tentative attempt + 1 (attempt : tentatives déjà faites, à partir de 1)
+    long backoffNanos(int attempt) {
+        double delay = initialBackoffNanos * Math.pow(multiplier, attempt - 1);
+        long capped = (long) Math.min(delay, maxBackoffNanos);
+        return capped / 2 + (capped > 1 ? ThreadLocalRandom.current().nextLong(capped / 2 + 1) : 0);
+    }
+
+    @Override
+    public String toString() {
+        return "RetryPolicy{" +
+                "maxAttempts=" + maxAttempts +
+                ", initialBackoffMs=" + TimeUnit.NANOSECONDS.toMillis(initialBackoffNanos) +
+                ", maxBackoffMs=" + TimeUnit.NANOSECONDS.toMillis(maxBackoffNanos) +
+                ", multiplier=" + multiplier +
+                '}';
+    }
+}
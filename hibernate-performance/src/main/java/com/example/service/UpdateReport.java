@@ -0,0 +1,47 @@
+package com.example.service;
+
+/**
+ * Résultat d'une mise à jour unitaire : tentatives nécessaires (conflits = tentatives - 1) et durée,
+ * attentes entre tentatives comprises.
+ */
+public class UpdateReport {
+
+    private final CatalogUpdateService.Verrouillage verrouillage;
+    private final int attempts;
+    private final long durationNanos;
+
+    public UpdateReport(CatalogUpdateService.Verrouillage verrouillage, int attempts, long durationNanos) {
+        this.verrouillage = verrouillage;
+        this.attempts = attempts;
+        this.durationNanos = durationNanos;
+    }
+
+    public CatalogUpdateService.Verrouillage getVerrouillage() {
+        return verrouillage;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public int getConflicts() {
+        return attempts - 1;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public double getDurationMs() {
+        return durationNanos / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        return "UpdateReport{" +
+                "verrouillage=" + verrouillage +
+                ", attempts=" + attempts +
+                ", durationMs=" + String.format("%.1f", getDurationMs()) +
+                '}';
+    }
+}
@@ -0,0 +1,68 @@
+package com.example;
+
+import com.example.boot.Bootstrapper;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Unités de persistance des tests, sans trace SQL.
+ * <ul>
+ * <li>shared : unité standard (données de DataInitService) démarrée une fois pour toutes les
+ * classes de test de la JVM et fermée à son arrêt ; un test qui modifie le catalogue le remet
+ * en état ;</li>
+ * <li>standard : unité dédiée à des réglages particuliers, sur sa propre base mémoire, à fermer
+ * par l'appelant.</li>
+ * </ul>
+ */
+public final class TestPersistence {
+
+    private static final String URL = "javax.persistence.jdbc.url";
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private static EntityManagerFactory shared;
+
+    private TestPersistence() {
+    }
+
+    public static synchronized EntityManagerFactory shared() {
+        if (shared == null) {
+            EntityManagerFactory emf = standard(new HashMap<>());
+            Runtime.getRuntime().addShutdownHook(new Thread(emf::close));
+            shared = emf;
+        }
+        return shared;
+    }
+
+    public static EntityManagerFactory standard(Map<String, Object> overrides) {
+        return Bootstrapper.standard(properties(overrides));
+    }
+
+    // Réglages communs aux tests ; la base mémoire est propre à chaque unité
+    public static Map<String, Object> properties(Map<String, Object> overrides) {
+        Map<String, Object> props = new HashMap<>();
+        props.put("com.example.trace.enabled", "false");
+        props.put(URL, "jdbc:h2:mem:test-" + DATABASES.incrementAndGet() + ";DB_CLOSE_DELAY=-1");
+        props.putAll(overrides);
+        return props;
+    }
+
+    // Exécute work dans une transaction validée, annulée si work échoue
+    public static void inTransaction(EntityManagerFactory emf, Consumer<EntityManager> work) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            work.accept(em);
+            em.getTransaction().commit();
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+}
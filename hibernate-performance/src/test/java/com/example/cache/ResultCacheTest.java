@@ -0,0 +1,40 @@
+package com.example.cache;
+
+import com.example.model.Auteur;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Mise en cache face aux invalidations concurrentes d'un chargement.
+ */
+public class ResultCacheTest {
+
+    private final ResultCache cache = new ResultCache(100);
+    private final ResultCache.Key key = ResultCache.Key.of("Auteur.findByNom", "Hugo");
+    private final List<ResultCache.Dependency> dependencies =
+            Collections.singletonList(ResultCache.Dependency.attribute(Auteur.class, "nom", "Hugo"));
+
+    @Test
+    public void attributSuiviAvantLePremierChargement() {
+        cache.get(key, dependencies, () -> {
+            assertTrue(cache.trackedAttributes(Auteur.class).contains("nom"));
+            return Collections.singletonList(1L);
+        });
+        assertEquals(1, cache.statistics().getPuts());
+    }
+
+    @Test
+    public void chargementInvalidePendantLaLectureNonMisEnCache() {
+        cache.get(key, dependencies, () -> {
+            cache.invalidate(dependencies);
+            return Collections.singletonList(1L);
+        });
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.statistics().getRejectedPuts());
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.reference;
+
+import com.example.TestPersistence;
+import com.example.model.Auteur;
+import com.example.model.Categorie;
+import com.example.monitoring.UnitOfWorkListener;
+import com.example.monitoring.UnitOfWorkReport;
+import com.example.service.NaturalIdService;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.internal.DefaultLoadEventListener;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.LoadEventListener;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Registre des catégories actif : les catégories viennent du registre, et seul l'écouteur de
+ * chargement standard est remplacé, les autres (attribution des proxys au budget SQL) restent.
+ */
+public class ReferenceDataIntegratorTest {
+
+    private static EntityManagerFactory emf;
+
+    @BeforeClass
+    public static void setUp() {
+        emf = TestPersistence.shared();
+    }
+
+    @Test
+    public void categorieServieParLeRegistre() {
+        Categorie roman = CategorieRegistry.of(emf).byNom("Roman");
+        EntityManager em = emf.createEntityManager();
+        try {
+            assertSame(roman, em.find(Categorie.class, roman.getId()));
+        } finally {
+            em.close();
+        }
+    }
+
+    @Test
+    public void seulEcouteurStandardRemplace() {
+        List<LoadEventListener> listeners = new ArrayList<>();
+        emf.unwrap(SessionFactoryImplementor.class).getServiceRegistry().getService(EventListenerRegistry.class)
+                .getEventListenerGroup(EventType.LOAD).listeners().forEach(listeners::add);
+        // Écouteur du budget SQL en tête, puis le registre à la place de DefaultLoadEventListener
+        assertEquals(2, listeners.size());
+        assertFalse(listeners.get(0) instanceof DefaultLoadEventListener);
+        assertTrue(listeners.get(1) instanceof RegistryLoadEventListener);
+    }
+
+    @Test
+    public void initialisationDeProxyAttribuee() {
+        Long id = new NaturalIdService(emf).findAuteurByEmail("victor.hugo@example.com").getId();
+        EntityManager em = emf.createEntityManager();
+        try {
+            assertEquals("Hugo", em.getReference(Auteur.class, id).getNom());
+        } finally {
+            em.close();
+        }
+        UnitOfWorkReport report = UnitOfWorkListener.lastReport();
+        assertNotNull(report);
+        assertEquals(Integer.valueOf(1), report.getLazyLoads().get("proxy " + Auteur.class.getName()));
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.reporting;
+
+import com.example.service.ReportingService;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tables de synthèse comparées à l'agrégation GROUP BY sur les tables de livres.
+ */
+public final class SummaryAssertions {
+
+    private SummaryAssertions() {
+    }
+
+    public static void assertResumeCoherent(EntityManagerFactory emf) {
+        ReportingService reporting = new ReportingService(emf);
+        assertEquals(String.valueOf(reporting.getLivresParCategorieEtDecennieEnDirect()),
+                String.valueOf(reporting.getLivresParCategorieEtDecennieDepuisResume()));
+        assertEquals(String.valueOf(reporting.getLivresParAuteurEnDirect()),
+                String.valueOf(reporting.getLivresParAuteurDepuisResume()));
+    }
+}
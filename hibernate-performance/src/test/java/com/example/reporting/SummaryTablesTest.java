@@ -0,0 +1,196 @@
+package com.example.reporting;
+
+import com.example.TestPersistence;
+import com.example.model.Auteur;
+import com.example.model.Livre;
+import com.example.reference.CategorieRegistry;
+import com.example.service.NaturalIdService;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.reporting.SummaryAssertions.assertResumeCoherent;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Deux transactions qui créent la même clé de synthèse : la seconde ajoute son delta
+ * à la ligne de la première au lieu d'échouer sur la clé dupliquée. Les deltas des écouteurs
+ * (insertion, année, catégories, suppression, rollback) gardent les tables égales au GROUP BY.
+ */
+public class SummaryTablesTest {
+
+    private static EntityManagerFactory emf;
+    private static ConnectionProvider connections;
+
+    @BeforeClass
+    public static void setUp() {
+        emf = TestPersistence.shared();
+        connections = emf.unwrap(SessionFactoryImplementor.class).getServiceRegistry()
+                .getService(ConnectionProvider.class);
+    }
+
+    // Clés fictives retirées : les tables de synthèse de l'unité partagée restent cohérentes
+    @After
+    public void nettoyer() throws SQLException {
+        Connection c = connections.getConnection();
+        try (PreparedStatement categories = c.prepareStatement(
+                "DELETE FROM " + SummaryTables.CATEGORIE_DECENNIE + " WHERE categorie_id = -1");
+             PreparedStatement auteurs = c.prepareStatement(
+                     "DELETE FROM " + SummaryTables.AUTEUR + " WHERE auteur_id = -1")) {
+            categories.executeUpdate();
+            auteurs.executeUpdate();
+        } finally {
+            connections.closeConnection(c);
+        }
+    }
+
+    @Test
+    public void creationConcurrenteDeLaMemeCle() throws Exception {
+        long retries = SummaryTables.duplicateKeyRetries();
+        Connection premiere = transaction();
+        SummaryTables.apply(premiere, delta(2));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // La seconde insertion attend la première transaction, puis retente la mise à jour
+            Future<?> seconde = executor.submit(() -> {
+                Connection c = transaction();
+                try {
+                    SummaryTables.apply(c, delta(3));
+                    c.commit();
+                } finally {
+                    connections.closeConnection(c);
+                }
+                return null;
+            });
+            attendreBlocage(premiere, seconde);
+            premiere.commit();
+            seconde.get(30, TimeUnit.SECONDS);
+        } finally {
+            connections.closeConnection(premiere);
+            executor.shutdown();
+        }
+
+        assertEquals(5, nbLivres(9990));
+        assertEquals(5, nbLivresAuteur(-1));
+        // Reprise de la clé (catégorie, décennie) ; la ligne de l'auteur, validée entre-temps, est mise à jour directement
+        assertEquals(retries + 1, SummaryTables.duplicateKeyRetries());
+    }
+
+    @Test
+    public void deltasDesEcouteursCoherentsAvecLeGroupBy() {
+        Long hugo = new NaturalIdService(emf).findAuteurByEmail("victor.hugo@example.com").getId();
+        Long[] id = new Long[1];
+
+        TestPersistence.inTransaction(emf, em -> {
+            Livre livre = new Livre("Livre de synthèse", 1862, "9990000000001");
+            livre.addCategorie(CategorieRegistry.of(emf).attach(em, "Roman"));
+            em.find(Auteur.class, hugo).addLivre(livre);
+            em.persist(livre);
+            id[0] = livre.getId();
+        });
+        assertResumeCoherent(emf);
+
+        try {
+            TestPersistence.inTransaction(emf, em -> em.find(Livre.class, id[0]).setAnneePublication(1905));
+            assertResumeCoherent(emf);
+
+            TestPersistence.inTransaction(emf, em -> {
+                Livre livre = em.find(Livre.class, id[0]);
+                livre.removeCategorie(CategorieRegistry.of(emf).attach(em, "Roman"));
+                livre.addCategorie(CategorieRegistry.of(emf).attach(em, "Fantasy"));
+            });
+            assertResumeCoherent(emf);
+
+            EntityManager em = emf.createEntityManager();
+            try {
+                em.getTransaction().begin();
+                Livre livre = em.find(Livre.class, id[0]);
+                livre.setAnneePublication(1950);
+                livre.addCategorie(CategorieRegistry.of(emf).attach(em, "Roman"));
+                em.flush();
+                em.getTransaction().rollback();
+            } finally {
+                em.close();
+            }
+            assertResumeCoherent(emf);
+        } finally {
+            TestPersistence.inTransaction(emf, em -> {
+                Livre livre = em.find(Livre.class, id[0]);
+                livre.getAuteur().removeLivre(livre);
+                em.remove(livre);
+            });
+        }
+        assertResumeCoherent(emf);
+    }
+
+    private static SummaryDeltas delta(long n) {
+        SummaryDeltas deltas = new SummaryDeltas();
+        deltas.categorie(-1L, 9990, n);
+        deltas.auteur(-1L, n);
+        return deltas;
+    }
+
+    // Attend que la seconde transaction soit bloquée par la première sur la clé insérée
+    // (H2 la montre en cours d'exécution de l'INSERT, en attente du verrou de la table)
+    private static void attendreBlocage(Connection premiere, Future<?> seconde) throws Exception {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (true) {
+            // Une autre session exécute l'insertion de la clé que la première transaction n'a pas validée
+            try (Statement st = premiere.createStatement(); ResultSet rs = st.executeQuery(
+                    "SELECT COUNT(*) FROM INFORMATION_SCHEMA.SESSIONS WHERE SESSION_ID <> SESSION_ID() "
+                            + "AND EXECUTING_STATEMENT LIKE 'INSERT INTO " + SummaryTables.CATEGORIE_DECENNIE + " %'")) {
+                if (rs.next() && rs.getLong(1) > 0) {
+                    return;
+                }
+            }
+            if (seconde.isDone()) {
+                seconde.get();
+                fail("La seconde transaction n'a pas attendu la première");
+            }
+            if (System.nanoTime() > limite) {
+                fail("La seconde transaction n'est jamais bloquée");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static Connection transaction() throws SQLException {
+        Connection c = connections.getConnection();
+        c.setAutoCommit(false);
+        return c;
+    }
+
+    private static long nbLivres(int decennie) throws SQLException {
+        return count("SELECT nb_livres FROM " + SummaryTables.CATEGORIE_DECENNIE
+                + " WHERE categorie_id = -1 AND decennie = " + decennie);
+    }
+
+    private static long nbLivresAuteur(long auteurId) throws SQLException {
+        return count("SELECT nb_livres FROM " + SummaryTables.AUTEUR + " WHERE auteur_id = " + auteurId);
+    }
+
+    private static long count(String sql) throws SQLException {
+        Connection c = connections.getConnection();
+        try (PreparedStatement st = c.prepareStatement(sql); ResultSet rs = st.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        } finally {
+            connections.closeConnection(c);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.repository;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Contre-pression de AsyncExecutor : au-delà de max_in_flight, l'appelant attend
+ * acquire_timeout_ms puis reçoit un futur en échec, sans occuper de place.
+ */
+public class AsyncExecutorTest {
+
+    @Test
+    public void tacheRejeteeApresLeDelaiDAttente() throws Exception {
+        CountDownLatch liberation = new CountDownLatch(1);
+        try (AsyncExecutor executor = new AsyncExecutor(AsyncExecutor.Mode.PLATFORM, 1, 1, 50)) {
+            CompletableFuture<String> enCours = executor.submit(() -> {
+                attendre(liberation);
+                return "ok";
+            });
+            assertEquals(1, executor.getInFlight());
+
+            long debut = System.nanoTime();
+            CompletableFuture<String> refusee = executor.submit(() -> "jamais");
+            assertTrue(System.nanoTime() - debut >= TimeUnit.MILLISECONDS.toNanos(50));
+            assertRejected(refusee);
+            assertEquals(1, executor.getRejected());
+            assertEquals(1, executor.getInFlight());
+
+            liberation.countDown();
+            assertEquals("ok", enCours.get(10, TimeUnit.SECONDS));
+            assertEquals(0, executor.getInFlight());
+            assertEquals("ok", executor.submit(() -> "ok").get(10, TimeUnit.SECONDS));
+            assertEquals(3, executor.getSubmitted());
+        }
+    }
+
+    @Test
+    public void tacheRejeteeApresFermeture() throws Exception {
+        AsyncExecutor executor = new AsyncExecutor(AsyncExecutor.Mode.PLATFORM, 1, 1, 50);
+        executor.close();
+        assertRejected(executor.submit(() -> "jamais"));
+        assertEquals(1, executor.getRejected());
+        // Place rendue : l'exécuteur arrêté ne retient aucun permis
+        assertEquals(0, executor.getInFlight());
+    }
+
+    @Test
+    public void modeLuSansTenirCompteDeLaLocale() {
+        // En turc, "virtual".toUpperCase() donne "VİRTUAL" : le mode doit rester reconnu
+        Locale locale = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try (AsyncExecutor executor = AsyncExecutor.fromProperties(
+                Collections.<String, Object>singletonMap(AsyncExecutor.MODE, " virtual "))) {
+            assertEquals(AsyncExecutor.Mode.VIRTUAL, executor.getMode());
+        } catch (IllegalStateException e) {
+            // JDK antérieur à 21 : mode reconnu, threads virtuels indisponibles
+            assertTrue(e.getMessage(), e.getMessage().contains("Threads virtuels indisponibles"));
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+
+    private static void assertRejected(CompletableFuture<?> future) throws InterruptedException {
+        assertTrue(future.isDone());
+        try {
+            future.get();
+            fail("Tâche acceptée");
+        } catch (ExecutionException e) {
+            assertTrue(String.valueOf(e.getCause()), e.getCause() instanceof RejectedExecutionException);
+        }
+    }
+
+    private static void attendre(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
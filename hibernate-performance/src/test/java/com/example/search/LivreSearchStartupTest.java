@@ -0,0 +1,48 @@
+package com.example.search;
+
+import com.example.TestPersistence;
+import com.example.boot.Bootstrapper;
+import com.example.service.LivreSearchService;
+import org.junit.Test;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Démarrage rapide sur une image déjà peuplée : aucun livre n'est inséré par la session,
+ * l'index ne peut venir que de la reconstruction au démarrage.
+ */
+public class LivreSearchStartupTest {
+
+    private static final String IMAGE = "target/test-images/search";
+
+    @Test
+    public void demarrageRapideIndexeLaBase() {
+        EntityManagerFactory emf = Bootstrapper.fast(properties(true));
+        try {
+            assertEquals(1, new LivreSearchService(emf).search("Fondation", 0, 10).getTotalHits());
+        } finally {
+            emf.close();
+        }
+    }
+
+    @Test
+    public void reconstructionDesactivable() {
+        EntityManagerFactory emf = Bootstrapper.fast(properties(false));
+        try {
+            assertEquals(0, LivreSearchIndex.of(emf).size());
+        } finally {
+            emf.close();
+        }
+    }
+
+    private static Map<String, Object> properties(boolean rebuild) {
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put(Bootstrapper.IMAGE, IMAGE);
+        overrides.put(LivreSearchIntegrator.REBUILD_ON_STARTUP, String.valueOf(rebuild));
+        return TestPersistence.properties(overrides);
+    }
+}
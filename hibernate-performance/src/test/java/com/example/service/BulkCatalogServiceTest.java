@@ -0,0 +1,152 @@
+package com.example.service;
+
+import com.example.TestPersistence;
+import com.example.model.Auteur;
+import com.example.model.Livre;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.reporting.SummaryAssertions.assertResumeCoherent;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Paramètres refusés par remplacerCategorie avant toute instruction SQL, et invalidation
+ * limitée aux lignes touchées par deplacerLivres.
+ */
+public class BulkCatalogServiceTest {
+
+    private static EntityManagerFactory emf;
+    private static BulkCatalogService bulk;
+    private static Long roman;
+    private static Long tolkien;
+    private static Long hugo;
+
+    @BeforeClass
+    public static void setUp() {
+        emf = TestPersistence.shared();
+        bulk = new BulkCatalogService(emf);
+        EntityManager em = emf.createEntityManager();
+        try {
+            roman = em.createQuery("SELECT c.id FROM Categorie c WHERE c.nom = 'Roman'", Long.class)
+                    .getSingleResult();
+        } finally {
+            em.close();
+        }
+        NaturalIdService naturalIds = new NaturalIdService(emf);
+        tolkien = naturalIds.findAuteurByEmail("jrr.tolkien@example.com").getId();
+        hugo = naturalIds.findAuteurByEmail("victor.hugo@example.com").getId();
+    }
+
+    @Test
+    public void sourceEtCibleIdentiquesRefusees() {
+        long avant = liens(roman);
+        try {
+            bulk.remplacerCategorie(roman, roman);
+            fail("Catégories identiques acceptées");
+        } catch (IllegalArgumentException expected) {
+            // attendu
+        }
+        assertEquals(avant, liens(roman));
+    }
+
+    @Test
+    public void categorieInconnueRefusee() {
+        long avant = liens(roman);
+        try {
+            bulk.remplacerCategorie(roman, -1L);
+            fail("Catégorie inexistante acceptée");
+        } catch (EntityNotFoundException expected) {
+            // attendu
+        }
+        assertEquals(avant, liens(roman));
+    }
+
+    @Test
+    public void deplacerLivresNInvalideQueLesLignesTouchees() {
+        // Auteur cible sans livre, retiré à la fin : les autres auteurs gardent leur catalogue
+        Auteur temporaire = new Auteur("Temporaire", "Auteur", "auteur.temporaire@example.com");
+        TestPersistence.inTransaction(emf, em -> em.persist(temporaire));
+        Long cible = temporaire.getId();
+        Cache cache = emf.unwrap(SessionFactory.class).getCache();
+        ResultCacheService resultats = new ResultCacheService(emf);
+        try {
+            List<Long> deplaces = livres(tolkien);
+            List<Long> autres = livres(hugo);
+            livres(cible);
+            EntityManager em = emf.createEntityManager();
+            try {
+                resultats.findLivresByAuteur(em, tolkien);
+                resultats.findLivresByAuteur(em, cible);
+                resultats.findLivresByAuteur(em, hugo);
+            } finally {
+                em.close();
+            }
+
+            BulkUpdateReport report = bulk.deplacerLivres(tolkien, cible);
+
+            assertEquals(deplaces.size(), report.getRows());
+            for (Long id : deplaces) {
+                assertFalse("Livre déplacé encore en cache : " + id, cache.containsEntity(Livre.class, id));
+            }
+            assertFalse(cache.containsCollection(BulkCatalogService.ROLE_AUTEUR_LIVRES, tolkien));
+            assertFalse(cache.containsCollection(BulkCatalogService.ROLE_AUTEUR_LIVRES, cible));
+            for (Long id : autres) {
+                assertTrue("Livre non touché retiré du cache : " + id, cache.containsEntity(Livre.class, id));
+            }
+            assertTrue(cache.containsCollection(BulkCatalogService.ROLE_AUTEUR_LIVRES, hugo));
+
+            long hits = resultats.getCache().statistics().getHits();
+            em = emf.createEntityManager();
+            try {
+                assertEquals(autres.size(), resultats.findLivresByAuteur(em, hugo).size());
+                assertEquals(hits + 1, resultats.getCache().statistics().getHits());
+                assertTrue(resultats.findLivresByAuteur(em, tolkien).isEmpty());
+                assertEquals(deplaces.size(), resultats.findLivresByAuteur(em, cible).size());
+                assertEquals(hits + 1, resultats.getCache().statistics().getHits());
+            } finally {
+                em.close();
+            }
+            assertResumeCoherent(emf);
+        } finally {
+            bulk.deplacerLivres(cible, tolkien);
+            TestPersistence.inTransaction(emf, em -> em.remove(em.find(Auteur.class, cible)));
+        }
+        assertResumeCoherent(emf);
+    }
+
+    // Charge les livres de l'auteur et sa collection dans le cache de second niveau ; renvoie leurs ids
+    private static List<Long> livres(Long auteurId) {
+        List<Long> ids = new ArrayList<>();
+        EntityManager em = emf.createEntityManager();
+        try {
+            for (Livre livre : em.find(Auteur.class, auteurId).getLivres()) {
+                ids.add(livre.getId());
+            }
+        } finally {
+            em.close();
+        }
+        return ids;
+    }
+
+    private static long liens(Long categorieId) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return ((Number) em.createNativeQuery("SELECT COUNT(*) FROM livre_categorie WHERE categorie_id = ?1")
+                    .setParameter(1, categorieId)
+                    .getSingleResult()).longValue();
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.service;
+
+import com.example.TestPersistence;
+import com.example.cache.ResultCache;
+import com.example.model.Auteur;
+import com.example.model.Livre;
+import com.example.model.QueryCatalog;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Invalidation du cache de résultats : seules les recherches dont une dépendance change sont
+ * retirées, et une modification annulée ne laisse aucun résultat non validé en cache.
+ */
+public class ResultCacheServiceTest {
+
+    private static EntityManagerFactory emf;
+    private static ResultCacheService service;
+    private static Long hugo;
+    private static Long asimov;
+    private static Long tolkien;
+
+    private EntityManager em;
+
+    @BeforeClass
+    public static void setUp() {
+        emf = TestPersistence.shared();
+        service = new ResultCacheService(emf);
+        NaturalIdService naturalIds = new NaturalIdService(emf);
+        hugo = naturalIds.findAuteurByEmail("victor.hugo@example.com").getId();
+        asimov = naturalIds.findAuteurByEmail("isaac.asimov@example.com").getId();
+        tolkien = naturalIds.findAuteurByEmail("jrr.tolkien@example.com").getId();
+    }
+
+    @Before
+    public void ouvrir() {
+        service.getCache().clear();
+        em = emf.createEntityManager();
+    }
+
+    @After
+    public void fermer() {
+        if (em.getTransaction().isActive()) {
+            em.getTransaction().rollback();
+        }
+        em.close();
+    }
+
+    @Test
+    public void modificationSansRapportConserveLesEntrees() {
+        service.findAuteursByNom(em, "Hugo");
+        service.findLivresByAuteur(em, hugo);
+        long invalidations = service.getCache().statistics().getInvalidations();
+
+        String prenom = renommerPrenom(asimov, "Isaac Jr.");
+        try {
+            assertEquals(invalidations, service.getCache().statistics().getInvalidations());
+            assertTrue(enCache(() -> service.findAuteursByNom(em, "Hugo")));
+            assertTrue(enCache(() -> service.findLivresByAuteur(em, hugo)));
+        } finally {
+            renommerPrenom(asimov, prenom);
+        }
+    }
+
+    @Test
+    public void changementDeNomNeRetireQueSesRecherches() {
+        service.findAuteursByNom(em, "Hugo");
+        service.findAuteursByNom(em, "Tolkien");
+        service.findAuteursByNom(em, "Tolkien II");
+
+        renommer(tolkien, "Tolkien II");
+        try {
+            assertTrue(enCache(() -> service.findAuteursByNom(em, "Hugo")));
+            assertFalse(enCache(() -> service.findAuteursByNom(em, "Tolkien")));
+            em.clear();
+            List<Auteur> renomme = service.findAuteursByNom(em, "Tolkien II");
+            assertEquals(1, renomme.size());
+            assertEquals(tolkien, renomme.get(0).getId());
+        } finally {
+            renommer(tolkien, "Tolkien");
+        }
+    }
+
+    @Test
+    public void changementDAuteurNeRetireQueLesDeuxAuteurs() {
+        List<Livre> livresTolkien = service.findLivresByAuteur(em, tolkien);
+        service.findLivresByAuteur(em, asimov);
+        service.findLivresByAuteur(em, hugo);
+        Long livre = livresTolkien.get(0).getId();
+
+        changerAuteur(livre, asimov);
+        try {
+            assertTrue(enCache(() -> service.findLivresByAuteur(em, hugo)));
+            assertFalse(enCache(() -> service.findLivresByAuteur(em, tolkien)));
+            assertFalse(enCache(() -> service.findLivresByAuteur(em, asimov)));
+            em.clear();
+            assertEquals(livresTolkien.size() - 1, service.findLivresByAuteur(em, tolkien).size());
+        } finally {
+            changerAuteur(livre, tolkien);
+        }
+    }
+
+    @Test
+    public void rechercheDansUneTransactionAnnulee() {
+        em.getTransaction().begin();
+        Auteur auteur = service.findAuteursByNom(em, "Hugo").get(0);
+        auteur.setNom("X");
+        assertEquals(1, service.findAuteursByNom(em, "X").size());
+        em.getTransaction().rollback();
+        em.clear();
+
+        assertTrue(service.findAuteursByNom(em, "X").isEmpty());
+        assertEquals(1, service.findAuteursByNom(em, "Hugo").size());
+    }
+
+    @Test
+    public void entreeRetireeAuRollback() {
+        // Chargement direct par le cache, sans la garde du service : le rollback invalide l'entrée
+        ResultCache cache = service.getCache();
+        ResultCache.Key key = ResultCache.Key.of(QueryCatalog.AUTEUR_FIND_BY_NOM, "X");
+        em.getTransaction().begin();
+        Auteur auteur = service.findAuteursByNom(em, "Hugo").get(0);
+        auteur.setNom("X");
+        List<Auteur> auteurs = cache.get(key,
+                Collections.singletonList(ResultCache.Dependency.attribute(Auteur.class, "nom", "X")),
+                () -> em.createNamedQuery(QueryCatalog.AUTEUR_FIND_BY_NOM, Auteur.class)
+                        .setParameter("nom", "X")
+                        .getResultList());
+        assertEquals(1, auteurs.size());
+        em.getTransaction().rollback();
+
+        List<Object> apres = cache.get(key,
+                Collections.singletonList(ResultCache.Dependency.attribute(Auteur.class, "nom", "X")),
+                Collections::emptyList);
+        assertTrue(apres.isEmpty());
+    }
+
+    // true si la recherche est servie par le cache de résultats
+    private static boolean enCache(Runnable recherche) {
+        long hits = service.getCache().statistics().getHits();
+        recherche.run();
+        return service.getCache().statistics().getHits() > hits;
+    }
+
+    private static void renommer(Long auteurId, String nom) {
+        TestPersistence.inTransaction(emf, em -> em.find(Auteur.class, auteurId).setNom(nom));
+    }
+
+    // Renvoie le prénom remplacé
+    private static String renommerPrenom(Long auteurId, String prenom) {
+        String[] avant = new String[1];
+        TestPersistence.inTransaction(emf, em -> {
+            Auteur auteur = em.find(Auteur.class, auteurId);
+            avant[0] = auteur.getPrenom();
+            auteur.setPrenom(prenom);
+        });
+        return avant[0];
+    }
+
+    private static void changerAuteur(Long livreId, Long auteurId) {
+        TestPersistence.inTransaction(emf, em -> {
+            Livre livre = em.find(Livre.class, livreId);
+            livre.getAuteur().removeLivre(livre);
+            em.find(Auteur.class, auteurId).addLivre(livre);
+        });
+    }
+}
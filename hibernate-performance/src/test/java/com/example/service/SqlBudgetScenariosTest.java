@@ -0,0 +1,141 @@
+package com.example.service;
+
+import com.example.TestPersistence;
+import com.example.model.Auteur;
+import com.example.monitoring.SqlBudget;
+import com.example.monitoring.SqlBudgetExceededException;
+import com.example.monitoring.UnitOfWorkListener;
+import com.example.monitoring.UnitOfWorkReport;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Scénarios de PerformanceTestService rejoués en mode fail : le N+1 doit être refusé
+ * à la fermeture de l'EntityManager, le JOIN FETCH signalé sur Livre.categories qu'il ne
+ * charge pas, les autres scénarios doivent tenir le budget.
+ * Chaque test part d'un cache de second niveau vide.
+ */
+public class SqlBudgetScenariosTest {
+
+    private static EntityManagerFactory emf;
+    private static PerformanceTestService scenarios;
+
+    @BeforeClass
+    public static void setUp() {
+        emf = TestPersistence.standard(Collections.<String, Object>singletonMap(SqlBudget.MODE, "fail"));
+        scenarios = new PerformanceTestService(emf);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        emf.close();
+    }
+
+    @Before
+    public void viderCache() {
+        emf.getCache().evictAll();
+    }
+
+    @Test
+    public void budgetDeLaSessionFactory() {
+        assertEquals(SqlBudget.Mode.FAIL, SqlBudget.of(emf).getMode());
+    }
+
+    @Test
+    public void problemeN1RefuseEnModeFail() {
+        try {
+            scenarios.testN1Problem();
+            fail("Le scénario N+1 aurait dû dépasser le budget SQL");
+        } catch (RuntimeException e) {
+            SqlBudgetExceededException exceeded = budgetExceeded(e);
+            assertNotNull("SqlBudgetExceededException attendue, obtenu : " + e, exceeded);
+            UnitOfWorkReport report = exceeded.getReport();
+            assertTrue(report.getLazyLoads().containsKey("com.example.model.Auteur.livres"));
+            assertTrue(report.getLazyLoads().containsKey("com.example.model.Livre.categories"));
+            assertTrue(exceeded.getMessage(), exceeded.getMessage().contains("Livre.categories"));
+        }
+    }
+
+    @Test
+    public void entityGraphDansLeBudget() {
+        scenarios.testEntityGraph();
+        assertWithinBudget();
+    }
+
+    @Test
+    public void joinFetchAFroidSignaleLesCategories() {
+        // Le JOIN FETCH ne charge que Auteur.livres : à froid, Livre.categories reste en N+1
+        try {
+            scenarios.testJoinFetch();
+            fail("Le JOIN FETCH à froid aurait dû dépasser le budget SQL sur Livre.categories");
+        } catch (RuntimeException e) {
+            SqlBudgetExceededException exceeded = budgetExceeded(e);
+            assertNotNull("SqlBudgetExceededException attendue, obtenu : " + e, exceeded);
+            UnitOfWorkReport report = exceeded.getReport();
+            assertFalse(report.getLazyLoads().containsKey("com.example.model.Auteur.livres"));
+            assertTrue(report.getLazyLoads().containsKey("com.example.model.Livre.categories"));
+            assertTrue(exceeded.getMessage(), exceeded.getMessage().contains("Livre.categories"));
+        }
+    }
+
+    @Test
+    public void cacheDeSecondNiveauDansLeBudget() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        scenarios.testSecondLevelCache();
+        // Deuxième accès à la requête servi par le cache : aucune requête SQL, rien à juger
+        assertEquals(1, statistics.getQueryCacheMissCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        assertNull(UnitOfWorkListener.lastReport());
+    }
+
+    @Test
+    public void comparaisonDesPerformancesDansLeBudget() {
+        scenarios.testPerformanceComparison();
+        assertWithinBudget();
+    }
+
+    @Test
+    public void initialisationDeProxyComptee() {
+        Long id = new NaturalIdService(emf).findAuteurByEmail("victor.hugo@example.com").getId();
+        EntityManager em = emf.createEntityManager();
+        try {
+            assertEquals("Hugo", em.getReference(Auteur.class, id).getNom());
+        } finally {
+            em.close();
+        }
+        UnitOfWorkReport report = UnitOfWorkListener.lastReport();
+        assertNotNull(report);
+        assertEquals(Integer.valueOf(1), report.getLazyLoads().get("proxy " + Auteur.class.getName()));
+    }
+
+    private static void assertWithinBudget() {
+        UnitOfWorkReport report = UnitOfWorkListener.lastReport();
+        assertNotNull("Aucune unité de travail jugée", report);
+        assertTrue("Budget SQL dépassé : " + report, report.isWithinBudget());
+    }
+
+    private static SqlBudgetExceededException budgetExceeded(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof SqlBudgetExceededException) {
+                return (SqlBudgetExceededException) cause;
+            }
+        }
+        return null;
+    }
+}